@@ -28,4 +28,11 @@ public final class ByteSizes {
             + ByteSizes.INT_BYTES;
 
     public final static int BYTES_IN_ONE_POINT_ENTRY = ByteSizes.LONG_BYTES + 3 * ByteSizes.DOUBLE_BYTES;
+
+    /**
+     * A constant with the number of bytes of the header preceding the sensor data in the Cyface binary format. The
+     * header consists of the format version as <code>short</code> followed by the number of geo locations,
+     * accelerations, rotations and directions as <code>int</code> values.
+     */
+    public final static int BYTES_IN_HEADER = 2 + 4 * ByteSizes.INT_BYTES;
 }
\ No newline at end of file
@@ -0,0 +1,137 @@
+package de.cyface.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A series of geo locations, stored column by column in primitive arrays. Compared to a list of
+ * {@link LocationPoint} objects this saves the object header and padding of each location and keeps the values of
+ * one column next to each other in memory. Slices share the arrays of the series they were created from.
+ *
+ * @author Philipp Grubitzsch
+ * @since 0.3.0
+ *
+ */
+public class LocationSeries {
+
+    final long[] timestamps;
+    final double[] latitudes;
+    final double[] longitudes;
+    final double[] speeds;
+    final int[] accuracies;
+    final int offset;
+    final int size;
+
+    /**
+     * Creates a series from the first <code>size</code> values of the provided arrays, which are not copied.
+     *
+     * @param timestamps the timestamps of the geo locations
+     * @param latitudes the latitudes of the geo locations
+     * @param longitudes the longitudes of the geo locations
+     * @param speeds the speeds of the geo locations
+     * @param accuracies the accuracies of the geo locations
+     * @param size the number of geo locations in the series
+     */
+    public LocationSeries(long[] timestamps, double[] latitudes, double[] longitudes, double[] speeds,
+            int[] accuracies, int size) {
+        this(timestamps, latitudes, longitudes, speeds, accuracies, 0, size);
+    }
+
+    private LocationSeries(long[] timestamps, double[] latitudes, double[] longitudes, double[] speeds,
+            int[] accuracies, int offset, int size) {
+        if (size < 0 || offset + size > Math.min(Math.min(timestamps.length, accuracies.length),
+                Math.min(latitudes.length, Math.min(longitudes.length, speeds.length)))) {
+            throw new IllegalArgumentException("Arrays can not hold " + size + " geo locations.");
+        }
+        this.timestamps = timestamps;
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.speeds = speeds;
+        this.accuracies = accuracies;
+        this.offset = offset;
+        this.size = size;
+    }
+
+    /**
+     *
+     * @return the number of geo locations in this series
+     */
+    public final int size() {
+        return size;
+    }
+
+    public final long getTimestamp(final int index) {
+        return timestamps[offset + checkIndex(index)];
+    }
+
+    public final double getLatitude(final int index) {
+        return latitudes[offset + checkIndex(index)];
+    }
+
+    public final double getLongitude(final int index) {
+        return longitudes[offset + checkIndex(index)];
+    }
+
+    public final double getSpeed(final int index) {
+        return speeds[offset + checkIndex(index)];
+    }
+
+    public final int getAccuracy(final int index) {
+        return accuracies[offset + checkIndex(index)];
+    }
+
+    /**
+     *
+     * @param index the index of a geo location in this series
+     * @return a new {@link LocationPoint} with the values at the provided index
+     */
+    public final LocationPoint get(final int index) {
+        int i = offset + checkIndex(index);
+        return new LocationPoint(accuracies[i], longitudes[i], latitudes[i], speeds[i], timestamps[i]);
+    }
+
+    /**
+     * Creates a view of a part of this series without copying any values.
+     *
+     * @param from the index of the first geo location of the slice, inclusive
+     * @param to the index after the last geo location of the slice, exclusive
+     * @return the slice
+     */
+    public final LocationSeries slice(final int from, final int to) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException(
+                    "Invalid slice [" + from + ", " + to + ") of " + size + " geo locations.");
+        }
+        return new LocationSeries(timestamps, latitudes, longitudes, speeds, accuracies, offset + from, to - from);
+    }
+
+    /**
+     *
+     * @return a new {@link LocationPoint} object for each geo location of this series
+     */
+    public final List<LocationPoint> toList() {
+        List<LocationPoint> locations = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            locations.add(get(i));
+        }
+        return locations;
+    }
+
+    private int checkIndex(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of series with " + size + " geo locations.");
+        }
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("size=").append(size);
+        if (size > 0) {
+            sb.append(",").append("from=").append(getTimestamp(0)).append(",").append("to=")
+                    .append(getTimestamp(size - 1));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,138 @@
+package de.cyface.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import de.cyface.data.Point3D.TypePoint3D;
+
+/**
+ * A series of 3D sample points of one sensor, stored column by column in primitive arrays. Compared to a list of
+ * {@link Point3D} objects this saves the object header and padding of each point and keeps the values of one axis
+ * next to each other in memory, which is what most analyses scan. Slices share the arrays of the series they were
+ * created from.
+ *
+ * @author Philipp Grubitzsch
+ * @since 0.3.0
+ *
+ */
+public class Point3DSeries {
+
+    final TypePoint3D type;
+    final long[] timestamps;
+    final double[] x;
+    final double[] y;
+    final double[] z;
+    final int offset;
+    final int size;
+
+    /**
+     * Creates a series from the first <code>size</code> values of the provided arrays, which are not copied.
+     *
+     * @param type the sensor type from which the points were recorded
+     * @param timestamps the timestamps of the points
+     * @param x the x values of the points
+     * @param y the y values of the points
+     * @param z the z values of the points
+     * @param size the number of points in the series
+     */
+    public Point3DSeries(TypePoint3D type, long[] timestamps, double[] x, double[] y, double[] z, int size) {
+        this(type, timestamps, x, y, z, 0, size);
+    }
+
+    private Point3DSeries(TypePoint3D type, long[] timestamps, double[] x, double[] y, double[] z, int offset,
+            int size) {
+        if (size < 0 || offset + size > Math.min(timestamps.length,
+                Math.min(x.length, Math.min(y.length, z.length)))) {
+            throw new IllegalArgumentException("Arrays can not hold " + size + " points.");
+        }
+        this.type = type;
+        this.timestamps = timestamps;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.offset = offset;
+        this.size = size;
+    }
+
+    public final TypePoint3D getType() {
+        return type;
+    }
+
+    /**
+     *
+     * @return the number of points in this series
+     */
+    public final int size() {
+        return size;
+    }
+
+    public final long getTimestamp(final int index) {
+        return timestamps[offset + checkIndex(index)];
+    }
+
+    public final double getX(final int index) {
+        return x[offset + checkIndex(index)];
+    }
+
+    public final double getY(final int index) {
+        return y[offset + checkIndex(index)];
+    }
+
+    public final double getZ(final int index) {
+        return z[offset + checkIndex(index)];
+    }
+
+    /**
+     *
+     * @param index the index of a point in this series
+     * @return a new {@link Point3D} with the values at the provided index
+     */
+    public final Point3D get(final int index) {
+        int i = offset + checkIndex(index);
+        return new Point3D(type, x[i], y[i], z[i], timestamps[i]);
+    }
+
+    /**
+     * Creates a view of a part of this series without copying any values.
+     *
+     * @param from the index of the first point of the slice, inclusive
+     * @param to the index after the last point of the slice, exclusive
+     * @return the slice
+     */
+    public final Point3DSeries slice(final int from, final int to) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("Invalid slice [" + from + ", " + to + ") of " + size + " points.");
+        }
+        return new Point3DSeries(type, timestamps, x, y, z, offset + from, to - from);
+    }
+
+    /**
+     *
+     * @return a new {@link Point3D} object for each point of this series
+     */
+    public final List<Point3D> toList() {
+        List<Point3D> points = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            points.add(get(i));
+        }
+        return points;
+    }
+
+    private int checkIndex(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of series with " + size + " points.");
+        }
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("sensortype=").append(type).append(",").append("size=").append(size);
+        if (size > 0) {
+            sb.append(",").append("from=").append(getTimestamp(0)).append(",").append("to=")
+                    .append(getTimestamp(size - 1));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,113 @@
+package de.cyface.data;
+
+/**
+ * Road surface metrics of the vertical acceleration within a time window, which contains the acceleration points
+ * with a timestamp between <code>from</code>, inclusive, and <code>to</code>, exclusive. The acceleration is given in
+ * m/s^2. Except for the peak-to-peak value, the metrics are calculated from the acceleration minus its mean within the
+ * window, which removes gravity.
+ *
+ * @author Philipp Grubitzsch
+ * @since 0.3.0
+ *
+ */
+public class RoadSurfaceWindow {
+
+    final long from;
+    final long to;
+    final int numberOfPoints;
+    final double rms;
+    final double variance;
+    final double peakToPeak;
+    final double verticalEnergy;
+    final LocationPoint location;
+
+    public RoadSurfaceWindow(long from, long to, int numberOfPoints, double rms, double variance, double peakToPeak,
+            double verticalEnergy, LocationPoint location) {
+        this.from = from;
+        this.to = to;
+        this.numberOfPoints = numberOfPoints;
+        this.rms = rms;
+        this.variance = variance;
+        this.peakToPeak = peakToPeak;
+        this.verticalEnergy = verticalEnergy;
+        this.location = location;
+    }
+
+    /**
+     *
+     * @return the beginning of the time window in milliseconds, inclusive
+     */
+    public final long getFrom() {
+        return from;
+    }
+
+    /**
+     *
+     * @return the end of the time window in milliseconds, exclusive
+     */
+    public final long getTo() {
+        return to;
+    }
+
+    /**
+     *
+     * @return the number of acceleration points within the window, which is at least 1
+     */
+    public final int getNumberOfPoints() {
+        return numberOfPoints;
+    }
+
+    /**
+     *
+     * @return the root mean square of the vertical acceleration without its mean in m/s^2, i.e. its standard
+     *         deviation
+     */
+    public final double getRms() {
+        return rms;
+    }
+
+    /**
+     *
+     * @return the variance of the vertical acceleration around its mean within the window in (m/s^2)^2
+     */
+    public final double getVariance() {
+        return variance;
+    }
+
+    /**
+     *
+     * @return the difference between the maximum and the minimum vertical acceleration in m/s^2
+     */
+    public final double getPeakToPeak() {
+        return peakToPeak;
+    }
+
+    /**
+     *
+     * @return the integral of the squared vertical acceleration without its mean over the time between the first
+     *         and the last point of the window in (m/s^2)^2 s, by the trapezoidal rule. In contrast to the variance,
+     *         this grows with the duration of the vibration, and it is 0 for a single point.
+     */
+    public final double getVerticalEnergy() {
+        return verticalEnergy;
+    }
+
+    /**
+     *
+     * @return the geo location recorded closest to the middle of the window or <code>null</code>, if there is none
+     */
+    public final LocationPoint getLocation() {
+        return location;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("from=").append(from).append(",").append("to=").append(to).append(",").append("points=")
+                .append(numberOfPoints).append(",").append("rms=").append(rms).append(",").append("variance=")
+                .append(variance).append(",").append("peakToPeak=").append(peakToPeak).append(",")
+                .append("verticalEnergy=").append(verticalEnergy).append(",").append("location=[").append(location)
+                .append("]");
+        return sb.toString();
+    }
+}
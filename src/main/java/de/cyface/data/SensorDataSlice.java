@@ -0,0 +1,70 @@
+package de.cyface.data;
+
+/**
+ * The sensor data of all sensors recorded within a time window. Each series contains the entries with a timestamp
+ * between <code>from</code>, inclusive, and <code>to</code>, exclusive.
+ *
+ * @author Philipp Grubitzsch
+ * @since 0.3.0
+ *
+ */
+public class SensorDataSlice {
+
+    final long from;
+    final long to;
+    final LocationSeries locations;
+    final Point3DSeries accelerations;
+    final Point3DSeries rotations;
+    final Point3DSeries directions;
+
+    public SensorDataSlice(long from, long to, LocationSeries locations, Point3DSeries accelerations,
+            Point3DSeries rotations, Point3DSeries directions) {
+        this.from = from;
+        this.to = to;
+        this.locations = locations;
+        this.accelerations = accelerations;
+        this.rotations = rotations;
+        this.directions = directions;
+    }
+
+    /**
+     *
+     * @return the beginning of the time window in milliseconds, inclusive
+     */
+    public final long getFrom() {
+        return from;
+    }
+
+    /**
+     *
+     * @return the end of the time window in milliseconds, exclusive
+     */
+    public final long getTo() {
+        return to;
+    }
+
+    public final LocationSeries getLocations() {
+        return locations;
+    }
+
+    public final Point3DSeries getAccelerations() {
+        return accelerations;
+    }
+
+    public final Point3DSeries getRotations() {
+        return rotations;
+    }
+
+    public final Point3DSeries getDirections() {
+        return directions;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("from=").append(from).append(",").append("to=").append(to).append(",").append("geo=")
+                .append(locations.size()).append(",").append("acc=").append(accelerations.size()).append(",")
+                .append("rot=").append(rotations.size()).append(",").append("dir=").append(directions.size());
+        return sb.toString();
+    }
+}
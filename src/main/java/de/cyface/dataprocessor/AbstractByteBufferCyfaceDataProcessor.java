@@ -0,0 +1,254 @@
+package de.cyface.dataprocessor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.EnumMap;
+import java.util.Map;
+
+import de.cyface.data.LocationPoint;
+import de.cyface.data.Point3D;
+
+/**
+ * A CyfaceDataProcessor which holds the uncompressed binary in a single {@link ByteBuffer}. Instead of splitting the
+ * binary into a separate bin for each sensor, {@link #prepare()} only creates read-only views of the buffer at the
+ * section offsets calculated by the {@link CyfaceBinaryHeader}. Thus, no sensor data is copied after the binary was
+ * uncompressed and points are decoded straight from the buffer.
+ * <p>
+ * Cursors and streams read views of the buffer, which implementations may release on {@link #close()}. Thus, they
+ * fail fast with an {@link IllegalStateException} once the processor is closed, which must not happen while another
+ * thread still reads.
+ *
+ * @author Philipp Grubitzsch
+ * @since 0.3.0
+ *
+ */
+public abstract class AbstractByteBufferCyfaceDataProcessor extends AbstractCyfaceDataProcessor {
+
+    private final Map<CyfaceBinarySection, ByteBuffer> sections = new EnumMap<>(CyfaceBinarySection.class);
+    private volatile boolean closed = false;
+
+    public AbstractByteBufferCyfaceDataProcessor(InputStream binaryInputStream, boolean compressed) {
+        super(binaryInputStream, compressed);
+    }
+
+    /**
+     * Constructor for processors which open their input themselves, e.g. from a file.
+     *
+     * @param compressed flag to tell the processor if the binary input is compressed
+     */
+    protected AbstractByteBufferCyfaceDataProcessor(final boolean compressed) {
+        super(compressed);
+    }
+
+    /**
+     * Provides the complete binary after it was uncompressed to the <code>uncompressedBinaryOutputStream</code>.
+     *
+     * @return a buffer containing the uncompressed binary between position and limit
+     * @throws IOException if the buffer could not be created
+     */
+    protected abstract ByteBuffer getUncompressedBuffer() throws IOException;
+
+    @Override
+    void checkViewsReadable() {
+        if (closed) {
+            throw new IllegalStateException("Processor is closed.");
+        }
+    }
+
+    @Override
+    public byte[] getUncompressedBinaryAsArray() throws CyfaceCompressedDataProcessorException, IOException {
+        checkUncompressedOrThrowException();
+        checkViewsReadable();
+        ByteBuffer binary = getUncompressedBuffer().duplicate();
+        byte[] bytes = new byte[binary.remaining()];
+        binary.get(bytes);
+        return bytes;
+    }
+
+    @Override
+    protected InputStream getUncompressedInputStream() {
+        checkViewsReadable();
+        try {
+            return new ByteBufferInputStream(getUncompressedBuffer().duplicate());
+        } catch (IOException e) {
+            throw new RuntimeException("Could not access uncompressed binary.", e);
+        }
+    }
+
+    /**
+     * Creates a read-only view for each sensor data section of the uncompressed binary.
+     */
+    @Override
+    protected void prepare() throws CyfaceCompressedDataProcessorException, IOException {
+        CyfaceBinaryHeader header = getHeader();
+        ByteBuffer binary = getUncompressedBuffer();
+        for (CyfaceBinarySection section : CyfaceBinarySection.values()) {
+            long length = (long)header.getNumberOfEntries(section) * section.getEntrySize();
+            sections.put(section, slice(binary, header.getBeginIndex(section), length));
+        }
+
+        // close input stream
+        uncompressedBinaryInputStream.close();
+
+        prepared = true;
+    }
+
+    /**
+     * Creates a read-only view of a part of the binary. The view is truncated, if the binary ends before.
+     *
+     * @param binary the uncompressed binary
+     * @param begin the offset of the view relative to the position of the binary
+     * @param length the length of the view in bytes
+     * @return the view starting at position zero
+     */
+    static ByteBuffer slice(final ByteBuffer binary, final long begin, final long length) {
+        ByteBuffer view = binary.duplicate();
+        int end = (int)Math.min(binary.limit(), binary.position() + begin + length);
+        int start = (int)Math.min(end, binary.position() + begin);
+        view.limit(end);
+        view.position(start);
+        return view.slice().asReadOnlyBuffer();
+    }
+
+    /**
+     * Creates a read-only view of the requested part of the uncompressed binary without copying it.
+     */
+    @Override
+    protected ByteBuffer readUncompressedRange(final long offset, final int length) throws IOException {
+        checkViewsReadable();
+        return slice(getUncompressedBuffer(), offset, length);
+    }
+
+    /**
+     *
+     * @param section a sensor data section of the binary
+     * @return the view of the section, with its position at the next entry to poll
+     */
+    protected ByteBuffer getSection(final CyfaceBinarySection section) {
+        checkViewsReadable();
+        return sections.get(section);
+    }
+
+    @Override
+    public LocationPoint pollNextLocationPoint() throws CyfaceCompressedDataProcessorException, IOException {
+        checkPreparedOrThrowException();
+        ByteBuffer section = getSection(CyfaceBinarySection.LOCATIONS);
+        if (section.remaining() < CyfaceBinarySection.LOCATIONS.getEntrySize()) {
+            return null;
+        }
+        LocationPoint locationPoint = CyfaceBinaryDecoder.decodeGeoLocation(section, section.position());
+        section.position(section.position() + CyfaceBinarySection.LOCATIONS.getEntrySize());
+        return locationPoint;
+    }
+
+    @Override
+    public Point3D pollNextAccelerationPoint() throws CyfaceCompressedDataProcessorException, IOException {
+        return pollNextPoint3D(CyfaceBinarySection.ACCELERATIONS);
+    }
+
+    @Override
+    public Point3D pollNextRotationPoint() throws CyfaceCompressedDataProcessorException, IOException {
+        return pollNextPoint3D(CyfaceBinarySection.ROTATIONS);
+    }
+
+    @Override
+    public Point3D pollNextDirectionPoint() throws CyfaceCompressedDataProcessorException, IOException {
+        return pollNextPoint3D(CyfaceBinarySection.DIRECTIONS);
+    }
+
+    private Point3D pollNextPoint3D(final CyfaceBinarySection sectionType)
+            throws CyfaceCompressedDataProcessorException {
+        checkPreparedOrThrowException();
+        ByteBuffer section = getSection(sectionType);
+        if (section.remaining() < sectionType.getEntrySize()) {
+            return null;
+        }
+        Point3D point = CyfaceBinaryDecoder.decodePoint3D(section, section.position(), sectionType.getPointType());
+        section.position(section.position() + sectionType.getEntrySize());
+        return point;
+    }
+
+    @Override
+    protected int pollNextLocations(final long[] timestamps, final double[] latitudes, final double[] longitudes,
+            final double[] speeds, final int[] accuracies, final int offset, final int max) {
+        final ByteBuffer section = getSection(CyfaceBinarySection.LOCATIONS);
+        final int entrySize = CyfaceBinarySection.LOCATIONS.getEntrySize();
+        final int polled = Math.min(max, section.remaining() / entrySize);
+
+        CyfaceBinaryDecoder.decodeGeoLocations(section, section.position(), timestamps, latitudes, longitudes, speeds,
+                accuracies, offset, polled);
+        section.position(section.position() + polled * entrySize);
+        return polled;
+    }
+
+    @Override
+    protected int pollNextPoints3D(final CyfaceBinarySection sectionType, final long[] timestamps, final double[] x,
+            final double[] y, final double[] z, final int offset, final int max) {
+        final ByteBuffer section = getSection(sectionType);
+        final int entrySize = sectionType.getEntrySize();
+        final int polled = Math.min(max, section.remaining() / entrySize);
+
+        CyfaceBinaryDecoder.decodePoints3D(section, section.position(), timestamps, x, y, z, offset, polled);
+        section.position(section.position() + polled * entrySize);
+        return polled;
+    }
+
+    /**
+     * Creates a cursor over a view of the remaining geo locations, which are marked as polled.
+     */
+    @Override
+    protected LocationCursor createLocationCursor() {
+        return new LocationCursor(takeRemaining(CyfaceBinarySection.LOCATIONS), this);
+    }
+
+    /**
+     * Creates a cursor over a view of the remaining points, which are marked as polled.
+     */
+    @Override
+    protected Point3DCursor createPoint3DCursor(final CyfaceBinarySection sectionType) {
+        return new Point3DCursor(takeRemaining(sectionType), sectionType.getPointType(), this);
+    }
+
+    private ByteBuffer takeRemaining(final CyfaceBinarySection sectionType) {
+        final ByteBuffer section = getSection(sectionType);
+        final ByteBuffer remaining = section.slice();
+        section.position(section.limit());
+        return remaining;
+    }
+
+    @Override
+    protected int getRemainingEntries(final CyfaceBinarySection section) {
+        return getSection(section).remaining() / section.getEntrySize();
+    }
+
+    @Override
+    protected InputStream getSpecificLocInputStream() {
+        return new ByteBufferInputStream(getSection(CyfaceBinarySection.LOCATIONS).duplicate());
+    }
+
+    @Override
+    protected InputStream getSpecificAccInputStream() {
+        return new ByteBufferInputStream(getSection(CyfaceBinarySection.ACCELERATIONS).duplicate());
+    }
+
+    @Override
+    protected InputStream getSpecificRotInputStream() {
+        return new ByteBufferInputStream(getSection(CyfaceBinarySection.ROTATIONS).duplicate());
+    }
+
+    @Override
+    protected InputStream getSpecificDirInputStream() {
+        return new ByteBufferInputStream(getSection(CyfaceBinarySection.DIRECTIONS).duplicate());
+    }
+
+    /**
+     * Lets cursors and streams fail fast, before implementations release the buffer.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        super.close();
+        sections.clear();
+    }
+}
@@ -4,11 +4,17 @@ import java.io.BufferedInputStream;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import java.util.zip.Inflater;
 import java.util.zip.InflaterInputStream;
 import java.util.zip.ZipException;
@@ -17,7 +23,10 @@ import org.apache.commons.io.IOUtils;
 
 import de.cyface.data.ByteSizes;
 import de.cyface.data.LocationPoint;
+import de.cyface.data.LocationSeries;
 import de.cyface.data.Point3D;
+import de.cyface.data.Point3DSeries;
+import de.cyface.data.SensorDataSlice;
 import de.cyface.data.Point3D.TypePoint3D;
 
 /**
@@ -56,6 +65,15 @@ public abstract class AbstractCyfaceDataProcessor implements CyfaceDataProcessor
         this.binaryInputStream = binaryInputStream;
     }
 
+    /**
+     * Constructor for processors which open their input themselves, e.g. from a file.
+     *
+     * @param compressed flag to tell the processor if the binary input is compressed
+     */
+    protected AbstractCyfaceDataProcessor(final boolean compressed) {
+        uncompressed = !compressed;
+    }
+
     @Override
     public boolean isUncompressed() {
         return uncompressed;
@@ -83,82 +101,118 @@ public abstract class AbstractCyfaceDataProcessor implements CyfaceDataProcessor
     }
 
     /**
+     * Makes the sensor data sections of the uncompressed binary accessible for polling. The implementation depends on
+     * the type of CyfaceDataProcessor, e.g. splitting the sections to temp bins or creating views of a buffer.
      * 
-     * @return an implementation of an OutputStream that can be used to buffer binary location data output
+     * @throws IOException
+     * @throws CyfaceCompressedDataProcessorException
      */
-    protected abstract OutputStream getTempLocOutputStream();
+    protected abstract void prepare() throws CyfaceCompressedDataProcessorException, IOException;
 
     /**
-     * 
-     * @return an implementation of an OutputStream that can be used to buffer binary accelerometer data output
+     * Pool to process the four sections concurrently or <code>null</code> to process them one after another.
      */
-    protected abstract OutputStream getTempAccOutputStream();
+    private ForkJoinPool sectionPool;
 
     /**
+     * Lets this processor handle the four sensor data sections concurrently, since they do not depend on each other
+     * once the binary is uncompressed. Each section is read from its own region of the uncompressed binary, as
+     * calculated from the header. The pool is used by:
+     * <ul>
+     * <li>{@link #sliceByTime(long, long)} of all implementations, to decode the sections of the slice.</li>
+     * <li>{@link #prepare()} of the implementations based on {@link AbstractTempBinCyfaceDataProcessor}, i.e.
+     * <code>CyfaceDataProcessorOnDiskImpl</code>, to split the sections into temp bins.</li>
+     * </ul>
+     * The implementations based on {@link AbstractByteBufferCyfaceDataProcessor}, i.e. the in-memory, mapped, off-heap
+     * and archive processors, ignore the pool on {@link #prepare()}, since they only create a view of each section,
+     * which does not read any data. Neither does the pool affect uncompressing the binary or polling and streaming the
+     * sections.
      * 
-     * @return an implementation of an OutputStream that can be used to buffer binary rotation data output
+     * @param pool the pool to process the sections on, e.g. {@link ForkJoinPool#commonPool()}, or <code>null</code> to
+     *            process the sections one after another, which is the default
      */
-    protected abstract OutputStream getTempRotOutputStream();
+    public void setSectionPool(final ForkJoinPool pool) {
+        this.sectionPool = pool;
+    }
 
     /**
      * 
-     * @return an implementation of an OutputStream that can be used to buffer binary direction data output
+     * @return the pool to process the sections on or <code>null</code> to process them one after another
      */
-    protected abstract OutputStream getTempDirOutputStream();
+    ForkJoinPool getSectionPool() {
+        return sectionPool;
+    }
 
     /**
-     * Except for the header, split each part of the uncompressed input binary to a separate bin for easy separate
-     * access of arbitrary sensor data. The implementation depends on the type of CyfaceDataProcessor (e.g. file system
-     * or in-memory).
+     * Work on a single section of the binary.
+     *
+     * @param <T> the type of the result
+     */
+    interface SectionTask<T> {
+        T run(CyfaceBinarySection section) throws CyfaceCompressedDataProcessorException, IOException;
+    }
+
+    /**
+     * Runs a task for each section, concurrently on the section pool, if set.
      * 
-     * @throws IOException
+     * @param task the task to run
+     * @return the result of the task for each section
      * @throws CyfaceCompressedDataProcessorException
+     * @throws IOException
      */
-    protected void prepare() throws CyfaceCompressedDataProcessorException, IOException {
-        // read the header first.
-        // getHeader();
-
-        // write out geo locations
-        if (this.getHeader().getNumberOfGeoLocations() > 0) {
-            OutputStream binLocationTemp = getTempLocOutputStream();
-            int locationBytesCount = this.getHeader().getNumberOfGeoLocations()
-                    * ByteSizes.BYTES_IN_ONE_GEO_LOCATION_ENTRY;
-            copyStream(uncompressedBinaryInputStream, binLocationTemp, 0, locationBytesCount);
-            binLocationTemp.close();
+    <T> Map<CyfaceBinarySection, T> forEachSection(final SectionTask<T> task)
+            throws CyfaceCompressedDataProcessorException, IOException {
+        // read the header before forking, since it is read lazily
+        getHeader();
+        final Map<CyfaceBinarySection, T> results = new EnumMap<>(CyfaceBinarySection.class);
+        if (sectionPool == null) {
+            for (CyfaceBinarySection section : CyfaceBinarySection.values()) {
+                results.put(section, task.run(section));
+            }
+            return results;
         }
-        // write out accelerometer data
-        if (this.getHeader().getNumberOfAccelerations() > 0) {
 
-            OutputStream binAccTemp = getTempAccOutputStream();
-            int accBytesCount = this.getHeader().getNumberOfAccelerations() * ByteSizes.BYTES_IN_ONE_POINT_ENTRY;
-            copyStream(uncompressedBinaryInputStream, binAccTemp, 0, accBytesCount);
-            binAccTemp.close();
+        final Map<CyfaceBinarySection, ForkJoinTask<T>> forked = new EnumMap<>(CyfaceBinarySection.class);
+        for (CyfaceBinarySection section : CyfaceBinarySection.values()) {
+            forked.put(section, sectionPool.submit(() -> task.run(section)));
         }
-
-        // write out rotation data
-        if (this.getHeader().getNumberOfRotations() > 0) {
-
-            OutputStream binRotTemp = getTempRotOutputStream();
-            int rotBytesCount = this.getHeader().getNumberOfRotations() * ByteSizes.BYTES_IN_ONE_POINT_ENTRY;
-            copyStream(uncompressedBinaryInputStream, binRotTemp, 0, rotBytesCount);
-            binRotTemp.close();
-        }
-
-        // write out direction data
-        if (this.getHeader().getNumberOfDirections() > 0) {
-            OutputStream binDirTemp = getTempDirOutputStream();
-            int dirBytesCount = ByteSizes.BYTES_IN_ONE_POINT_ENTRY * this.getHeader().getNumberOfDirections();
-            copyStream(uncompressedBinaryInputStream, binDirTemp, 0, dirBytesCount);
-            binDirTemp.close();
+        for (Map.Entry<CyfaceBinarySection, ForkJoinTask<T>> entry : forked.entrySet()) {
+            try {
+                results.put(entry.getKey(), entry.getValue().get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while processing section " + entry.getKey() + ".");
+            } catch (ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof CyfaceCompressedDataProcessorException) {
+                    throw (CyfaceCompressedDataProcessorException)cause;
+                } else if (cause instanceof IOException) {
+                    throw (IOException)cause;
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException)cause;
+                }
+                throw new RuntimeException("Could not process section " + entry.getKey() + ".", cause);
+            }
         }
+        return results;
+    }
 
-        // close input stream
-        uncompressedBinaryInputStream.close();
-
-        prepared = true;
+    /**
+     * Fails fast if the views of the uncompressed binary, which this processor handed out to cursors and streams,
+     * must not be read anymore. Only the {@link AbstractByteBufferCyfaceDataProcessor} hands out views, so this does
+     * nothing by default.
+     *
+     * @throws IllegalStateException if the views were released
+     */
+    void checkViewsReadable() {
     }
 
-    protected abstract InputStream getCompressedInputStream();
+    /**
+     * 
+     * @return a new stream of the compressed input from its beginning
+     * @throws IOException if the input can not be read (again)
+     */
+    protected abstract InputStream getCompressedInputStream() throws IOException;
 
     protected abstract InputStream getUncompressedInputStream();
 
@@ -166,8 +220,17 @@ public abstract class AbstractCyfaceDataProcessor implements CyfaceDataProcessor
     public CyfaceDataProcessor uncompress() throws CyfaceCompressedDataProcessorException, IOException {
         InputStream reader = null;
         if (!uncompressed) {
-            boolean nowrap = true;
+            // only if the format can not be detected from the leading bytes, it is found out by trial and error
+            final CompressionFormat detected = detectCompressionFormat();
+            boolean nowrap = detected != CompressionFormat.ZLIB;
             boolean retry = true;
+            if (detected == CompressionFormat.UNCOMPRESSED) {
+                retry = false;
+                uncompressed = true;
+                prepareUncompressed(reader);
+            } else if (detected == null) {
+                prepareRetry();
+            }
 
             while (retry && !uncompressed) {
                 reader = getCompressedInputStream();
@@ -177,6 +240,10 @@ public abstract class AbstractCyfaceDataProcessor implements CyfaceDataProcessor
                     uncompressed = true;
                     retry = false;
                 } catch (ZipException e1) {
+                    if (detected != null) {
+                        throw new CyfaceCompressedDataProcessorException(
+                                "Binary input could not be uncompressed: " + e1.getMessage());
+                    }
 
                     switch (e1.getMessage()) {
                         // binary input created with cyface SDK before Version 3.3.0, used nowrap=false option
@@ -210,8 +277,9 @@ public abstract class AbstractCyfaceDataProcessor implements CyfaceDataProcessor
             // close streams after write out is done
             uncompressedBinaryOutputStream.flush();
             uncompressedBinaryOutputStream.close();
-            compressedBinaryInputStream.close();
-            inflaterInputStream.close();
+            closeStreamIfNotNull(compressedBinaryInputStream);
+            closeStreamIfNotNull(inflaterInputStream);
+            releaseInflater();
 
             uncompressedBinaryInputStream = getUncompressedInputStream();
         } else {
@@ -222,22 +290,59 @@ public abstract class AbstractCyfaceDataProcessor implements CyfaceDataProcessor
         return this;
     }
 
+    /**
+     * 
+     * @return the format detected from the leading bytes of the compressed input or <code>null</code>, if the leading
+     *         bytes are ambiguous
+     * @throws IOException
+     */
+    private CompressionFormat detectCompressionFormat() throws IOException {
+        try (InputStream reader = getCompressedInputStream()) {
+            final byte[] leading = new byte[ByteSizes.BYTES_IN_HEADER];
+            return CompressionFormat.detect(leading, IOUtils.read(reader, leading));
+        }
+    }
+
+    /**
+     * Called before the format of the compressed input is found out by trial and error, which requires
+     * {@link #getCompressedInputStream()} to provide the input more than once. Otherwise, the input is read at most
+     * twice: once for its leading bytes and once completely.
+     *
+     * @throws IOException if the input could not be prepared
+     */
+    protected void prepareRetry() throws IOException {
+        // the input can be read any number of times by default
+    }
+
     private void prepareUncompressed(InputStream reader) throws IOException {
         reader = getCompressedInputStream();
-        IOUtils.copy(reader, uncompressedBinaryOutputStream, 1024);
+        copyStream(reader, uncompressedBinaryOutputStream);
         if (reader != null) {
             reader.close();
         }
     }
 
+    /**
+     * The inflater of the last attempt to uncompress the binary, which is taken from the {@link ResourcePool}.
+     */
+    private Inflater inflater;
+    private boolean inflaterNowrap;
+
     protected void uncompress(InputStream compressedBinaryInputStream, OutputStream uncompressedBinaryOutputStream,
             boolean nowrap) throws CyfaceCompressedDataProcessorException, IOException {
-
-        Inflater uncompressor = new Inflater(nowrap);
-        this.inflaterInputStream = new InflaterInputStream(compressedBinaryInputStream, uncompressor,
+        // the inflater of a failed attempt is not required anymore
+        releaseInflater();
+        inflater = ResourcePool.acquireInflater(nowrap);
+        inflaterNowrap = nowrap;
+        this.inflaterInputStream = new InflaterInputStream(compressedBinaryInputStream, inflater,
                 DEFAULT_BYTE_BUF_SIZE);
 
-        IOUtils.copy(inflaterInputStream, uncompressedBinaryOutputStream, DEFAULT_BYTE_BUF_SIZE);
+        copyStream(inflaterInputStream, uncompressedBinaryOutputStream);
+    }
+
+    private void releaseInflater() {
+        ResourcePool.releaseInflater(inflater, inflaterNowrap);
+        inflater = null;
     }
 
     BufferedInputStream tempLocStream;
@@ -252,16 +357,13 @@ public abstract class AbstractCyfaceDataProcessor implements CyfaceDataProcessor
     public LocationPoint pollNextLocationPoint() throws CyfaceCompressedDataProcessorException, IOException {
         checkPreparedOrThrowException();
 
-        if (tempLocStream == null) {
-            tempLocStream = new BufferedInputStream(getSpecificLocInputStream(),
-                    ByteSizes.BYTES_IN_ONE_GEO_LOCATION_ENTRY);
-        }
+        BufferedInputStream locStream = getTempStream(CyfaceBinarySection.LOCATIONS);
         byte[] locationBytes = new byte[ByteSizes.BYTES_IN_ONE_GEO_LOCATION_ENTRY];
-        int read = tempLocStream.read(locationBytes, 0, ByteSizes.BYTES_IN_ONE_GEO_LOCATION_ENTRY);
+        int read = locStream.read(locationBytes, 0, ByteSizes.BYTES_IN_ONE_GEO_LOCATION_ENTRY);
         if (read != -1) {
             return deserializeGeoLocation(locationBytes);
         } else {
-            tempLocStream.close();
+            locStream.close();
             return null;
         }
     }
@@ -276,21 +378,7 @@ public abstract class AbstractCyfaceDataProcessor implements CyfaceDataProcessor
 
     @Override
     public Point3D pollNextAccelerationPoint() throws CyfaceCompressedDataProcessorException, IOException {
-        checkPreparedOrThrowException();
-        // no acc data
-        InputStream specAccInputStream = getSpecificAccInputStream();
-        if (specAccInputStream == null) {
-            return null;
-        }
-        if (tempAccStream == null) {
-            tempAccStream = new BufferedInputStream(specAccInputStream, ByteSizes.BYTES_IN_ONE_POINT_ENTRY);
-        }
-
-        Point3D nextPoint = pollNext3DPoint(tempAccStream, TypePoint3D.ACC);
-        if (nextPoint == null) {
-            tempAccStream.close();
-        }
-        return nextPoint;
+        return pollNext3DPoint(CyfaceBinarySection.ACCELERATIONS);
     }
 
     BufferedInputStream tempRotStream;
@@ -303,49 +391,534 @@ public abstract class AbstractCyfaceDataProcessor implements CyfaceDataProcessor
 
     @Override
     public Point3D pollNextRotationPoint() throws CyfaceCompressedDataProcessorException, IOException {
-        checkPreparedOrThrowException();
-        // no rot data
+        return pollNext3DPoint(CyfaceBinarySection.ROTATIONS);
+    }
+
+    BufferedInputStream tempDirStream;
 
-        InputStream specificRotInputStream = getSpecificRotInputStream();
-        if (specificRotInputStream == null) {
+    /**
+     * 
+     * @return an implementation of an InputStream to read buffered binary rotation data from
+     */
+    protected abstract InputStream getSpecificDirInputStream();
+
+    @Override
+    public Point3D pollNextDirectionPoint() throws CyfaceCompressedDataProcessorException, IOException {
+        return pollNext3DPoint(CyfaceBinarySection.DIRECTIONS);
+    }
+
+    private Point3D pollNext3DPoint(final CyfaceBinarySection section)
+            throws CyfaceCompressedDataProcessorException, IOException {
+        checkPreparedOrThrowException();
+        BufferedInputStream tempStream = getTempStream(section);
+        // no data for this sensor
+        if (tempStream == null) {
             return null;
         }
-        if (tempRotStream == null) {
-            tempRotStream = new BufferedInputStream(specificRotInputStream, ByteSizes.BYTES_IN_ONE_POINT_ENTRY);
-        }
 
-        Point3D nextPoint = pollNext3DPoint(tempRotStream, TypePoint3D.ROT);
+        Point3D nextPoint = pollNext3DPoint(tempStream, section.getPointType());
         if (nextPoint == null) {
-            tempRotStream.close();
+            tempStream.close();
         }
         return nextPoint;
     }
 
-    BufferedInputStream tempDirStream;
+    /**
+     * Provides the stream the poll methods for a section read from, which is created on first access.
+     * 
+     * @param section the section to read
+     * @return the buffered stream of the section or <code>null</code> if there is no data for this section
+     */
+    private BufferedInputStream getTempStream(final CyfaceBinarySection section) {
+        switch (section) {
+            case LOCATIONS:
+                if (tempLocStream == null) {
+                    tempLocStream = new BufferedInputStream(getSpecificLocInputStream(),
+                            ByteSizes.BYTES_IN_ONE_GEO_LOCATION_ENTRY);
+                }
+                return tempLocStream;
+            case ACCELERATIONS:
+                if (tempAccStream == null) {
+                    InputStream specAccInputStream = getSpecificAccInputStream();
+                    tempAccStream = specAccInputStream == null ? null
+                            : new BufferedInputStream(specAccInputStream, ByteSizes.BYTES_IN_ONE_POINT_ENTRY);
+                }
+                return tempAccStream;
+            case ROTATIONS:
+                if (tempRotStream == null) {
+                    InputStream specificRotInputStream = getSpecificRotInputStream();
+                    tempRotStream = specificRotInputStream == null ? null
+                            : new BufferedInputStream(specificRotInputStream, ByteSizes.BYTES_IN_ONE_POINT_ENTRY);
+                }
+                return tempRotStream;
+            case DIRECTIONS:
+                if (tempDirStream == null) {
+                    InputStream specificDirInputStream = getSpecificDirInputStream();
+                    tempDirStream = specificDirInputStream == null ? null
+                            : new BufferedInputStream(specificDirInputStream, ByteSizes.BYTES_IN_ONE_POINT_ENTRY);
+                }
+                return tempDirStream;
+            default:
+                throw new IllegalArgumentException("Unknown section: " + section);
+        }
+    }
+
+    /**
+     * Buffer for polling multiple entries at once, which is taken from the {@link ResourcePool} on first use and
+     * reused until this processor is closed.
+     */
+    private ByteBuffer batchBuffer;
+
+    @Override
+    public int pollNextLocations(final long[] timestamps, final double[] latitudes, final double[] longitudes,
+            final double[] speeds, final int[] accuracies, final int max)
+            throws CyfaceCompressedDataProcessorException, IOException {
+        checkPreparedOrThrowException();
+        checkBatchArguments(max, timestamps.length, latitudes.length, longitudes.length, speeds.length,
+                accuracies.length);
+        return pollNextLocations(timestamps, latitudes, longitudes, speeds, accuracies, 0, max);
+    }
+
+    @Override
+    public int pollNextAccelerations(final long[] timestamps, final double[] x, final double[] y, final double[] z,
+            final int max) throws CyfaceCompressedDataProcessorException, IOException {
+        checkPreparedOrThrowException();
+        checkBatchArguments(max, timestamps.length, x.length, y.length, z.length);
+        return pollNextPoints3D(CyfaceBinarySection.ACCELERATIONS, timestamps, x, y, z, 0, max);
+    }
+
+    @Override
+    public int pollNextRotations(final long[] timestamps, final double[] x, final double[] y, final double[] z,
+            final int max) throws CyfaceCompressedDataProcessorException, IOException {
+        checkPreparedOrThrowException();
+        checkBatchArguments(max, timestamps.length, x.length, y.length, z.length);
+        return pollNextPoints3D(CyfaceBinarySection.ROTATIONS, timestamps, x, y, z, 0, max);
+    }
+
+    @Override
+    public int pollNextDirections(final long[] timestamps, final double[] x, final double[] y, final double[] z,
+            final int max) throws CyfaceCompressedDataProcessorException, IOException {
+        checkPreparedOrThrowException();
+        checkBatchArguments(max, timestamps.length, x.length, y.length, z.length);
+        return pollNextPoints3D(CyfaceBinarySection.DIRECTIONS, timestamps, x, y, z, 0, max);
+    }
 
     /**
+     * Polls the next available geo locations into the provided arrays. The arguments are already checked.
      * 
-     * @return an implementation of an InputStream to read buffered binary rotation data from
+     * @param offset the index of the arrays to write the first geo location to
+     * @param max the maximum number of geo locations to poll
+     * @return the number of polled geo locations or 0, if all entries have been already read.
+     * @throws IOException
      */
-    protected abstract InputStream getSpecificDirInputStream();
+    protected int pollNextLocations(final long[] timestamps, final double[] latitudes, final double[] longitudes,
+            final double[] speeds, final int[] accuracies, final int offset, final int max) throws IOException {
+        final BufferedInputStream locStream = getTempStream(CyfaceBinarySection.LOCATIONS);
+        final int entrySize = ByteSizes.BYTES_IN_ONE_GEO_LOCATION_ENTRY;
+
+        int polled = 0;
+        while (polled < max) {
+            int entries = readEntries(locStream, Math.min(max - polled, getBatchBuffer().capacity() / entrySize),
+                    entrySize);
+            CyfaceBinaryDecoder.decodeGeoLocations(batchBuffer, 0, timestamps, latitudes, longitudes, speeds,
+                    accuracies, offset + polled, entries);
+            polled += entries;
+            if (entries == 0) {
+                break;
+            }
+        }
+        return polled;
+    }
+
+    /**
+     * Polls the next available 3D points of a section into the provided arrays. The arguments are already checked.
+     * 
+     * @param section the section to poll from
+     * @param offset the index of the arrays to write the first point to
+     * @param max the maximum number of points to poll
+     * @return the number of polled points or 0, if all entries have been already read.
+     * @throws IOException
+     */
+    protected int pollNextPoints3D(final CyfaceBinarySection section, final long[] timestamps, final double[] x,
+            final double[] y, final double[] z, final int offset, final int max) throws IOException {
+        final BufferedInputStream tempStream = getTempStream(section);
+        // no data for this sensor
+        if (tempStream == null) {
+            return 0;
+        }
+        final int entrySize = ByteSizes.BYTES_IN_ONE_POINT_ENTRY;
+
+        int polled = 0;
+        while (polled < max) {
+            int entries = readEntries(tempStream, Math.min(max - polled, getBatchBuffer().capacity() / entrySize),
+                    entrySize);
+            CyfaceBinaryDecoder.decodePoints3D(batchBuffer, 0, timestamps, x, y, z, offset + polled, entries);
+            polled += entries;
+            if (entries == 0) {
+                break;
+            }
+        }
+        return polled;
+    }
 
     @Override
-    public Point3D pollNextDirectionPoint() throws CyfaceCompressedDataProcessorException, IOException {
+    public LocationSeries pollLocationSeries() throws CyfaceCompressedDataProcessorException, IOException {
         checkPreparedOrThrowException();
-        // no dir data
-        InputStream specificDirInputStream = getSpecificDirInputStream();
-        if (specificDirInputStream == null) {
-            return null;
+        final int capacity = getRemainingEntries(CyfaceBinarySection.LOCATIONS);
+        long[] timestamps = new long[capacity];
+        double[] latitudes = new double[capacity];
+        double[] longitudes = new double[capacity];
+        double[] speeds = new double[capacity];
+        int[] accuracies = new int[capacity];
+
+        int size = 0;
+        int polled;
+        while (size < capacity && (polled = pollNextLocations(timestamps, latitudes, longitudes, speeds, accuracies,
+                size, capacity - size)) > 0) {
+            size += polled;
         }
-        if (tempDirStream == null) {
-            tempDirStream = new BufferedInputStream(specificDirInputStream, ByteSizes.BYTES_IN_ONE_POINT_ENTRY);
+        return new LocationSeries(timestamps, latitudes, longitudes, speeds, accuracies, size);
+    }
+
+    @Override
+    public Point3DSeries pollAccelerationSeries() throws CyfaceCompressedDataProcessorException, IOException {
+        return pollPoint3DSeries(CyfaceBinarySection.ACCELERATIONS);
+    }
+
+    @Override
+    public Point3DSeries pollRotationSeries() throws CyfaceCompressedDataProcessorException, IOException {
+        return pollPoint3DSeries(CyfaceBinarySection.ROTATIONS);
+    }
+
+    @Override
+    public Point3DSeries pollDirectionSeries() throws CyfaceCompressedDataProcessorException, IOException {
+        return pollPoint3DSeries(CyfaceBinarySection.DIRECTIONS);
+    }
+
+    private Point3DSeries pollPoint3DSeries(final CyfaceBinarySection section)
+            throws CyfaceCompressedDataProcessorException, IOException {
+        checkPreparedOrThrowException();
+        final int capacity = getRemainingEntries(section);
+        long[] timestamps = new long[capacity];
+        double[] x = new double[capacity];
+        double[] y = new double[capacity];
+        double[] z = new double[capacity];
+
+        int size = 0;
+        int polled;
+        while (size < capacity
+                && (polled = pollNextPoints3D(section, timestamps, x, y, z, size, capacity - size)) > 0) {
+            size += polled;
         }
+        return new Point3DSeries(section.getPointType(), timestamps, x, y, z, size);
+    }
 
-        Point3D nextPoint = pollNext3DPoint(tempDirStream, TypePoint3D.DIR);
-        if (nextPoint == null) {
-            tempDirStream.close();
+    @Override
+    public LocationCursor locationCursor() throws CyfaceCompressedDataProcessorException, IOException {
+        checkPreparedOrThrowException();
+        return createLocationCursor();
+    }
+
+    @Override
+    public Point3DCursor accelerationCursor() throws CyfaceCompressedDataProcessorException, IOException {
+        checkPreparedOrThrowException();
+        return createPoint3DCursor(CyfaceBinarySection.ACCELERATIONS);
+    }
+
+    @Override
+    public Point3DCursor rotationCursor() throws CyfaceCompressedDataProcessorException, IOException {
+        checkPreparedOrThrowException();
+        return createPoint3DCursor(CyfaceBinarySection.ROTATIONS);
+    }
+
+    @Override
+    public Point3DCursor directionCursor() throws CyfaceCompressedDataProcessorException, IOException {
+        checkPreparedOrThrowException();
+        return createPoint3DCursor(CyfaceBinarySection.DIRECTIONS);
+    }
+
+    @Override
+    public MergedCursor mergedCursor() throws CyfaceCompressedDataProcessorException, IOException {
+        checkPreparedOrThrowException();
+        return new MergedCursor(createLocationCursor(), createPoint3DCursor(CyfaceBinarySection.ACCELERATIONS),
+                createPoint3DCursor(CyfaceBinarySection.ROTATIONS),
+                createPoint3DCursor(CyfaceBinarySection.DIRECTIONS));
+    }
+
+    /**
+     * Creates a cursor which reads the remaining geo locations in chunks from the temp stream of the section.
+     * 
+     * @return the cursor
+     * @throws IOException
+     */
+    protected LocationCursor createLocationCursor() throws IOException {
+        return new LocationCursor(getTempStream(CyfaceBinarySection.LOCATIONS));
+    }
+
+    /**
+     * Creates a cursor which reads the remaining points in chunks from the temp stream of the section.
+     * 
+     * @param section the sensor data section to visit
+     * @return the cursor
+     * @throws IOException
+     */
+    protected Point3DCursor createPoint3DCursor(final CyfaceBinarySection section) throws IOException {
+        return new Point3DCursor(getTempStream(section), section.getPointType());
+    }
+
+    @Override
+    public LocationPoint getLocationAt(final long index) throws CyfaceCompressedDataProcessorException, IOException {
+        ByteBuffer entry = readSectionRange(CyfaceBinarySection.LOCATIONS, index, index + 1);
+        return CyfaceBinaryDecoder.decodeGeoLocation(entry, 0);
+    }
+
+    @Override
+    public Point3D getAccelerationAt(final long index) throws CyfaceCompressedDataProcessorException, IOException {
+        return getPoint3DAt(CyfaceBinarySection.ACCELERATIONS, index);
+    }
+
+    @Override
+    public Point3D getRotationAt(final long index) throws CyfaceCompressedDataProcessorException, IOException {
+        return getPoint3DAt(CyfaceBinarySection.ROTATIONS, index);
+    }
+
+    @Override
+    public Point3D getDirectionAt(final long index) throws CyfaceCompressedDataProcessorException, IOException {
+        return getPoint3DAt(CyfaceBinarySection.DIRECTIONS, index);
+    }
+
+    private Point3D getPoint3DAt(final CyfaceBinarySection section, final long index)
+            throws CyfaceCompressedDataProcessorException, IOException {
+        ByteBuffer entry = readSectionRange(section, index, index + 1);
+        return CyfaceBinaryDecoder.decodePoint3D(entry, 0, section.getPointType());
+    }
+
+    @Override
+    public LocationSeries readLocations(final long from, final long to)
+            throws CyfaceCompressedDataProcessorException, IOException {
+        final ByteBuffer entries = readSectionRange(CyfaceBinarySection.LOCATIONS, from, to);
+        final int size = (int)(to - from);
+        long[] timestamps = new long[size];
+        double[] latitudes = new double[size];
+        double[] longitudes = new double[size];
+        double[] speeds = new double[size];
+        int[] accuracies = new int[size];
+        CyfaceBinaryDecoder.decodeGeoLocations(entries, 0, timestamps, latitudes, longitudes, speeds, accuracies, 0,
+                size);
+        return new LocationSeries(timestamps, latitudes, longitudes, speeds, accuracies, size);
+    }
+
+    @Override
+    public Point3DSeries readAccelerations(final long from, final long to)
+            throws CyfaceCompressedDataProcessorException, IOException {
+        return readPoints3D(CyfaceBinarySection.ACCELERATIONS, from, to);
+    }
+
+    @Override
+    public Point3DSeries readRotations(final long from, final long to)
+            throws CyfaceCompressedDataProcessorException, IOException {
+        return readPoints3D(CyfaceBinarySection.ROTATIONS, from, to);
+    }
+
+    @Override
+    public Point3DSeries readDirections(final long from, final long to)
+            throws CyfaceCompressedDataProcessorException, IOException {
+        return readPoints3D(CyfaceBinarySection.DIRECTIONS, from, to);
+    }
+
+    private Point3DSeries readPoints3D(final CyfaceBinarySection section, final long from, final long to)
+            throws CyfaceCompressedDataProcessorException, IOException {
+        final ByteBuffer entries = readSectionRange(section, from, to);
+        final int size = (int)(to - from);
+        long[] timestamps = new long[size];
+        double[] x = new double[size];
+        double[] y = new double[size];
+        double[] z = new double[size];
+        CyfaceBinaryDecoder.decodePoints3D(entries, 0, timestamps, x, y, z, 0, size);
+        return new Point3DSeries(section.getPointType(), timestamps, x, y, z, size);
+    }
+
+    @Override
+    public SensorDataSlice sliceByTime(final long fromMillis, final long toMillis)
+            throws CyfaceCompressedDataProcessorException, IOException {
+        if (fromMillis > toMillis) {
+            throw new IllegalArgumentException("Time window ends before it begins: [" + fromMillis + ", " + toMillis
+                    + ").");
+        }
+        final Map<CyfaceBinarySection, Object> series = forEachSection(section -> {
+            final long from = indexOfTime(section, fromMillis);
+            final long to = indexOfTime(section, toMillis);
+            return section == CyfaceBinarySection.LOCATIONS ? readLocations(from, to) : readPoints3D(section, from, to);
+        });
+        return new SensorDataSlice(fromMillis, toMillis, (LocationSeries)series.get(CyfaceBinarySection.LOCATIONS),
+                (Point3DSeries)series.get(CyfaceBinarySection.ACCELERATIONS),
+                (Point3DSeries)series.get(CyfaceBinarySection.ROTATIONS),
+                (Point3DSeries)series.get(CyfaceBinarySection.DIRECTIONS));
+    }
+
+    @Override
+    public Stream<LocationPoint> locations() throws CyfaceCompressedDataProcessorException, IOException {
+        return stream(CyfaceBinarySection.LOCATIONS, CyfaceBinaryDecoder::decodeGeoLocation);
+    }
+
+    @Override
+    public Stream<Point3D> accelerations() throws CyfaceCompressedDataProcessorException, IOException {
+        return points3D(CyfaceBinarySection.ACCELERATIONS);
+    }
+
+    @Override
+    public Stream<Point3D> rotations() throws CyfaceCompressedDataProcessorException, IOException {
+        return points3D(CyfaceBinarySection.ROTATIONS);
+    }
+
+    @Override
+    public Stream<Point3D> directions() throws CyfaceCompressedDataProcessorException, IOException {
+        return points3D(CyfaceBinarySection.DIRECTIONS);
+    }
+
+    private Stream<Point3D> points3D(final CyfaceBinarySection section)
+            throws CyfaceCompressedDataProcessorException, IOException {
+        final TypePoint3D type = section.getPointType();
+        return stream(section, (buffer, offset) -> CyfaceBinaryDecoder.decodePoint3D(buffer, offset, type));
+    }
+
+    private <T> Stream<T> stream(final CyfaceBinarySection section, final SectionSpliterator.EntryDecoder<T> decoder)
+            throws CyfaceCompressedDataProcessorException, IOException {
+        checkUncompressedOrThrowException();
+        // read the header before the stream is split on other threads
+        final long entries = Math.max(0, getHeader().getNumberOfEntries(section));
+        return StreamSupport.stream(new SectionSpliterator<>(this, section, 0, entries, decoder), false);
+    }
+
+    /**
+     * Searches the entries of a section, which are ordered by their timestamp, for the first entry recorded at or
+     * after a point in time. Only the timestamps of O(log n) entries are read, each by its own
+     * {@link #readUncompressedRange(long, int)}.
+     * 
+     * @param section the section to search
+     * @param timestamp the point in time in milliseconds
+     * @return the index of the first entry with a timestamp not before <code>timestamp</code> or the number of
+     *         entries, if there is none
+     * @throws CyfaceCompressedDataProcessorException
+     * @throws IOException
+     */
+    long indexOfTime(final CyfaceBinarySection section, final long timestamp)
+            throws CyfaceCompressedDataProcessorException, IOException {
+        long low = 0;
+        long high = getHeader().getNumberOfEntries(section);
+        while (low < high) {
+            final long middle = (low + high) >>> 1;
+            if (CyfaceBinaryDecoder.timestamp(readSectionRange(section, middle, middle + 1), 0) < timestamp) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Reads the entries of a section within a range of indices. The position of the entries in the uncompressed binary
+     * is calculated from the header, so neither the preceding entries are read nor the polls are affected.
+     * 
+     * @param section the section to read from
+     * @param from the index of the first entry to read, inclusive
+     * @param to the index after the last entry to read, exclusive
+     * @return a buffer containing the entries, starting at position 0
+     * @throws CyfaceCompressedDataProcessorException if the binary is not uncompressed yet or ends before the range
+     * @throws IOException
+     */
+    ByteBuffer readSectionRange(final CyfaceBinarySection section, final long from, final long to)
+            throws CyfaceCompressedDataProcessorException, IOException {
+        checkUncompressedOrThrowException();
+        final CyfaceBinaryHeader header = getHeader();
+        final int entries = header.getNumberOfEntries(section);
+        if (from < 0 || to > entries || from > to) {
+            throw new IndexOutOfBoundsException(
+                    "Invalid range [" + from + ", " + to + ") of " + entries + " entries in " + section + ".");
+        }
+        final long length = (to - from) * section.getEntrySize();
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Range [" + from + ", " + to + ") is too large to be read at once.");
+        }
+
+        final ByteBuffer range = readUncompressedRange(header.getBeginIndex(section) + from * section.getEntrySize(),
+                (int)length);
+        if (range.remaining() < length) {
+            throw new CyfaceCompressedDataProcessorException(
+                    "Binary ends before entry " + to + " of " + section + ".");
+        }
+        return range;
+    }
+
+    /**
+     * Reads a part of the uncompressed binary, independent of the entries polled so far. The default implementation
+     * skips to the requested offset of a new stream of the uncompressed binary, which is a seek for files.
+     * 
+     * @param offset the offset of the first byte to read from the beginning of the uncompressed binary
+     * @param length the number of bytes to read
+     * @return a buffer containing the bytes between position 0 and its limit, which is less than <code>length</code>
+     *         only if the binary ends before
+     * @throws IOException
+     */
+    protected ByteBuffer readUncompressedRange(final long offset, final int length) throws IOException {
+        try (InputStream binary = getUncompressedInputStream()) {
+            if (binary == null) {
+                // e.g. the temp file was deleted by close()
+                throw new IOException("Could not open the uncompressed binary.");
+            }
+            byte[] bytes = new byte[length];
+            int read = IOUtils.skip(binary, offset) == offset ? IOUtils.read(binary, bytes) : 0;
+            return ByteBuffer.wrap(bytes, 0, read);
+        }
+    }
+
+    /**
+     * 
+     * @param section a sensor data section of the binary
+     * @return an upper bound of the number of entries of the section which have not been polled yet
+     * @throws CyfaceCompressedDataProcessorException
+     * @throws IOException
+     */
+    protected int getRemainingEntries(final CyfaceBinarySection section)
+            throws CyfaceCompressedDataProcessorException, IOException {
+        return Math.max(0, getHeader().getNumberOfEntries(section));
+    }
+
+    private ByteBuffer getBatchBuffer() {
+        if (batchBuffer == null) {
+            batchBuffer = ByteBuffer.wrap(ResourcePool.acquireBuffer());
+        }
+        return batchBuffer;
+    }
+
+    /**
+     * Reads complete entries from a section stream into the batch buffer.
+     * 
+     * @return the number of entries read, which is 0 at the end of the stream
+     */
+    private int readEntries(final InputStream sectionStream, final int entries, final int entrySize)
+            throws IOException {
+        int read = IOUtils.read(sectionStream, batchBuffer.array(), 0, entries * entrySize);
+        return read / entrySize;
+    }
+
+    /**
+     * Checks that the arrays provided to a batch poll can hold the requested number of entries.
+     * 
+     * @param max the requested number of entries
+     * @param lengths the lengths of all arrays
+     */
+    protected static void checkBatchArguments(final int max, final int... lengths) {
+        if (max < 0) {
+            throw new IllegalArgumentException("Number of entries to poll must not be negative: " + max);
+        }
+        for (int length : lengths) {
+            if (length < max) {
+                throw new IllegalArgumentException(
+                        "Array of length " + length + " can not hold " + max + " entries.");
+            }
         }
-        return nextPoint;
     }
 
     /**
@@ -359,19 +932,10 @@ public abstract class AbstractCyfaceDataProcessor implements CyfaceDataProcessor
     protected LocationPoint deserializeGeoLocation(final byte[] bytes) {
         LocationPoint locPoint = null;
 
-        for (int i = 0; i < bytes.length; i += ByteSizes.BYTES_IN_ONE_GEO_LOCATION_ENTRY) {
-            ByteBuffer buffer = ByteBuffer
-                    .wrap(Arrays.copyOfRange(bytes, i, i + ByteSizes.BYTES_IN_ONE_GEO_LOCATION_ENTRY));
-
-            // readout order is important, its a byte buffer dude
-            long timestamp = buffer.order(ByteOrder.BIG_ENDIAN).getLong();
-            double latitude = buffer.order(ByteOrder.BIG_ENDIAN).getDouble();
-            double longitude = buffer.order(ByteOrder.BIG_ENDIAN).getDouble();
-            double speed = buffer.order(ByteOrder.BIG_ENDIAN).getDouble();
-            int accuracy = buffer.order(ByteOrder.BIG_ENDIAN).getInt();
-
-            locPoint = new LocationPoint(accuracy, longitude, latitude, speed, timestamp);
-
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        for (int i = 0; i + ByteSizes.BYTES_IN_ONE_GEO_LOCATION_ENTRY <= bytes.length;
+                i += ByteSizes.BYTES_IN_ONE_GEO_LOCATION_ENTRY) {
+            locPoint = CyfaceBinaryDecoder.decodeGeoLocation(buffer, i);
         }
         return locPoint;
     }
@@ -388,16 +952,10 @@ public abstract class AbstractCyfaceDataProcessor implements CyfaceDataProcessor
     protected Point3D deserializePoint3D(final byte[] bytes, final TypePoint3D type) {
         Point3D point3D = null;
 
-        for (int i = 0; i < bytes.length; i += ByteSizes.BYTES_IN_ONE_POINT_ENTRY) {
-            ByteBuffer buffer = ByteBuffer.wrap(Arrays.copyOfRange(bytes, i, i + ByteSizes.BYTES_IN_ONE_POINT_ENTRY));
-
-            // readout order is important, its a byte buffer dude
-            long timestamp = buffer.order(ByteOrder.BIG_ENDIAN).getLong();
-            double x = buffer.order(ByteOrder.BIG_ENDIAN).getDouble();
-            double y = buffer.order(ByteOrder.BIG_ENDIAN).getDouble();
-            double z = buffer.order(ByteOrder.BIG_ENDIAN).getDouble();
-
-            point3D = new Point3D(type, x, y, z, timestamp);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        for (int i = 0; i + ByteSizes.BYTES_IN_ONE_POINT_ENTRY <= bytes.length;
+                i += ByteSizes.BYTES_IN_ONE_POINT_ENTRY) {
+            point3D = CyfaceBinaryDecoder.decodePoint3D(buffer, i, type);
         }
 
         return point3D;
@@ -415,26 +973,28 @@ public abstract class AbstractCyfaceDataProcessor implements CyfaceDataProcessor
      */
     protected static void copyStream(final InputStream input, final OutputStream output, final long start,
             final long end) throws IOException {
-        for (int i = 0; i < start; i++)
-            input.read(); // dispose of the unwanted bytes
-        byte[] buffer = new byte[DEFAULT_BYTE_BUF_SIZE]; // Adjust if you want
-        int bytesRead;
-        long totalRead = 0;
-        boolean done = false;
-        while (!done) // test for EOF or end reached
-        {
-            if ((totalRead + DEFAULT_BYTE_BUF_SIZE) >= end) {
-                int lastReadBuf = (int)(end - totalRead);
-                byte[] lastBuf = new byte[lastReadBuf];
-                output.write(lastBuf, 0, input.read(lastBuf));
-                done = true;
-                totalRead += lastReadBuf;
-            } else {
-                bytesRead = input.read(buffer);
-                output.write(buffer, 0, bytesRead);
-                totalRead += bytesRead;
-            }
+        byte[] buffer = ResourcePool.acquireBuffer();
+        try {
+            IOUtils.copyLarge(input, output, start, end, buffer);
             output.flush();
+        } finally {
+            ResourcePool.releaseBuffer(buffer);
+        }
+    }
+
+    /**
+     * Copies an input stream completely to an output stream, using a pooled buffer.
+     * 
+     * @param input the stream to copy
+     * @param output the stream to copy to
+     * @throws IOException
+     */
+    protected static void copyStream(final InputStream input, final OutputStream output) throws IOException {
+        byte[] buffer = ResourcePool.acquireBuffer();
+        try {
+            IOUtils.copyLarge(input, output, buffer);
+        } finally {
+            ResourcePool.releaseBuffer(buffer);
         }
     }
 
@@ -464,23 +1024,9 @@ public abstract class AbstractCyfaceDataProcessor implements CyfaceDataProcessor
 
     private void readHeader() throws CyfaceCompressedDataProcessorException, IOException {
         checkUncompressedOrThrowException();
-        final byte[] individualBytes = new byte[18];
-        uncompressedBinaryInputStream.read(individualBytes, 0, 18);
-
-        ByteBuffer buffer = ByteBuffer.wrap(individualBytes);
-        this.header = new CyfaceBinaryHeader();
-        header.setFormatVersion(buffer.order(ByteOrder.BIG_ENDIAN).getShort(0));
-        header.setNumberOfGeoLocations(buffer.order(ByteOrder.BIG_ENDIAN).getInt(2));
-        header.setNumberOfAccelerations(buffer.order(ByteOrder.BIG_ENDIAN).getInt(6));
-        header.setNumberOfRotations(buffer.order(ByteOrder.BIG_ENDIAN).getInt(10));
-        header.setNumberOfDirections(buffer.order(ByteOrder.BIG_ENDIAN).getInt(14));
-        header.setBeginOfGeoLocationsIndex(18);
-        header.setBeginOfAccelerationsIndex(header.getBeginOfGeoLocationsIndex()
-                + header.getNumberOfGeoLocations() * ByteSizes.BYTES_IN_ONE_GEO_LOCATION_ENTRY);
-        header.setBeginOfRotationsIndex(header.getBeginOfAccelerationsIndex()
-                + header.getNumberOfAccelerations() * ByteSizes.BYTES_IN_ONE_POINT_ENTRY);
-        header.setBeginOfDirectionsIndex(
-                header.getBeginOfRotationsIndex() + header.getNumberOfRotations() * ByteSizes.BYTES_IN_ONE_POINT_ENTRY);
+        final byte[] individualBytes = new byte[ByteSizes.BYTES_IN_HEADER];
+        uncompressedBinaryInputStream.read(individualBytes, 0, ByteSizes.BYTES_IN_HEADER);
+        this.header = CyfaceBinaryHeader.deserialize(individualBytes);
     }
 
     protected void checkUncompressedOrThrowException() throws CyfaceCompressedDataProcessorException {
@@ -510,6 +1056,12 @@ public abstract class AbstractCyfaceDataProcessor implements CyfaceDataProcessor
             closeStreamIfNotNull(tempDirStream);
         } catch (IOException e) {
             throw new RuntimeException("Could not close Stream, while trying to close DataProcessor.", e);
+        } finally {
+            releaseInflater();
+            if (batchBuffer != null) {
+                ResourcePool.releaseBuffer(batchBuffer.array());
+                batchBuffer = null;
+            }
         }
     }
 
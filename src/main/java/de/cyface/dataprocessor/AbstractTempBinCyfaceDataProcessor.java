@@ -0,0 +1,150 @@
+package de.cyface.dataprocessor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import de.cyface.data.ByteSizes;
+
+/**
+ * Base class for processors which split the sensor data sections of the uncompressed binary to a separate temp bin
+ * each on {@link #prepare()}. The points are then polled from the streams of these bins.
+ *
+ * @author Philipp Grubitzsch
+ * @since 0.3.0
+ *
+ */
+public abstract class AbstractTempBinCyfaceDataProcessor extends AbstractCyfaceDataProcessor {
+
+    public AbstractTempBinCyfaceDataProcessor(InputStream binaryInputStream, boolean compressed) {
+        super(binaryInputStream, compressed);
+    }
+
+    /**
+     * Constructor for processors which open their input themselves, e.g. from a file.
+     *
+     * @param compressed flag to tell the processor if the binary input is compressed
+     */
+    protected AbstractTempBinCyfaceDataProcessor(final boolean compressed) {
+        super(compressed);
+    }
+
+    /**
+     * 
+     * @return an implementation of an OutputStream that can be used to buffer binary location data output
+     */
+    protected abstract OutputStream getTempLocOutputStream();
+
+    /**
+     * 
+     * @return an implementation of an OutputStream that can be used to buffer binary accelerometer data output
+     */
+    protected abstract OutputStream getTempAccOutputStream();
+
+    /**
+     * 
+     * @return an implementation of an OutputStream that can be used to buffer binary rotation data output
+     */
+    protected abstract OutputStream getTempRotOutputStream();
+
+    /**
+     * 
+     * @return an implementation of an OutputStream that can be used to buffer binary direction data output
+     */
+    protected abstract OutputStream getTempDirOutputStream();
+
+    /**
+     * Except for the header, split each part of the uncompressed input binary to a separate bin for easy separate
+     * access of arbitrary sensor data. The bins depend on the type of CyfaceDataProcessor, e.g. temp files.
+     * 
+     * @throws IOException
+     * @throws CyfaceCompressedDataProcessorException
+     */
+    @Override
+    protected void prepare() throws CyfaceCompressedDataProcessorException, IOException {
+        if (getSectionPool() != null) {
+            forEachSection(this::splitSection);
+            uncompressedBinaryInputStream.close();
+            prepared = true;
+            return;
+        }
+        // read the header first.
+        // getHeader();
+
+        // write out geo locations
+        if (this.getHeader().getNumberOfGeoLocations() > 0) {
+            OutputStream binLocationTemp = getTempLocOutputStream();
+            int locationBytesCount = this.getHeader().getNumberOfGeoLocations()
+                    * ByteSizes.BYTES_IN_ONE_GEO_LOCATION_ENTRY;
+            copyStream(uncompressedBinaryInputStream, binLocationTemp, 0, locationBytesCount);
+            binLocationTemp.close();
+        }
+        // write out accelerometer data
+        if (this.getHeader().getNumberOfAccelerations() > 0) {
+
+            OutputStream binAccTemp = getTempAccOutputStream();
+            int accBytesCount = this.getHeader().getNumberOfAccelerations() * ByteSizes.BYTES_IN_ONE_POINT_ENTRY;
+            copyStream(uncompressedBinaryInputStream, binAccTemp, 0, accBytesCount);
+            binAccTemp.close();
+        }
+
+        // write out rotation data
+        if (this.getHeader().getNumberOfRotations() > 0) {
+
+            OutputStream binRotTemp = getTempRotOutputStream();
+            int rotBytesCount = this.getHeader().getNumberOfRotations() * ByteSizes.BYTES_IN_ONE_POINT_ENTRY;
+            copyStream(uncompressedBinaryInputStream, binRotTemp, 0, rotBytesCount);
+            binRotTemp.close();
+        }
+
+        // write out direction data
+        if (this.getHeader().getNumberOfDirections() > 0) {
+            OutputStream binDirTemp = getTempDirOutputStream();
+            int dirBytesCount = ByteSizes.BYTES_IN_ONE_POINT_ENTRY * this.getHeader().getNumberOfDirections();
+            copyStream(uncompressedBinaryInputStream, binDirTemp, 0, dirBytesCount);
+            binDirTemp.close();
+        }
+
+        // close input stream
+        uncompressedBinaryInputStream.close();
+
+        prepared = true;
+    }
+
+    /**
+     * Copies a section of the uncompressed binary to its bin, reading the section from a stream of its own. Thus, the
+     * sections can be split concurrently.
+     * 
+     * @param section the section to split
+     * @return always <code>null</code>
+     * @throws CyfaceCompressedDataProcessorException
+     * @throws IOException
+     */
+    private Void splitSection(final CyfaceBinarySection section)
+            throws CyfaceCompressedDataProcessorException, IOException {
+        final CyfaceBinaryHeader header = getHeader();
+        if (header.getNumberOfEntries(section) <= 0) {
+            return null;
+        }
+        try (InputStream binary = getUncompressedInputStream(); OutputStream bin = getTempOutputStream(section)) {
+            copyStream(binary, bin, header.getBeginIndex(section),
+                    (long)header.getNumberOfEntries(section) * section.getEntrySize());
+        }
+        return null;
+    }
+
+    private OutputStream getTempOutputStream(final CyfaceBinarySection section) {
+        switch (section) {
+            case LOCATIONS:
+                return getTempLocOutputStream();
+            case ACCELERATIONS:
+                return getTempAccOutputStream();
+            case ROTATIONS:
+                return getTempRotOutputStream();
+            case DIRECTIONS:
+                return getTempDirOutputStream();
+            default:
+                throw new IllegalArgumentException("Unknown section: " + section);
+        }
+    }
+}
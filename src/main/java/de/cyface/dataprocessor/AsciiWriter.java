@@ -0,0 +1,198 @@
+package de.cyface.dataprocessor;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes text consisting of ASCII characters and numbers into a reusable byte buffer from the {@link ResourcePool},
+ * which is written to the output whenever it is full. Numbers are formatted straight into the buffer, without
+ * creating a String for each number. Decimal numbers are rounded to a fixed number of fraction digits, of which
+ * trailing zeros are omitted.
+ *
+ * @author Philipp Grubitzsch
+ * @since 0.3.0
+ *
+ */
+final class AsciiWriter implements Closeable {
+
+    /**
+     * The maximum number of fraction digits, for which numbers up to 9 are still formatted by scaling.
+     */
+    static final int MAX_FRACTION_DIGITS = 15;
+    /**
+     * 2^53, the magnitude up to which a <code>double</code> represents each integer. Scaled values below are rounded
+     * to the correct <code>long</code>, larger ones are not.
+     */
+    private static final double MAX_EXACT_SCALED = 9007199254740992.0;
+    private static final int GZIP_BUFFER_SIZE = 65536;
+    /**
+     * The maximum number of characters of a formatted number.
+     */
+    private static final int MAX_NUMBER_LENGTH = 32;
+
+    private final OutputStream output;
+    private final byte[] buffer;
+    private int position = 0;
+
+    private final int fractionDigits;
+    private final long scale;
+    /**
+     * The maximum absolute value formatted by scaling to a <code>long</code>, which keeps the scaled value below
+     * {@link #MAX_EXACT_SCALED}.
+     */
+    private final double scaledLimit;
+    private final byte[] digits = new byte[20];
+    /**
+     * Set once the buffer was returned to the {@link ResourcePool}, which must not be used afterwards.
+     */
+    private boolean closed = false;
+
+    /**
+     *
+     * @param output the stream to write to, which is closed with this writer
+     * @param gzip <code>true</code> to compress the text with gzip
+     * @param fractionDigits the number of fraction digits decimal numbers are rounded to
+     * @throws IOException if the gzip header could not be written
+     */
+    AsciiWriter(final OutputStream output, final boolean gzip, final int fractionDigits) throws IOException {
+        if (fractionDigits < 0 || fractionDigits > MAX_FRACTION_DIGITS) {
+            throw new IllegalArgumentException("Fraction digits must be between 0 and " + MAX_FRACTION_DIGITS + ": "
+                    + fractionDigits);
+        }
+        this.output = gzip ? new GZIPOutputStream(output, GZIP_BUFFER_SIZE) : output;
+        this.buffer = ResourcePool.acquireBuffer();
+        this.fractionDigits = fractionDigits;
+        long pow = 1;
+        for (int i = 0; i < fractionDigits; i++) {
+            pow *= 10;
+        }
+        this.scale = pow;
+        this.scaledLimit = MAX_EXACT_SCALED / pow;
+    }
+
+    private void ensureCapacity(final int length) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Writer is closed.");
+        }
+        if (position + length > buffer.length) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        output.write(buffer, 0, position);
+        position = 0;
+    }
+
+    AsciiWriter write(final char character) throws IOException {
+        ensureCapacity(1);
+        buffer[position++] = (byte)character;
+        return this;
+    }
+
+    /**
+     *
+     * @param text a text of ASCII characters only
+     * @return this writer
+     * @throws IOException if the buffer could not be written
+     */
+    AsciiWriter write(final String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            write(text.charAt(i));
+        }
+        return this;
+    }
+
+    AsciiWriter write(final long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            return write(Long.toString(value));
+        }
+        ensureCapacity(MAX_NUMBER_LENGTH);
+        long remaining = value;
+        if (remaining < 0) {
+            buffer[position++] = '-';
+            remaining = -remaining;
+        }
+        writeDigits(remaining, 0);
+        return this;
+    }
+
+    /**
+     * Writes the decimal digits of a non-negative value.
+     *
+     * @param value the value to write
+     * @param minLength the minimum number of digits, which are padded by leading zeros
+     * @return the number of digits written
+     */
+    private int writeDigits(final long value, final int minLength) {
+        int length = 0;
+        long remaining = value;
+        do {
+            digits[length++] = (byte)('0' + remaining % 10);
+            remaining /= 10;
+        } while (remaining != 0);
+        while (length < minLength) {
+            digits[length++] = '0';
+        }
+        for (int i = length - 1; i >= 0; i--) {
+            buffer[position++] = digits[i];
+        }
+        return length;
+    }
+
+    /**
+     * Writes a decimal number rounded to the fraction digits of this writer. Numbers which are not finite or whose
+     * scaled value reaches 2^53, e.g. 9007199.254740992 for 9 fraction digits, are written unrounded by
+     * {@link Double#toString(double)}.
+     *
+     * @param value the number to write
+     * @return this writer
+     * @throws IOException if the buffer could not be written
+     */
+    AsciiWriter write(final double value) throws IOException {
+        if (!(Math.abs(value) < scaledLimit)) {
+            return write(Double.toString(value));
+        }
+        long scaled = Math.round(value * scale);
+        ensureCapacity(MAX_NUMBER_LENGTH);
+        if (scaled < 0) {
+            buffer[position++] = '-';
+            scaled = -scaled;
+        }
+        writeDigits(scaled / scale, 0);
+        long fraction = scaled % scale;
+        if (fraction != 0) {
+            int length = fractionDigits;
+            while (fraction % 10 == 0) {
+                fraction /= 10;
+                length--;
+            }
+            buffer[position++] = '.';
+            writeDigits(fraction, length);
+        }
+        return this;
+    }
+
+    /**
+     * Writes the buffer to the output and finishes the gzip compression, if enabled. The output is closed and the
+     * buffer is released even if writing fails. Closing the writer again has no effect.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            flushBuffer();
+        } finally {
+            try {
+                output.close();
+            } finally {
+                ResourcePool.releaseBuffer(buffer);
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package de.cyface.dataprocessor;
+
+import java.nio.BufferUnderflowException;
+
+/**
+ * Reads a sequence of bits written by a {@link BitOutput} from a byte array.
+ *
+ * @author Philipp Grubitzsch
+ * @since 0.3.0
+ *
+ */
+final class BitInput {
+
+    private byte[] bytes;
+    private int position;
+    private int limit;
+    /**
+     * The bits read from {@link #bytes} but not returned yet, in the lowest {@link #pendingBits} bits.
+     */
+    private long pending;
+    private int pendingBits;
+
+    void reset(final byte[] bytes, final int length) {
+        this.bytes = bytes;
+        this.position = 0;
+        this.limit = length;
+        this.pending = 0L;
+        this.pendingBits = 0;
+    }
+
+    /**
+     *
+     * @param count the number of bits, between 0 and 64
+     * @return the bits as the lowest bits of the value
+     * @throws BufferUnderflowException if there are not enough bits left
+     */
+    long read(final int count) {
+        if (count > 32) {
+            final long high = read(count - 32);
+            return (high << 32) | read(32);
+        }
+        while (pendingBits < count) {
+            if (position == limit) {
+                throw new BufferUnderflowException();
+            }
+            pending = (pending << 8) | (bytes[position++] & 0xFF);
+            pendingBits += 8;
+        }
+        pendingBits -= count;
+        return (pending >>> pendingBits) & ((1L << count) - 1);
+    }
+
+    boolean readBit() {
+        return read(1) == 1L;
+    }
+}
@@ -0,0 +1,77 @@
+package de.cyface.dataprocessor;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Collects a sequence of bits in a growing byte array, most significant bit first. The last byte is padded with zeros.
+ *
+ * @author Philipp Grubitzsch
+ * @since 0.3.0
+ *
+ */
+final class BitOutput {
+
+    private byte[] bytes;
+    private int length = 0;
+    /**
+     * The bits not written to {@link #bytes} yet, in the lowest {@link #pendingBits} bits.
+     */
+    private long pending = 0L;
+    private int pendingBits = 0;
+
+    BitOutput(final int initialCapacity) {
+        this.bytes = new byte[Math.max(16, initialCapacity)];
+    }
+
+    /**
+     * Appends the lowest bits of a value.
+     *
+     * @param value the bits to append
+     * @param count the number of bits, between 0 and 64
+     */
+    void write(final long value, final int count) {
+        if (count > 32) {
+            write(value >>> 32, count - 32);
+            write(value, 32);
+            return;
+        }
+        pending = (pending << count) | (value & ((1L << count) - 1));
+        pendingBits += count;
+        while (pendingBits >= 8) {
+            pendingBits -= 8;
+            appendByte((int)(pending >>> pendingBits));
+        }
+    }
+
+    private void appendByte(final int value) {
+        if (length == bytes.length) {
+            bytes = Arrays.copyOf(bytes, 2 * length);
+        }
+        bytes[length++] = (byte)value;
+    }
+
+    /**
+     * Pads the bits to a full byte.
+     *
+     * @return the number of bytes written
+     */
+    int finish() {
+        if (pendingBits > 0) {
+            appendByte((int)(pending << (8 - pendingBits)));
+            pendingBits = 0;
+        }
+        return length;
+    }
+
+    void writeTo(final OutputStream output) throws IOException {
+        output.write(bytes, 0, finish());
+    }
+
+    void reset() {
+        length = 0;
+        pending = 0L;
+        pendingBits = 0;
+    }
+}
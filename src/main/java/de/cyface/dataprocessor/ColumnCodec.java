@@ -0,0 +1,141 @@
+package de.cyface.dataprocessor;
+
+/**
+ * Encodes columns of sensor data into a {@link BitOutput} and decodes them from a {@link BitInput}, as described by
+ * the Gorilla time series database:
+ * <ul>
+ * <li>Integers like timestamps are stored as delta of their deltas, which is zero for a steady sampling rate and
+ * takes a single bit then.</li>
+ * <li>Doubles are stored as XOR with the value before, of which only the bits between the leading and trailing zeros
+ * are stored. As sensor values change slowly, the same bits are meaningful for a sequence of values.</li>
+ * </ul>
+ * The first value of each column is stored completely.
+ *
+ * @author Philipp Grubitzsch
+ * @since 0.3.0
+ *
+ */
+final class ColumnCodec {
+
+    private ColumnCodec() {
+        // static codec
+    }
+
+    static void encodeLongs(final BitOutput output, final long[] values, final int size) {
+        if (size == 0) {
+            return;
+        }
+        output.write(values[0], 64);
+        long delta = 0L;
+        for (int i = 1; i < size; i++) {
+            final long nextDelta = values[i] - values[i - 1];
+            final long deltaOfDelta = nextDelta - delta;
+            delta = nextDelta;
+            if (deltaOfDelta == 0L) {
+                output.write(0b0, 1);
+            } else if (deltaOfDelta >= -63L && deltaOfDelta <= 64L) {
+                output.write(0b10, 2);
+                output.write(deltaOfDelta, 7);
+            } else if (deltaOfDelta >= -255L && deltaOfDelta <= 256L) {
+                output.write(0b110, 3);
+                output.write(deltaOfDelta, 9);
+            } else if (deltaOfDelta >= -2047L && deltaOfDelta <= 2048L) {
+                output.write(0b1110, 4);
+                output.write(deltaOfDelta, 12);
+            } else {
+                output.write(0b1111, 4);
+                output.write(deltaOfDelta, 64);
+            }
+        }
+    }
+
+    static void decodeLongs(final BitInput input, final long[] values, final int size) {
+        if (size == 0) {
+            return;
+        }
+        values[0] = input.read(64);
+        long delta = 0L;
+        for (int i = 1; i < size; i++) {
+            final long deltaOfDelta;
+            if (!input.readBit()) {
+                deltaOfDelta = 0L;
+            } else if (!input.readBit()) {
+                deltaOfDelta = signed(input.read(7), 7);
+            } else if (!input.readBit()) {
+                deltaOfDelta = signed(input.read(9), 9);
+            } else if (!input.readBit()) {
+                deltaOfDelta = signed(input.read(12), 12);
+            } else {
+                deltaOfDelta = input.read(64);
+            }
+            delta += deltaOfDelta;
+            values[i] = values[i - 1] + delta;
+        }
+    }
+
+    /**
+     * Restores the sign of a value stored in a few bits, whose range is shifted by one towards the positive values.
+     */
+    private static long signed(final long value, final int bits) {
+        return value > 1L << (bits - 1) ? value - (1L << bits) : value;
+    }
+
+    static void encodeDoubles(final BitOutput output, final double[] values, final int size) {
+        if (size == 0) {
+            return;
+        }
+        long previous = Double.doubleToRawLongBits(values[0]);
+        output.write(previous, 64);
+        int leading = -1;
+        int trailing = 0;
+        for (int i = 1; i < size; i++) {
+            final long value = Double.doubleToRawLongBits(values[i]);
+            final long xor = value ^ previous;
+            previous = value;
+            if (xor == 0L) {
+                output.write(0b0, 1);
+                continue;
+            }
+            final int nextLeading = Math.min(31, Long.numberOfLeadingZeros(xor));
+            final int nextTrailing = Long.numberOfTrailingZeros(xor);
+            if (leading != -1 && nextLeading >= leading && nextTrailing >= trailing) {
+                // the meaningful bits fit into those of the value before
+                output.write(0b10, 2);
+                output.write(xor >>> trailing, 64 - leading - trailing);
+            } else {
+                leading = nextLeading;
+                trailing = nextTrailing;
+                final int meaningful = 64 - leading - trailing;
+                output.write(0b11, 2);
+                output.write(leading, 5);
+                // 64 meaningful bits are stored as 0
+                output.write(meaningful, 6);
+                output.write(xor >>> trailing, meaningful);
+            }
+        }
+    }
+
+    static void decodeDoubles(final BitInput input, final double[] values, final int size) {
+        if (size == 0) {
+            return;
+        }
+        long previous = input.read(64);
+        values[0] = Double.longBitsToDouble(previous);
+        int leading = 0;
+        int trailing = 0;
+        for (int i = 1; i < size; i++) {
+            if (input.readBit()) {
+                if (input.readBit()) {
+                    leading = (int)input.read(5);
+                    int meaningful = (int)input.read(6);
+                    if (meaningful == 0) {
+                        meaningful = 64;
+                    }
+                    trailing = 64 - leading - meaningful;
+                }
+                previous ^= input.read(64 - leading - trailing) << trailing;
+            }
+            values[i] = Double.longBitsToDouble(previous);
+        }
+    }
+}
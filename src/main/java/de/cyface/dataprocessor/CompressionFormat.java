@@ -0,0 +1,218 @@
+package de.cyface.dataprocessor;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+import org.apache.commons.io.IOUtils;
+
+import de.cyface.data.ByteSizes;
+import de.cyface.dataprocessor.AbstractCyfaceDataProcessor.CyfaceCompressedDataProcessorException;
+
+/**
+ * The formats a Cyface binary is transmitted in.
+ *
+ * @author Philipp Grubitzsch
+ * @since 0.3.0
+ *
+ */
+public enum CompressionFormat {
+
+    /**
+     * Raw deflate data without zlib header and checksum (<code>nowrap</code>), used since Cyface SDK 3.3.0.
+     */
+    RAW_DEFLATE,
+    /**
+     * Deflate data wrapped with zlib header and checksum, used by Cyface SDK versions before 3.3.0.
+     */
+    ZLIB,
+    /**
+     * Plain Cyface binary, as for example submitted by early 2019 versions of the iOS component.
+     */
+    UNCOMPRESSED;
+
+    /**
+     * The number of compressed bytes which might be read while probing the format. This must be larger than the
+     * buffer of the probing inflater, since failing formats are detected within the first block of the stream.
+     */
+    static final int PROBE_READ_LIMIT = 8192;
+    private static final int PROBE_BUFFER_SIZE = 512;
+
+    /**
+     *
+     * @param input the stream of data in this format
+     * @param bufferSize the size of the input buffer used for inflating
+     * @return a stream of the uncompressed Cyface binary, which returns its inflater to the {@link ResourcePool} on
+     *         close
+     */
+    public InputStream open(final InputStream input, final int bufferSize) {
+        if (this == UNCOMPRESSED) {
+            return input;
+        }
+        return new InflaterInputStream(input, acquireInflater(), bufferSize) {
+            private boolean released = false;
+
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    if (!released) {
+                        released = true;
+                        releaseInflater(inf);
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     *
+     * @return an inflater for this format from the {@link ResourcePool}, which must be released by the caller, or
+     *         <code>null</code> for {@link #UNCOMPRESSED} data
+     */
+    Inflater acquireInflater() {
+        return this == UNCOMPRESSED ? null : ResourcePool.acquireInflater(this == RAW_DEFLATE);
+    }
+
+    /**
+     *
+     * @param inflater an inflater acquired for this format, may be <code>null</code>
+     */
+    void releaseInflater(final Inflater inflater) {
+        if (this != UNCOMPRESSED) {
+            ResourcePool.releaseInflater(inflater, this == RAW_DEFLATE);
+        }
+    }
+
+    /**
+     * The only version of the Cyface binary format known to be submitted uncompressed.
+     */
+    static final short PLAIN_FORMAT_VERSION = 1;
+    /**
+     * The compression method and flags of a zlib stream: deflate with a window of up to 32K and no preset dictionary.
+     */
+    private static final int ZLIB_DEFLATE_METHOD = 8;
+    private static final int ZLIB_MAX_WINDOW_BITS = 7;
+    private static final int ZLIB_PRESET_DICTIONARY = 0x20;
+
+    /**
+     * Finds out the format of a binary from its leading bytes without inflating anything. A binary is
+     * <ul>
+     * <li>{@link #ZLIB} if it starts with a valid zlib header (CMF and FLG) for deflate without a preset dictionary,</li>
+     * <li>{@link #UNCOMPRESSED} if it starts with a plausible Cyface header, i.e. the known format version and
+     * non-negative numbers of entries, and</li>
+     * <li>{@link #RAW_DEFLATE} if it starts with a valid deflate block header.</li>
+     * </ul>
+     * The first byte of zlib data and plain Cyface binaries always reads as a stored deflate block. Thus, they are only
+     * taken as raw deflate, if the lengths of the stored block are consistent, which makes the result ambiguous.
+     *
+     * @param leading the leading bytes of the binary
+     * @param length the number of valid leading bytes, which should be {@link ByteSizes#BYTES_IN_HEADER} unless the
+     *            binary is shorter
+     * @return the format of the binary or <code>null</code>, if the leading bytes match none or more than one format
+     */
+    static CompressionFormat detect(final byte[] leading, final int length) {
+        final boolean zlib = length >= 2 && isZlibHeader(leading[0] & 0xFF, leading[1] & 0xFF);
+        final boolean plain = length >= ByteSizes.BYTES_IN_HEADER && isPlausibleHeader(leading);
+        final boolean rawDeflate = isDeflateBlockHeader(leading, length);
+        if (zlib && !plain && !rawDeflate) {
+            return ZLIB;
+        } else if (plain && !zlib && !rawDeflate) {
+            return UNCOMPRESSED;
+        } else if (rawDeflate && !zlib && !plain) {
+            return RAW_DEFLATE;
+        }
+        return null;
+    }
+
+    private static boolean isZlibHeader(final int cmf, final int flg) {
+        return (cmf & 0x0F) == ZLIB_DEFLATE_METHOD && (cmf >> 4) <= ZLIB_MAX_WINDOW_BITS
+                && (flg & ZLIB_PRESET_DICTIONARY) == 0 && ((cmf << 8) | flg) % 31 == 0;
+    }
+
+    private static boolean isPlausibleHeader(final byte[] leading) {
+        final CyfaceBinaryHeader header = CyfaceBinaryHeader.deserialize(leading);
+        for (CyfaceBinarySection section : CyfaceBinarySection.values()) {
+            if (header.getNumberOfEntries(section) < 0) {
+                return false;
+            }
+        }
+        return header.getFormatVersion() == PLAIN_FORMAT_VERSION;
+    }
+
+    private static boolean isDeflateBlockHeader(final byte[] leading, final int length) {
+        if (length < 1) {
+            return false;
+        }
+        switch ((leading[0] >> 1) & 0x03) {
+            case 0:
+                // stored block: the lengths follow at the next byte boundary in little endian order
+                if (length < 5) {
+                    return false;
+                }
+                final int len = (leading[1] & 0xFF) | (leading[2] & 0xFF) << 8;
+                final int nlen = (leading[3] & 0xFF) | (leading[4] & 0xFF) << 8;
+                return len == (~nlen & 0xFFFF);
+            case 1:
+            case 2:
+                // fixed or dynamic Huffman codes
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Finds out the format of a compressed Cyface binary. The format is detected from the leading bytes if possible.
+     * Otherwise the header is inflated, following the retry logic of {@link AbstractCyfaceDataProcessor#uncompress()}.
+     * Since the deflate formats fail within their first block, only the beginning of the input is read. The input is
+     * reset to its beginning before this method returns.
+     *
+     * @param input the compressed Cyface binary
+     * @return the format of the binary
+     * @throws CyfaceCompressedDataProcessorException if the binary is corrupt
+     * @throws IOException if reading the input fails
+     */
+    static CompressionFormat probe(final BufferedInputStream input)
+            throws CyfaceCompressedDataProcessorException, IOException {
+        input.mark(ByteSizes.BYTES_IN_HEADER);
+        final byte[] leading = new byte[ByteSizes.BYTES_IN_HEADER];
+        final CompressionFormat detected;
+        try {
+            detected = detect(leading, IOUtils.read(input, leading));
+        } finally {
+            input.reset();
+        }
+        if (detected != null) {
+            return detected;
+        }
+
+        for (CompressionFormat format : new CompressionFormat[] {RAW_DEFLATE, ZLIB}) {
+            input.mark(PROBE_READ_LIMIT);
+            Inflater inflater = format.acquireInflater();
+            try {
+                // not closing the inflater stream, since this would close the input as well
+                IOUtils.read(new InflaterInputStream(input, inflater, PROBE_BUFFER_SIZE),
+                        new byte[ByteSizes.BYTES_IN_HEADER]);
+                return format;
+            } catch (ZipException e) {
+                // "invalid stored block lengths": binary input created with cyface SDK before Version 3.3.0, used
+                // nowrap=false option
+                // "incorrect header check": input maybe not compressed, even with compression flag set
+                if (!"invalid stored block lengths".equals(e.getMessage())
+                        && !"incorrect header check".equals(e.getMessage())) {
+                    throw new CyfaceCompressedDataProcessorException(
+                            "Binary input could not be uncompressed: " + e.getMessage());
+                }
+            } finally {
+                format.releaseInflater(inflater);
+                input.reset();
+            }
+        }
+        return UNCOMPRESSED;
+    }
+}
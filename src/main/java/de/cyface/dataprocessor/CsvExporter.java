@@ -0,0 +1,108 @@
+package de.cyface.dataprocessor;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Exports the sensor data of a binary as comma separated values. The rows are formatted from a cursor straight into a
+ * reusable byte buffer, without creating objects or strings per sensor point. Each export starts with a header row.
+ * Decimal numbers are rounded to a fixed number of fraction digits.
+ *
+ * <pre>
+ * try (CsvExporter exporter = new CsvExporter(new FileOutputStream("accelerations.csv.gz"), true)) {
+ *     exporter.writePoints3D(proc.accelerationCursor());
+ * }
+ * </pre>
+ *
+ * @author Philipp Grubitzsch
+ * @since 0.3.0
+ *
+ */
+public final class CsvExporter implements Closeable {
+
+    /**
+     * The default number of fraction digits, which is more than the precision of the sensors.
+     */
+    public static final int DEFAULT_FRACTION_DIGITS = 9;
+
+    private final AsciiWriter writer;
+
+    /**
+     *
+     * @param output the stream to write to, which is closed with this exporter
+     * @param gzip <code>true</code> to compress the output with gzip
+     * @throws IOException if the gzip header could not be written
+     */
+    public CsvExporter(final OutputStream output, final boolean gzip) throws IOException {
+        this(output, gzip, DEFAULT_FRACTION_DIGITS);
+    }
+
+    /**
+     *
+     * @param output the stream to write to, which is closed with this exporter
+     * @param gzip <code>true</code> to compress the output with gzip
+     * @param fractionDigits the number of fraction digits decimal numbers are rounded to, at most 15. Numbers of
+     *            2^53 / 10^fractionDigits and above are written unrounded.
+     * @throws IOException if the gzip header could not be written
+     */
+    public CsvExporter(final OutputStream output, final boolean gzip, final int fractionDigits) throws IOException {
+        this.writer = new AsciiWriter(output, gzip, fractionDigits);
+    }
+
+    /**
+     *
+     * @param channel the channel to write to, which is closed with this exporter
+     * @param gzip <code>true</code> to compress the output with gzip
+     * @throws IOException if the gzip header could not be written
+     */
+    public CsvExporter(final WritableByteChannel channel, final boolean gzip) throws IOException {
+        this(Channels.newOutputStream(channel), gzip);
+    }
+
+    /**
+     * Writes the remaining 3D points of a cursor as rows <code>timestamp,x,y,z</code>.
+     *
+     * @param cursor the 3D points to write
+     * @return the number of rows written, without the header
+     * @throws IOException if reading or writing fails
+     */
+    public long writePoints3D(final Point3DCursor cursor) throws IOException {
+        writer.write("timestamp,x,y,z\n");
+        long rows = 0;
+        while (cursor.next()) {
+            writer.write(cursor.timestamp()).write(',').write(cursor.x()).write(',').write(cursor.y()).write(',')
+                    .write(cursor.z()).write('\n');
+            rows++;
+        }
+        return rows;
+    }
+
+    /**
+     * Writes the remaining geo locations of a cursor as rows <code>timestamp,latitude,longitude,speed,accuracy</code>.
+     *
+     * @param cursor the geo locations to write
+     * @return the number of rows written, without the header
+     * @throws IOException if reading or writing fails
+     */
+    public long writeLocations(final LocationCursor cursor) throws IOException {
+        writer.write("timestamp,latitude,longitude,speed,accuracy\n");
+        long rows = 0;
+        while (cursor.next()) {
+            writer.write(cursor.timestamp()).write(',').write(cursor.latitude()).write(',').write(cursor.longitude())
+                    .write(',').write(cursor.speed()).write(',').write(cursor.accuracy()).write('\n');
+            rows++;
+        }
+        return rows;
+    }
+
+    /**
+     * Writes the remaining rows and finishes the gzip compression, if enabled.
+     */
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
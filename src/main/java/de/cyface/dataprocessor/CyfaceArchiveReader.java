@@ -0,0 +1,146 @@
+package de.cyface.dataprocessor;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import de.cyface.data.ByteSizes;
+import de.cyface.dataprocessor.AbstractCyfaceDataProcessor.CyfaceCompressedDataProcessorException;
+
+/**
+ * Reads an archive written by {@link CyfaceArchiveWriter} back into the uncompressed Cyface binary, which is then
+ * processed like any other binary, e.g. by the <code>CyfaceDataProcessorArchiveImpl</code>.
+ *
+ * @author Philipp Grubitzsch
+ * @since 0.3.0
+ *
+ */
+public final class CyfaceArchiveReader {
+
+    private final DataInputStream input;
+    private final Inflater inflater;
+    private final BitInput payload = new BitInput();
+    private byte[] deflatedBytes = new byte[CyfaceArchiveWriter.BLOCK_ENTRIES * 8];
+    private byte[] payloadBytes = new byte[CyfaceArchiveWriter.BLOCK_ENTRIES * 8];
+
+    private final long[] timestamps = new long[CyfaceArchiveWriter.BLOCK_ENTRIES];
+    private final long[] integers = new long[CyfaceArchiveWriter.BLOCK_ENTRIES];
+    private final double[] first = new double[CyfaceArchiveWriter.BLOCK_ENTRIES];
+    private final double[] second = new double[CyfaceArchiveWriter.BLOCK_ENTRIES];
+    private final double[] third = new double[CyfaceArchiveWriter.BLOCK_ENTRIES];
+
+    private CyfaceArchiveReader(final InputStream input, final Inflater inflater) {
+        this.input = new DataInputStream(new BufferedInputStream(input, ResourcePool.BUFFER_SIZE));
+        this.inflater = inflater;
+    }
+
+    /**
+     * Decodes an archive into the uncompressed binary it was written from.
+     *
+     * @param input the archive, which is read completely but not closed
+     * @return a heap buffer containing the uncompressed binary between position and limit
+     * @throws CyfaceCompressedDataProcessorException if the input is no archive or corrupt
+     * @throws IOException if reading the input fails
+     */
+    public static ByteBuffer read(final InputStream input) throws CyfaceCompressedDataProcessorException, IOException {
+        final Inflater inflater = ResourcePool.acquireInflater(true);
+        try {
+            return new CyfaceArchiveReader(input, inflater).readArchive();
+        } catch (EOFException e) {
+            throw new CyfaceCompressedDataProcessorException("Archive ends before its last block.");
+        } catch (BufferUnderflowException | DataFormatException e) {
+            throw new CyfaceCompressedDataProcessorException("Archive contains a corrupt block.");
+        } finally {
+            ResourcePool.releaseInflater(inflater, true);
+        }
+    }
+
+    private ByteBuffer readArchive() throws CyfaceCompressedDataProcessorException, IOException, DataFormatException {
+        if (input.readInt() != CyfaceArchiveWriter.MAGIC) {
+            throw new CyfaceCompressedDataProcessorException("Input is no Cyface archive.");
+        }
+        final short version = input.readShort();
+        if (version != CyfaceArchiveWriter.ARCHIVE_VERSION) {
+            throw new CyfaceCompressedDataProcessorException("Unsupported archive version: " + version);
+        }
+        final byte[] headerBytes = new byte[ByteSizes.BYTES_IN_HEADER];
+        input.readFully(headerBytes);
+        final CyfaceBinaryHeader header = CyfaceBinaryHeader.deserialize(headerBytes);
+        for (CyfaceBinarySection section : CyfaceBinarySection.values()) {
+            if (header.getNumberOfEntries(section) < 0) {
+                throw new CyfaceCompressedDataProcessorException("Archive contains a corrupt header: " + header);
+            }
+        }
+        if (header.getBinarySize() > CyfaceArchiveWriter.MAX_BINARY_SIZE) {
+            throw new CyfaceCompressedDataProcessorException("Binary is too large to be decoded: " + header);
+        }
+
+        final ByteBuffer binary = ByteBuffer.allocate((int)header.getBinarySize());
+        binary.put(headerBytes);
+        for (CyfaceBinarySection section : CyfaceBinarySection.values()) {
+            int remaining = header.getNumberOfEntries(section);
+            while (remaining > 0) {
+                remaining -= readBlock(section, remaining, binary);
+            }
+        }
+        binary.flip();
+        return binary;
+    }
+
+    /**
+     * Decodes the next block and appends its entries to the binary.
+     *
+     * @return the number of entries decoded
+     */
+    private int readBlock(final CyfaceBinarySection section, final int remaining, final ByteBuffer binary)
+            throws CyfaceCompressedDataProcessorException, IOException, DataFormatException {
+        final int entries = input.readInt();
+        final int length = input.readInt();
+        final int deflatedLength = input.readInt();
+        if (entries <= 0 || entries > Math.min(remaining, CyfaceArchiveWriter.BLOCK_ENTRIES) || length < 0
+                || deflatedLength < 0) {
+            throw new CyfaceCompressedDataProcessorException("Archive contains a corrupt block of " + section + ".");
+        }
+        if (deflatedLength > deflatedBytes.length) {
+            deflatedBytes = new byte[deflatedLength];
+        }
+        if (length > payloadBytes.length) {
+            payloadBytes = new byte[length];
+        }
+        input.readFully(deflatedBytes, 0, deflatedLength);
+        inflater.reset();
+        inflater.setInput(deflatedBytes, 0, deflatedLength);
+        int inflated = 0;
+        int count;
+        while (inflated < length && (count = inflater.inflate(payloadBytes, inflated, length - inflated)) > 0) {
+            inflated += count;
+        }
+        if (inflated != length) {
+            throw new CyfaceCompressedDataProcessorException("Archive contains a corrupt block of " + section + ".");
+        }
+        payload.reset(payloadBytes, length);
+
+        ColumnCodec.decodeLongs(payload, timestamps, entries);
+        ColumnCodec.decodeDoubles(payload, first, entries);
+        ColumnCodec.decodeDoubles(payload, second, entries);
+        ColumnCodec.decodeDoubles(payload, third, entries);
+        if (section == CyfaceBinarySection.LOCATIONS) {
+            ColumnCodec.decodeLongs(payload, integers, entries);
+            for (int i = 0; i < entries; i++) {
+                binary.putLong(timestamps[i]).putDouble(first[i]).putDouble(second[i]).putDouble(third[i])
+                        .putInt((int)integers[i]);
+            }
+        } else {
+            for (int i = 0; i < entries; i++) {
+                binary.putLong(timestamps[i]).putDouble(first[i]).putDouble(second[i]).putDouble(third[i]);
+            }
+        }
+        return entries;
+    }
+}
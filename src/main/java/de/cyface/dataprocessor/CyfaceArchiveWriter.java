@@ -0,0 +1,180 @@
+package de.cyface.dataprocessor;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import de.cyface.data.ByteSizes;
+import de.cyface.data.LocationSeries;
+import de.cyface.data.Point3DSeries;
+import de.cyface.dataprocessor.AbstractCyfaceDataProcessor.CyfaceCompressedDataProcessorException;
+
+/**
+ * Writes the sensor data of a binary into a compact columnar archive, which is read by {@link CyfaceArchiveReader}.
+ * Instead of storing each entry as raw bytes and deflating them, the archive stores the entries of each section column
+ * by column in blocks of {@link #BLOCK_ENTRIES} entries, compressed by the {@link ColumnCodec}. The encoded columns
+ * of each block are deflated in addition, which removes the redundancy left by the codec, e.g. of the values quantized
+ * by the sensors.
+ * <p>
+ * All numbers of the format are big-endian:
+ *
+ * <pre>
+ * archive: int MAGIC, short ARCHIVE_VERSION, header of the binary, blocks of each section in the order of the binary
+ * block:   int entries, int encoded bytes, int payload bytes, payload
+ * payload: the raw deflated encoded bytes
+ * encoded: the bits of the timestamp column followed by the other columns of the section, padded to a full byte
+ * </pre>
+ *
+ * The archive is decoded into a single buffer, so only binaries of up to {@link #MAX_BINARY_SIZE} bytes are archived.
+ *
+ * @author Philipp Grubitzsch
+ * @since 0.3.0
+ *
+ */
+public final class CyfaceArchiveWriter {
+
+    /**
+     * The leading bytes of each archive, which are "CYFA".
+     */
+    static final int MAGIC = 0x43594641;
+    static final short ARCHIVE_VERSION = 1;
+    /**
+     * The maximum number of entries in one block.
+     */
+    static final int BLOCK_ENTRIES = 4096;
+    static final int ARCHIVE_HEADER_BYTES = 4 + 2 + ByteSizes.BYTES_IN_HEADER;
+    static final int BLOCK_HEADER_BYTES = 3 * ByteSizes.INT_BYTES;
+    /**
+     * The maximum size of a binary in bytes, which is the maximum size of an array.
+     */
+    static final long MAX_BINARY_SIZE = Integer.MAX_VALUE - 8;
+    private static final int DEFLATE_BUFFER_SIZE = 4096;
+
+    private final DataOutputStream output;
+    private long written = 0L;
+    private final BitOutput payload = new BitOutput(BLOCK_ENTRIES * 8);
+    private final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+    private final ByteArrayOutputStream deflated = new ByteArrayOutputStream(BLOCK_ENTRIES * 8);
+
+    private final long[] timestamps = new long[BLOCK_ENTRIES];
+    private final long[] integers = new long[BLOCK_ENTRIES];
+    private final double[] first = new double[BLOCK_ENTRIES];
+    private final double[] second = new double[BLOCK_ENTRIES];
+    private final double[] third = new double[BLOCK_ENTRIES];
+
+    private CyfaceArchiveWriter(final OutputStream output) {
+        this.output = new DataOutputStream(new BufferedOutputStream(output, ResourcePool.BUFFER_SIZE));
+    }
+
+    /**
+     * Writes all sensor data of a binary into an archive.
+     *
+     * @param processor the processor of the binary, which is uncompressed
+     * @param output the stream to write the archive to, which is flushed but not closed
+     * @return the number of bytes written
+     * @throws CyfaceCompressedDataProcessorException if the binary is not uncompressed, ends before its last entry or
+     *             is larger than {@link #MAX_BINARY_SIZE}
+     * @throws IOException if reading the binary or writing the archive fails
+     */
+    public static long write(final CyfaceDataProcessor processor, final OutputStream output)
+            throws CyfaceCompressedDataProcessorException, IOException {
+        final CyfaceArchiveWriter writer = new CyfaceArchiveWriter(output);
+        try {
+            writer.writeArchive(processor);
+        } finally {
+            writer.deflater.end();
+        }
+        return writer.written;
+    }
+
+    private void writeArchive(final CyfaceDataProcessor processor)
+            throws CyfaceCompressedDataProcessorException, IOException {
+        final CyfaceBinaryHeader header = processor.getHeader();
+        if (header.getBinarySize() > MAX_BINARY_SIZE) {
+            throw new CyfaceCompressedDataProcessorException("Binary is too large to be archived: " + header);
+        }
+        output.writeInt(MAGIC);
+        output.writeShort(ARCHIVE_VERSION);
+        output.writeShort(header.getFormatVersion());
+        for (CyfaceBinarySection section : CyfaceBinarySection.values()) {
+            output.writeInt(header.getNumberOfEntries(section));
+        }
+        written = ARCHIVE_HEADER_BYTES;
+
+        for (CyfaceBinarySection section : CyfaceBinarySection.values()) {
+            final int entries = header.getNumberOfEntries(section);
+            for (int from = 0; from < entries; from += BLOCK_ENTRIES) {
+                final int to = Math.min(entries, from + BLOCK_ENTRIES);
+                payload.reset();
+                if (section == CyfaceBinarySection.LOCATIONS) {
+                    encodeLocations(processor.readLocations(from, to));
+                } else {
+                    encodePoints3D(readPoints3D(processor, section, from, to));
+                }
+                output.writeInt(to - from);
+                output.writeInt(payload.finish());
+                deflatePayload();
+                output.writeInt(deflated.size());
+                deflated.writeTo(output);
+                written += BLOCK_HEADER_BYTES + deflated.size();
+            }
+        }
+        output.flush();
+    }
+
+    private void deflatePayload() throws IOException {
+        deflated.reset();
+        deflater.reset();
+        final DeflaterOutputStream stream = new DeflaterOutputStream(deflated, deflater, DEFLATE_BUFFER_SIZE);
+        payload.writeTo(stream);
+        stream.finish();
+    }
+
+    private static Point3DSeries readPoints3D(final CyfaceDataProcessor processor, final CyfaceBinarySection section,
+            final int from, final int to) throws CyfaceCompressedDataProcessorException, IOException {
+        switch (section) {
+            case ACCELERATIONS:
+                return processor.readAccelerations(from, to);
+            case ROTATIONS:
+                return processor.readRotations(from, to);
+            case DIRECTIONS:
+                return processor.readDirections(from, to);
+            default:
+                throw new IllegalArgumentException("Not a section of 3D points: " + section);
+        }
+    }
+
+    private void encodeLocations(final LocationSeries locations) {
+        final int size = locations.size();
+        for (int i = 0; i < size; i++) {
+            timestamps[i] = locations.getTimestamp(i);
+            first[i] = locations.getLatitude(i);
+            second[i] = locations.getLongitude(i);
+            third[i] = locations.getSpeed(i);
+            integers[i] = locations.getAccuracy(i);
+        }
+        ColumnCodec.encodeLongs(payload, timestamps, size);
+        ColumnCodec.encodeDoubles(payload, first, size);
+        ColumnCodec.encodeDoubles(payload, second, size);
+        ColumnCodec.encodeDoubles(payload, third, size);
+        ColumnCodec.encodeLongs(payload, integers, size);
+    }
+
+    private void encodePoints3D(final Point3DSeries points) {
+        final int size = points.size();
+        for (int i = 0; i < size; i++) {
+            timestamps[i] = points.getTimestamp(i);
+            first[i] = points.getX(i);
+            second[i] = points.getY(i);
+            third[i] = points.getZ(i);
+        }
+        ColumnCodec.encodeLongs(payload, timestamps, size);
+        ColumnCodec.encodeDoubles(payload, first, size);
+        ColumnCodec.encodeDoubles(payload, second, size);
+        ColumnCodec.encodeDoubles(payload, third, size);
+    }
+}
@@ -0,0 +1,273 @@
+package de.cyface.dataprocessor;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import de.cyface.dataprocessor.AbstractCyfaceDataProcessor.CyfaceCompressedDataProcessorException;
+
+/**
+ * Processes many Cyface binaries concurrently on a fixed pool of worker threads. Each binary is uncompressed and
+ * prepared by its own {@link CyfaceDataProcessor} before a {@link Task} reads the sensor data from it. The result of
+ * each binary is reported to a {@link Callback}.
+ * <p>
+ * To keep the memory usage bounded, a binary is only admitted to a worker if its estimated size fits into a global
+ * byte budget, which is shared by all binaries in process. The estimate is the compressed size plus the size of the
+ * uncompressed binary, which is calculated from the header. Thus, only the header of a binary is inflated before it is
+ * admitted. The estimate is calculated by the worker, so the headers are inflated concurrently. A binary with an
+ * estimate larger than the whole budget is admitted as soon as no other binary is in process.
+ *
+ * @author Philipp Grubitzsch
+ * @since 0.3.0
+ *
+ */
+public class CyfaceBatchProcessor implements Closeable {
+
+    /**
+     * Creates the {@link CyfaceDataProcessor} for a binary, e.g. <code>CyfaceDataProcessorInMemoryImpl::new</code>.
+     */
+    public interface ProcessorFactory {
+        CyfaceDataProcessor create(InputStream binaryInputStream, boolean compressed) throws IOException;
+    }
+
+    /**
+     * A Cyface binary to process, which can be opened more than once.
+     */
+    public interface Source {
+
+        /**
+         *
+         * @return a new stream of the binary, which is closed by the batch processor
+         * @throws IOException
+         */
+        InputStream open() throws IOException;
+
+        /**
+         *
+         * @return flag to tell if the binary is compressed
+         */
+        boolean isCompressed();
+
+        /**
+         *
+         * @return the size of the binary as provided by {@link #open()} in bytes or 0, if unknown
+         */
+        long getSize();
+
+        /**
+         *
+         * @param file a Cyface binary file
+         * @param compressed flag to tell if the binary is compressed
+         * @return a source reading the file
+         */
+        static Source of(final File file, final boolean compressed) {
+            return new Source() {
+                @Override
+                public InputStream open() throws IOException {
+                    return new FileInputStream(file);
+                }
+
+                @Override
+                public boolean isCompressed() {
+                    return compressed;
+                }
+
+                @Override
+                public long getSize() {
+                    return file.length();
+                }
+
+                @Override
+                public String toString() {
+                    return file.getPath();
+                }
+            };
+        }
+    }
+
+    /**
+     * Reads the sensor data of a single binary from its uncompressed and prepared processor.
+     *
+     * @param <R> the type of the result for each binary
+     */
+    public interface Task<R> {
+        R process(CyfaceDataProcessor processor) throws CyfaceCompressedDataProcessorException, IOException;
+    }
+
+    /**
+     * Receives the result of each binary. The methods are called from the worker threads.
+     *
+     * @param <R> the type of the result for each binary
+     */
+    public interface Callback<R> {
+
+        void onResult(Source source, R result);
+
+        /**
+         *
+         * @param source the binary which could not be processed
+         * @param e the reason, e.g. a {@link CyfaceCompressedDataProcessorException} for a corrupt binary
+         */
+        void onFailure(Source source, Exception e);
+    }
+
+    private final ProcessorFactory factory;
+    private final ExecutorService workers;
+    private final ByteBudget budget;
+
+    /**
+     * Constructor for the Processor
+     *
+     * @param factory creates the processor for each binary
+     * @param numberOfWorkers the number of binaries processed at the same time at most
+     * @param byteBudget the number of bytes which may be used by all binaries in process together
+     */
+    public CyfaceBatchProcessor(final ProcessorFactory factory, final int numberOfWorkers, final long byteBudget) {
+        Objects.requireNonNull(factory, "ProcessorFactory must not be null.");
+        if (numberOfWorkers < 1 || byteBudget < 1) {
+            throw new IllegalArgumentException("Number of workers and byte budget must be positive.");
+        }
+        this.factory = factory;
+        this.workers = Executors.newFixedThreadPool(numberOfWorkers);
+        this.budget = new ByteBudget(byteBudget);
+    }
+
+    /**
+     * Constructor for a Processor with one worker for each available processor core.
+     *
+     * @param factory creates the processor for each binary
+     * @param byteBudget the number of bytes which may be used by all binaries in process together
+     */
+    public CyfaceBatchProcessor(final ProcessorFactory factory, final long byteBudget) {
+        this(factory, Runtime.getRuntime().availableProcessors(), byteBudget);
+    }
+
+    /**
+     * Processes all provided binaries and waits until the result of each one was reported.
+     *
+     * @param sources the binaries to process
+     * @param task reads the sensor data of each binary
+     * @param callback receives the result of each binary, or a {@link RejectedExecutionException} for each binary
+     *            which could not be submitted, e.g. because the batch processor was closed
+     * @throws InterruptedException if the calling thread is interrupted while waiting, in which case binaries still
+     *             in process are reported nevertheless
+     */
+    public <R> void process(final Collection<? extends Source> sources, final Task<R> task,
+            final Callback<R> callback) throws InterruptedException {
+        Objects.requireNonNull(task, "Task must not be null.");
+        Objects.requireNonNull(callback, "Callback must not be null.");
+        final CountDownLatch finished = new CountDownLatch(sources.size());
+        for (final Source source : sources) {
+            try {
+                workers.execute(() -> {
+                    try {
+                        process(source, task, callback);
+                    } finally {
+                        finished.countDown();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                callback.onFailure(source, e);
+                finished.countDown();
+            }
+        }
+        finished.await();
+    }
+
+    /**
+     * Processes a single binary on a worker, as soon as its estimated size is admitted by the budget.
+     */
+    private <R> void process(final Source source, final Task<R> task, final Callback<R> callback) {
+        long admitted = 0L;
+        try {
+            admitted = budget.acquire(estimateSize(source));
+            R result = process(source, task);
+            callback.onResult(source, result);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            callback.onFailure(source, e);
+        } catch (CyfaceCompressedDataProcessorException | IOException | RuntimeException e) {
+            callback.onFailure(source, e);
+        } finally {
+            budget.release(admitted);
+        }
+    }
+
+    private <R> R process(final Source source, final Task<R> task)
+            throws CyfaceCompressedDataProcessorException, IOException {
+        try (CyfaceDataProcessor processor = factory.create(source.open(), source.isCompressed())) {
+            processor.uncompressAndPrepare();
+            return task.process(processor);
+        }
+    }
+
+    /**
+     *
+     * @param source a binary to process
+     * @return the number of bytes the binary is expected to occupy in process
+     * @throws CyfaceCompressedDataProcessorException if the header of the binary could not be read
+     * @throws IOException
+     */
+    static long estimateSize(final Source source) throws CyfaceCompressedDataProcessorException, IOException {
+        try (InputStream input = source.open()) {
+            return Math.max(0L, source.getSize())
+                    + CyfaceBinaryHeader.read(input, source.isCompressed()).getBinarySize();
+        }
+    }
+
+    /**
+     * Stops the worker threads after all binaries in process were reported.
+     */
+    @Override
+    public void close() {
+        workers.shutdown();
+    }
+
+    /**
+     * A number of bytes shared by concurrent consumers.
+     */
+    static final class ByteBudget {
+
+        private final long capacity;
+        private long available;
+
+        ByteBudget(final long capacity) {
+            this.capacity = capacity;
+            this.available = capacity;
+        }
+
+        /**
+         * Waits until the requested number of bytes is available and reserves them. Requests larger than the whole
+         * budget wait for the whole budget instead.
+         *
+         * @param bytes the number of bytes to reserve
+         * @return the number of bytes reserved, which must be released later
+         * @throws InterruptedException if the thread is interrupted while waiting
+         */
+        synchronized long acquire(final long bytes) throws InterruptedException {
+            final long reserved = Math.min(bytes, capacity);
+            while (available < reserved) {
+                wait();
+            }
+            available -= reserved;
+            return reserved;
+        }
+
+        synchronized void release(final long bytes) {
+            available += bytes;
+            notifyAll();
+        }
+
+        synchronized long getAvailable() {
+            return available;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package de.cyface.dataprocessor;
+
+import java.nio.ByteBuffer;
+
+import de.cyface.data.ByteSizes;
+import de.cyface.data.LocationPoint;
+import de.cyface.data.Point3D;
+import de.cyface.data.Point3D.TypePoint3D;
+
+/**
+ * Decodes single entries of the Cyface binary format directly from a {@link ByteBuffer}. All values are read with
+ * absolute offsets, so neither the position of the buffer is changed nor any intermediate arrays are created. The
+ * buffer must use big endian byte order, which is the default for every {@link ByteBuffer}.
+ *
+ * @author Philipp Grubitzsch
+ * @since 0.3.0
+ *
+ */
+public final class CyfaceBinaryDecoder {
+
+    private static final int LATITUDE_OFFSET = ByteSizes.LONG_BYTES;
+    private static final int LONGITUDE_OFFSET = LATITUDE_OFFSET + ByteSizes.DOUBLE_BYTES;
+    private static final int SPEED_OFFSET = LONGITUDE_OFFSET + ByteSizes.DOUBLE_BYTES;
+    private static final int ACCURACY_OFFSET = SPEED_OFFSET + ByteSizes.DOUBLE_BYTES;
+
+    private static final int X_OFFSET = ByteSizes.LONG_BYTES;
+    private static final int Y_OFFSET = X_OFFSET + ByteSizes.DOUBLE_BYTES;
+    private static final int Z_OFFSET = Y_OFFSET + ByteSizes.DOUBLE_BYTES;
+
+    private CyfaceBinaryDecoder() {
+        // static helpers only
+    }
+
+    /**
+     * Deserializes a single geo location entry.
+     *
+     * @param buffer the buffer to read the entry from
+     * @param offset the absolute offset of the entry in the buffer
+     * @return the deserialized geo location
+     */
+    public static LocationPoint decodeGeoLocation(final ByteBuffer buffer, final int offset) {
+        return new LocationPoint(accuracy(buffer, offset), longitude(buffer, offset), latitude(buffer, offset),
+                speed(buffer, offset), timestamp(buffer, offset));
+    }
+
+    /**
+     * Deserializes a single 3D sample point entry (i.e. acceleration, rotation or direction).
+     *
+     * @param buffer the buffer to read the entry from
+     * @param offset the absolute offset of the entry in the buffer
+     * @param type the sensor type from which the sample point was recorded
+     * @return the deserialized sample point
+     */
+    public static Point3D decodePoint3D(final ByteBuffer buffer, final int offset, final TypePoint3D type) {
+        return new Point3D(type, x(buffer, offset), y(buffer, offset), z(buffer, offset), timestamp(buffer, offset));
+    }
+
+    /**
+     * Deserializes consecutive geo location entries column by column into the provided arrays.
+     *
+     * @param buffer the buffer to read the entries from
+     * @param bufferOffset the absolute offset of the first entry in the buffer
+     * @param offset the index of the arrays to write the first geo location to
+     * @param count the number of entries to deserialize
+     */
+    static void decodeGeoLocations(final ByteBuffer buffer, final int bufferOffset, final long[] timestamps,
+            final double[] latitudes, final double[] longitudes, final double[] speeds, final int[] accuracies,
+            final int offset, final int count) {
+        int entryOffset = bufferOffset;
+        for (int i = offset; i < offset + count; i++, entryOffset += ByteSizes.BYTES_IN_ONE_GEO_LOCATION_ENTRY) {
+            timestamps[i] = timestamp(buffer, entryOffset);
+            latitudes[i] = latitude(buffer, entryOffset);
+            longitudes[i] = longitude(buffer, entryOffset);
+            speeds[i] = speed(buffer, entryOffset);
+            accuracies[i] = accuracy(buffer, entryOffset);
+        }
+    }
+
+    /**
+     * Deserializes consecutive 3D sample point entries column by column into the provided arrays.
+     *
+     * @param buffer the buffer to read the entries from
+     * @param bufferOffset the absolute offset of the first entry in the buffer
+     * @param offset the index of the arrays to write the first point to
+     * @param count the number of entries to deserialize
+     */
+    static void decodePoints3D(final ByteBuffer buffer, final int bufferOffset, final long[] timestamps,
+            final double[] x, final double[] y, final double[] z, final int offset, final int count) {
+        int entryOffset = bufferOffset;
+        for (int i = offset; i < offset + count; i++, entryOffset += ByteSizes.BYTES_IN_ONE_POINT_ENTRY) {
+            timestamps[i] = timestamp(buffer, entryOffset);
+            x[i] = x(buffer, entryOffset);
+            y[i] = y(buffer, entryOffset);
+            z[i] = z(buffer, entryOffset);
+        }
+    }
+
+    /**
+     *
+     * @param buffer the buffer to read from
+     * @param offset the absolute offset of an entry of any section in the buffer
+     * @return the timestamp of the entry, which is the leading value for every section
+     */
+    public static long timestamp(final ByteBuffer buffer, final int offset) {
+        return buffer.getLong(offset);
+    }
+
+    static double latitude(final ByteBuffer buffer, final int offset) {
+        return buffer.getDouble(offset + LATITUDE_OFFSET);
+    }
+
+    static double longitude(final ByteBuffer buffer, final int offset) {
+        return buffer.getDouble(offset + LONGITUDE_OFFSET);
+    }
+
+    static double speed(final ByteBuffer buffer, final int offset) {
+        return buffer.getDouble(offset + SPEED_OFFSET);
+    }
+
+    static int accuracy(final ByteBuffer buffer, final int offset) {
+        return buffer.getInt(offset + ACCURACY_OFFSET);
+    }
+
+    static double x(final ByteBuffer buffer, final int offset) {
+        return buffer.getDouble(offset + X_OFFSET);
+    }
+
+    static double y(final ByteBuffer buffer, final int offset) {
+        return buffer.getDouble(offset + Y_OFFSET);
+    }
+
+    static double z(final ByteBuffer buffer, final int offset) {
+        return buffer.getDouble(offset + Z_OFFSET);
+    }
+}
@@ -1,6 +1,25 @@
 package de.cyface.dataprocessor;
 
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import org.apache.commons.io.IOUtils;
+
+import de.cyface.data.ByteSizes;
+import de.cyface.dataprocessor.AbstractCyfaceDataProcessor.CyfaceCompressedDataProcessorException;
+
 public class CyfaceBinaryHeader {
+    /**
+     * Size of the buffers used by {@link #read(InputStream, boolean)}. The compressed header is contained in the first
+     * few bytes, so there is no need to read ahead any further.
+     */
+    private static final int HEADER_READ_BUFFER_SIZE = 512;
+
     private short formatVersion;
     private int numberOfGeoLocations;
     private int numberOfAccelerations;
@@ -84,6 +103,114 @@ public class CyfaceBinaryHeader {
 
     int beginOfDirectionsIndex;
 
+    /**
+     *
+     * @param section a sensor data section of the binary
+     * @return the number of entries in the given section
+     */
+    public int getNumberOfEntries(final CyfaceBinarySection section) {
+        switch (section) {
+            case LOCATIONS:
+                return getNumberOfGeoLocations();
+            case ACCELERATIONS:
+                return getNumberOfAccelerations();
+            case ROTATIONS:
+                return getNumberOfRotations();
+            case DIRECTIONS:
+                return getNumberOfDirections();
+            default:
+                throw new IllegalArgumentException("Unknown section: " + section);
+        }
+    }
+
+    /**
+     *
+     * @param section a sensor data section of the binary
+     * @return the byte offset of the given section in the uncompressed binary
+     */
+    public int getBeginIndex(final CyfaceBinarySection section) {
+        switch (section) {
+            case LOCATIONS:
+                return getBeginOfGeoLocationsIndex();
+            case ACCELERATIONS:
+                return getBeginOfAccelerationsIndex();
+            case ROTATIONS:
+                return getBeginOfRotationsIndex();
+            case DIRECTIONS:
+                return getBeginOfDirectionsIndex();
+            default:
+                throw new IllegalArgumentException("Unknown section: " + section);
+        }
+    }
+
+    /**
+     *
+     * @return the size of the uncompressed binary in bytes, as announced by this header
+     */
+    public long getBinarySize() {
+        long size = ByteSizes.BYTES_IN_HEADER;
+        for (CyfaceBinarySection section : CyfaceBinarySection.values()) {
+            size += (long)getNumberOfEntries(section) * section.getEntrySize();
+        }
+        return size;
+    }
+
+    /**
+     * Deserializes the header from the first {@link ByteSizes#BYTES_IN_HEADER} bytes of an uncompressed Cyface binary
+     * and calculates the begin of each sensor data section.
+     *
+     * @param bytes the leading bytes of an uncompressed Cyface binary
+     * @return the deserialized header
+     */
+    public static CyfaceBinaryHeader deserialize(final byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.BIG_ENDIAN);
+        CyfaceBinaryHeader header = new CyfaceBinaryHeader();
+        header.setFormatVersion(buffer.getShort(0));
+        header.setNumberOfGeoLocations(buffer.getInt(2));
+        header.setNumberOfAccelerations(buffer.getInt(6));
+        header.setNumberOfRotations(buffer.getInt(10));
+        header.setNumberOfDirections(buffer.getInt(14));
+        header.setBeginOfGeoLocationsIndex(ByteSizes.BYTES_IN_HEADER);
+        header.setBeginOfAccelerationsIndex(header.getBeginOfGeoLocationsIndex()
+                + header.getNumberOfGeoLocations() * ByteSizes.BYTES_IN_ONE_GEO_LOCATION_ENTRY);
+        header.setBeginOfRotationsIndex(header.getBeginOfAccelerationsIndex()
+                + header.getNumberOfAccelerations() * ByteSizes.BYTES_IN_ONE_POINT_ENTRY);
+        header.setBeginOfDirectionsIndex(
+                header.getBeginOfRotationsIndex() + header.getNumberOfRotations() * ByteSizes.BYTES_IN_ONE_POINT_ENTRY);
+        return header;
+    }
+
+    /**
+     * Reads the header of a Cyface binary without uncompressing the sensor data. Compressed binaries are inflated
+     * only until the header is complete, following the same format fallbacks as
+     * {@link AbstractCyfaceDataProcessor#uncompress()}. Thus, this is cheap enough to check the number of entries of
+     * each upload before it is processed.
+     *
+     * @param input the binary, which is neither consumed completely nor closed
+     * @param compressed flag to tell if the binary is compressed
+     * @return the header of the binary
+     * @throws CyfaceCompressedDataProcessorException if the binary is corrupt or too short for a header
+     * @throws IOException if reading the input fails
+     */
+    public static CyfaceBinaryHeader read(final InputStream input, final boolean compressed)
+            throws CyfaceCompressedDataProcessorException, IOException {
+        final BufferedInputStream binary = new BufferedInputStream(input, HEADER_READ_BUFFER_SIZE);
+        final CompressionFormat format = compressed ? CompressionFormat.probe(binary) : CompressionFormat.UNCOMPRESSED;
+        final Inflater inflater = format.acquireInflater();
+        try {
+            // not closing the inflater stream, since this would close the input as well
+            final InputStream uncompressed = inflater == null ? binary
+                    : new InflaterInputStream(binary, inflater, HEADER_READ_BUFFER_SIZE);
+            final byte[] bytes = new byte[ByteSizes.BYTES_IN_HEADER];
+            if (IOUtils.read(uncompressed, bytes) < bytes.length) {
+                throw new CyfaceCompressedDataProcessorException("Binary is too short to contain a header.");
+            }
+            return deserialize(bytes);
+        } finally {
+            format.releaseInflater(inflater);
+        }
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
@@ -0,0 +1,63 @@
+package de.cyface.dataprocessor;
+
+import de.cyface.data.ByteSizes;
+import de.cyface.data.Point3D.TypePoint3D;
+
+/**
+ * The sensor data sections of a Cyface binary in the order they follow the header. Each section consists of a number
+ * of fixed size entries, given by the {@link CyfaceBinaryHeader}.
+ *
+ * @author Philipp Grubitzsch
+ * @since 0.3.0
+ *
+ */
+public enum CyfaceBinarySection {
+
+    LOCATIONS(ByteSizes.BYTES_IN_ONE_GEO_LOCATION_ENTRY, null),
+    ACCELERATIONS(ByteSizes.BYTES_IN_ONE_POINT_ENTRY, TypePoint3D.ACC),
+    ROTATIONS(ByteSizes.BYTES_IN_ONE_POINT_ENTRY, TypePoint3D.ROT),
+    DIRECTIONS(ByteSizes.BYTES_IN_ONE_POINT_ENTRY, TypePoint3D.DIR);
+
+    private final int entrySize;
+    private final TypePoint3D pointType;
+
+    private CyfaceBinarySection(final int entrySize, final TypePoint3D pointType) {
+        this.entrySize = entrySize;
+        this.pointType = pointType;
+    }
+
+    /**
+     *
+     * @return the number of bytes of one entry in this section
+     */
+    public int getEntrySize() {
+        return entrySize;
+    }
+
+    /**
+     *
+     * @return the type of the {@link de.cyface.data.Point3D} entries in this section or <code>null</code> for the
+     *         location section
+     */
+    public TypePoint3D getPointType() {
+        return pointType;
+    }
+
+    /**
+     *
+     * @param type a sensor type of 3D points
+     * @return the section containing the points of the given sensor type
+     */
+    public static CyfaceBinarySection of(final TypePoint3D type) {
+        switch (type) {
+            case ACC:
+                return ACCELERATIONS;
+            case ROT:
+                return ROTATIONS;
+            case DIR:
+                return DIRECTIONS;
+            default:
+                throw new IllegalArgumentException("Unknown point type: " + type);
+        }
+    }
+}
@@ -2,9 +2,13 @@ package de.cyface.dataprocessor;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.stream.Stream;
 
 import de.cyface.data.LocationPoint;
+import de.cyface.data.LocationSeries;
 import de.cyface.data.Point3D;
+import de.cyface.data.Point3DSeries;
+import de.cyface.data.SensorDataSlice;
 import de.cyface.dataprocessor.AbstractCyfaceDataProcessor.CyfaceCompressedDataProcessorException;
 
 /**
@@ -90,6 +94,310 @@ public interface CyfaceDataProcessor extends Closeable {
      */
     public Point3D pollNextDirectionPoint() throws CyfaceCompressedDataProcessorException, IOException;
 
+    /**
+     * Polls the next available geo locations from binary temp file straight into the provided arrays, starting at
+     * index 0. The same value at the same index in each array belongs to the same geo location. Polling continues where
+     * the last poll of geo locations stopped.
+     *
+     * @param timestamps the array to fill with the timestamps of the geo locations
+     * @param latitudes the array to fill with the latitudes of the geo locations
+     * @param longitudes the array to fill with the longitudes of the geo locations
+     * @param speeds the array to fill with the speeds of the geo locations
+     * @param accuracies the array to fill with the accuracies of the geo locations
+     * @param max the maximum number of geo locations to poll, which must not exceed the length of any array
+     * @return the number of polled geo locations or 0, if all entries have been already read.
+     * @throws CyfaceCompressedDataProcessorException
+     * @throws IOException
+     */
+    public int pollNextLocations(long[] timestamps, double[] latitudes, double[] longitudes, double[] speeds,
+            int[] accuracies, int max) throws CyfaceCompressedDataProcessorException, IOException;
+
+    /**
+     * Polls the next available acceleration points from binary temp file straight into the provided arrays, starting
+     * at index 0. The same value at the same index in each array belongs to the same point. Polling continues where
+     * the last poll of acceleration points stopped.
+     *
+     * @param timestamps the array to fill with the timestamps of the points
+     * @param x the array to fill with the x values of the points
+     * @param y the array to fill with the y values of the points
+     * @param z the array to fill with the z values of the points
+     * @param max the maximum number of points to poll, which must not exceed the length of any array
+     * @return the number of polled points or 0, if all entries have been already read.
+     * @throws CyfaceCompressedDataProcessorException
+     * @throws IOException
+     */
+    public int pollNextAccelerations(long[] timestamps, double[] x, double[] y, double[] z, int max)
+            throws CyfaceCompressedDataProcessorException, IOException;
+
+    /**
+     * Polls the next available rotation points from binary temp file straight into the provided arrays, as described
+     * for {@link #pollNextAccelerations(long[], double[], double[], double[], int)}.
+     *
+     * @param timestamps the array to fill with the timestamps of the points
+     * @param x the array to fill with the x values of the points
+     * @param y the array to fill with the y values of the points
+     * @param z the array to fill with the z values of the points
+     * @param max the maximum number of points to poll, which must not exceed the length of any array
+     * @return the number of polled points or 0, if all entries have been already read.
+     * @throws CyfaceCompressedDataProcessorException
+     * @throws IOException
+     */
+    public int pollNextRotations(long[] timestamps, double[] x, double[] y, double[] z, int max)
+            throws CyfaceCompressedDataProcessorException, IOException;
+
+    /**
+     * Polls the next available direction points from binary temp file straight into the provided arrays, as described
+     * for {@link #pollNextAccelerations(long[], double[], double[], double[], int)}.
+     *
+     * @param timestamps the array to fill with the timestamps of the points
+     * @param x the array to fill with the x values of the points
+     * @param y the array to fill with the y values of the points
+     * @param z the array to fill with the z values of the points
+     * @param max the maximum number of points to poll, which must not exceed the length of any array
+     * @return the number of polled points or 0, if all entries have been already read.
+     * @throws CyfaceCompressedDataProcessorException
+     * @throws IOException
+     */
+    public int pollNextDirections(long[] timestamps, double[] x, double[] y, double[] z, int max)
+            throws CyfaceCompressedDataProcessorException, IOException;
+
+    /**
+     * Polls all geo locations which have not been polled yet in a single pass.
+     *
+     * @return a columnar series of the polled geo locations, which is empty, if all entries have been already read.
+     * @throws CyfaceCompressedDataProcessorException
+     * @throws IOException
+     */
+    public LocationSeries pollLocationSeries() throws CyfaceCompressedDataProcessorException, IOException;
+
+    /**
+     * Polls all acceleration points which have not been polled yet in a single pass.
+     *
+     * @return a columnar series of the polled points, which is empty, if all entries have been already read.
+     * @throws CyfaceCompressedDataProcessorException
+     * @throws IOException
+     */
+    public Point3DSeries pollAccelerationSeries() throws CyfaceCompressedDataProcessorException, IOException;
+
+    /**
+     * Polls all rotation points which have not been polled yet in a single pass.
+     *
+     * @return a columnar series of the polled points, which is empty, if all entries have been already read.
+     * @throws CyfaceCompressedDataProcessorException
+     * @throws IOException
+     */
+    public Point3DSeries pollRotationSeries() throws CyfaceCompressedDataProcessorException, IOException;
+
+    /**
+     * Polls all direction points which have not been polled yet in a single pass.
+     *
+     * @return a columnar series of the polled points, which is empty, if all entries have been already read.
+     * @throws CyfaceCompressedDataProcessorException
+     * @throws IOException
+     */
+    public Point3DSeries pollDirectionSeries() throws CyfaceCompressedDataProcessorException, IOException;
+
+    /**
+     * Creates a cursor over all geo locations which have not been polled yet. The cursor decodes the values straight
+     * from the uncompressed binary and creates no object per geo location. All remaining geo locations are handed over
+     * to the cursor, so geo locations must not be polled while the cursor is in use.
+     *
+     * @return the cursor
+     * @throws CyfaceCompressedDataProcessorException
+     * @throws IOException
+     */
+    public LocationCursor locationCursor() throws CyfaceCompressedDataProcessorException, IOException;
+
+    /**
+     * Creates a cursor over all acceleration points which have not been polled yet, as described for
+     * {@link #locationCursor()}.
+     *
+     * @return the cursor
+     * @throws CyfaceCompressedDataProcessorException
+     * @throws IOException
+     */
+    public Point3DCursor accelerationCursor() throws CyfaceCompressedDataProcessorException, IOException;
+
+    /**
+     * Creates a cursor over all rotation points which have not been polled yet, as described for
+     * {@link #locationCursor()}.
+     *
+     * @return the cursor
+     * @throws CyfaceCompressedDataProcessorException
+     * @throws IOException
+     */
+    public Point3DCursor rotationCursor() throws CyfaceCompressedDataProcessorException, IOException;
+
+    /**
+     * Creates a cursor over all direction points which have not been polled yet, as described for
+     * {@link #locationCursor()}.
+     *
+     * @return the cursor
+     * @throws CyfaceCompressedDataProcessorException
+     * @throws IOException
+     */
+    public Point3DCursor directionCursor() throws CyfaceCompressedDataProcessorException, IOException;
+
+    /**
+     * Creates a cursor over all entries of all sensors which have not been polled yet, in the order of their
+     * timestamps. The cursor merges the cursors of all sections, as described for {@link #locationCursor()}, and
+     * creates no object per entry. No sensor must be polled while the cursor is in use.
+     *
+     * @return the cursor
+     * @throws CyfaceCompressedDataProcessorException
+     * @throws IOException
+     */
+    public MergedCursor mergedCursor() throws CyfaceCompressedDataProcessorException, IOException;
+
+    /**
+     * Reads a single geo location by its index within the geo locations of the binary. The position of the entry is
+     * calculated from the header, so no preceding entry is read. Polling is not affected. Requires isUncompressed()
+     * true.
+     *
+     * @param index the index of the geo location, starting at 0
+     * @return the geo location
+     * @throws IndexOutOfBoundsException if the binary contains no geo location with this index
+     * @throws CyfaceCompressedDataProcessorException
+     * @throws IOException
+     */
+    public LocationPoint getLocationAt(long index) throws CyfaceCompressedDataProcessorException, IOException;
+
+    /**
+     * Reads a single acceleration point by its index, as described for {@link #getLocationAt(long)}.
+     *
+     * @param index the index of the acceleration point, starting at 0
+     * @return the acceleration point
+     * @throws IndexOutOfBoundsException if the binary contains no acceleration point with this index
+     * @throws CyfaceCompressedDataProcessorException
+     * @throws IOException
+     */
+    public Point3D getAccelerationAt(long index) throws CyfaceCompressedDataProcessorException, IOException;
+
+    /**
+     * Reads a single rotation point by its index, as described for {@link #getLocationAt(long)}.
+     *
+     * @param index the index of the rotation point, starting at 0
+     * @return the rotation point
+     * @throws IndexOutOfBoundsException if the binary contains no rotation point with this index
+     * @throws CyfaceCompressedDataProcessorException
+     * @throws IOException
+     */
+    public Point3D getRotationAt(long index) throws CyfaceCompressedDataProcessorException, IOException;
+
+    /**
+     * Reads a single direction point by its index, as described for {@link #getLocationAt(long)}.
+     *
+     * @param index the index of the direction point, starting at 0
+     * @return the direction point
+     * @throws IndexOutOfBoundsException if the binary contains no direction point with this index
+     * @throws CyfaceCompressedDataProcessorException
+     * @throws IOException
+     */
+    public Point3D getDirectionAt(long index) throws CyfaceCompressedDataProcessorException, IOException;
+
+    /**
+     * Reads a range of geo locations by their indices, as described for {@link #getLocationAt(long)}.
+     *
+     * @param from the index of the first geo location to read, inclusive
+     * @param to the index after the last geo location to read, exclusive
+     * @return a columnar series of the geo locations
+     * @throws IndexOutOfBoundsException if the range exceeds the geo locations of the binary
+     * @throws CyfaceCompressedDataProcessorException
+     * @throws IOException
+     */
+    public LocationSeries readLocations(long from, long to) throws CyfaceCompressedDataProcessorException, IOException;
+
+    /**
+     * Reads a range of acceleration points by their indices, as described for {@link #getLocationAt(long)}.
+     *
+     * @param from the index of the first point to read, inclusive
+     * @param to the index after the last point to read, exclusive
+     * @return a columnar series of the points
+     * @throws IndexOutOfBoundsException if the range exceeds the acceleration points of the binary
+     * @throws CyfaceCompressedDataProcessorException
+     * @throws IOException
+     */
+    public Point3DSeries readAccelerations(long from, long to)
+            throws CyfaceCompressedDataProcessorException, IOException;
+
+    /**
+     * Reads a range of rotation points by their indices, as described for {@link #getLocationAt(long)}.
+     *
+     * @param from the index of the first point to read, inclusive
+     * @param to the index after the last point to read, exclusive
+     * @return a columnar series of the points
+     * @throws IndexOutOfBoundsException if the range exceeds the rotation points of the binary
+     * @throws CyfaceCompressedDataProcessorException
+     * @throws IOException
+     */
+    public Point3DSeries readRotations(long from, long to) throws CyfaceCompressedDataProcessorException, IOException;
+
+    /**
+     * Reads a range of direction points by their indices, as described for {@link #getLocationAt(long)}.
+     *
+     * @param from the index of the first point to read, inclusive
+     * @param to the index after the last point to read, exclusive
+     * @return a columnar series of the points
+     * @throws IndexOutOfBoundsException if the range exceeds the direction points of the binary
+     * @throws CyfaceCompressedDataProcessorException
+     * @throws IOException
+     */
+    public Point3DSeries readDirections(long from, long to) throws CyfaceCompressedDataProcessorException, IOException;
+
+    /**
+     * Reads the sensor data of all sensors recorded within a time window. As the entries of each section are ordered by
+     * their timestamp, the boundaries of the window are found by a binary search and no entry outside the window is
+     * decoded. Polling is not affected. Requires isUncompressed() true.
+     *
+     * @param fromMillis the beginning of the time window in milliseconds, inclusive
+     * @param toMillis the end of the time window in milliseconds, exclusive
+     * @return the sensor data within the time window
+     * @throws CyfaceCompressedDataProcessorException
+     * @throws IOException
+     */
+    public SensorDataSlice sliceByTime(long fromMillis, long toMillis)
+            throws CyfaceCompressedDataProcessorException, IOException;
+
+    /**
+     * Creates a stream of all geo locations of the binary. The stream is backed by a spliterator which knows the
+     * number of geo locations from the header and splits them by index ranges, so a parallel stream reads the geo
+     * locations on all cores. Like the random access, the stream reads independently of the polls. Requires
+     * isUncompressed() true. If reading the binary fails while the stream is consumed, an
+     * {@link java.io.UncheckedIOException} is thrown.
+     *
+     * @return a sequential stream of the geo locations in file order
+     * @throws CyfaceCompressedDataProcessorException
+     * @throws IOException
+     */
+    public Stream<LocationPoint> locations() throws CyfaceCompressedDataProcessorException, IOException;
+
+    /**
+     * Creates a stream of all acceleration points of the binary, as described for {@link #locations()}.
+     *
+     * @return a sequential stream of the points in file order
+     * @throws CyfaceCompressedDataProcessorException
+     * @throws IOException
+     */
+    public Stream<Point3D> accelerations() throws CyfaceCompressedDataProcessorException, IOException;
+
+    /**
+     * Creates a stream of all rotation points of the binary, as described for {@link #locations()}.
+     *
+     * @return a sequential stream of the points in file order
+     * @throws CyfaceCompressedDataProcessorException
+     * @throws IOException
+     */
+    public Stream<Point3D> rotations() throws CyfaceCompressedDataProcessorException, IOException;
+
+    /**
+     * Creates a stream of all direction points of the binary, as described for {@link #locations()}.
+     *
+     * @return a sequential stream of the points in file order
+     * @throws CyfaceCompressedDataProcessorException
+     * @throws IOException
+     */
+    public Stream<Point3D> directions() throws CyfaceCompressedDataProcessorException, IOException;
+
     /**
      * Get the Header. Requires isUncompressed() true.
      * 
@@ -0,0 +1,44 @@
+package de.cyface.dataprocessor;
+
+import de.cyface.data.LocationPoint;
+import de.cyface.data.Point3D;
+
+/**
+ * Receives the content of a Cyface binary in file order from a {@link CyfaceStreamingDataProcessor}. That is the
+ * header first, followed by all geo locations, accelerations, rotations and directions. All methods do nothing by
+ * default, so implementations only need to override the callbacks for the data they are interested in.
+ *
+ * @author Philipp Grubitzsch
+ * @since 0.3.0
+ *
+ */
+public interface CyfaceDataSink {
+
+    /**
+     * Called once before any sensor data is reported.
+     *
+     * @param header the header of the processed binary
+     */
+    default void onHeader(final CyfaceBinaryHeader header) {
+        // nothing to do
+    }
+
+    /**
+     * Called for each geo location in the order of the binary.
+     *
+     * @param locationPoint the next geo location
+     */
+    default void onLocationPoint(final LocationPoint locationPoint) {
+        // nothing to do
+    }
+
+    /**
+     * Called for each acceleration, rotation and direction point in the order of the binary. Use
+     * {@link Point3D#getType()} to distinguish the sensors.
+     *
+     * @param point the next 3D point
+     */
+    default void onPoint3D(final Point3D point) {
+        // nothing to do
+    }
+}
@@ -0,0 +1,171 @@
+package de.cyface.dataprocessor;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+
+import org.apache.commons.io.IOUtils;
+
+import de.cyface.data.ByteSizes;
+import de.cyface.data.Point3D.TypePoint3D;
+import de.cyface.dataprocessor.AbstractCyfaceDataProcessor.CyfaceCompressedDataProcessorException;
+
+/**
+ * The CyfaceStreamingDataProcessor decodes a Cyface binary in a single pass. In contrast to the
+ * {@link CyfaceDataProcessor} implementations, neither the compressed input nor the uncompressed binary or any of its
+ * sections are buffered. Instead each point is decoded straight from the inflated stream in file order and reported
+ * to a {@link CyfaceDataSink}. The {@link CyfaceBinaryHeader} tells where each section ends.
+ * <p>
+ * Since the input is read only once, a binary can only be processed a single time. Use a {@link CyfaceDataProcessor}
+ * if you need to access the sensor data in an arbitrary order.
+ *
+ * @author Philipp Grubitzsch
+ * @since 0.3.0
+ *
+ */
+public class CyfaceStreamingDataProcessor implements Closeable {
+
+    static final String ALREADY_PROCESSED_EXCEPTION = "Binary input can only be processed once.";
+    /**
+     * The number of entries read from the inflated stream at once.
+     */
+    static final int ENTRIES_PER_READ = 256;
+    /**
+     * The number of buffers the binary is inflated into ahead of decoding, if pipelined.
+     */
+    static final int PIPELINE_BUFFERS = 4;
+    static final int PIPELINE_BUFFER_SIZE = 64 * 1024;
+
+    private final InputStream binaryInputStream;
+    private final boolean compressed;
+    private final boolean pipelined;
+    private InputStream uncompressedBinaryInputStream;
+    private boolean processed = false;
+
+    /**
+     * Constructor for the Processor
+     *
+     * @param binaryInputStream the binary input either compressed or uncompressed
+     * @param compressed flag to tell the processor if the binary input is compressed
+     */
+    public CyfaceStreamingDataProcessor(final InputStream binaryInputStream, final boolean compressed) {
+        this(binaryInputStream, compressed, false);
+    }
+
+    /**
+     * Constructor for the Processor. A pipelined processor inflates the binary on a separate thread into a ring of
+     * {@value #PIPELINE_BUFFERS} buffers of {@value #PIPELINE_BUFFER_SIZE} bytes, while the points of the buffers
+     * inflated before are decoded and reported to the sink. This overlaps inflating with the work of the sink.
+     *
+     * @param binaryInputStream the binary input either compressed or uncompressed
+     * @param compressed flag to tell the processor if the binary input is compressed
+     * @param pipelined flag to inflate and decode the binary concurrently
+     */
+    public CyfaceStreamingDataProcessor(final InputStream binaryInputStream, final boolean compressed,
+            final boolean pipelined) {
+        Objects.requireNonNull(binaryInputStream, "InputStream must not be null.");
+        this.binaryInputStream = binaryInputStream;
+        this.compressed = compressed;
+        this.pipelined = pipelined;
+    }
+
+    /**
+     * Uncompresses and decodes the binary, reporting the header and each point to the provided sink.
+     *
+     * @param sink the receiver of the decoded data
+     * @return the header of the binary
+     * @throws CyfaceCompressedDataProcessorException if the binary could not be uncompressed or was already
+     *             processed
+     * @throws IOException if reading the input fails or the input ends before all announced points were read
+     */
+    public CyfaceBinaryHeader process(final CyfaceDataSink sink)
+            throws CyfaceCompressedDataProcessorException, IOException {
+        return process(sink, EnumSet.allOf(CyfaceBinarySection.class));
+    }
+
+    /**
+     * Uncompresses and decodes only the requested sections of the binary, reporting the header and each point of
+     * these sections to the provided sink. Inflating stops as soon as the last requested section was decoded, so
+     * consumers of geo locations only, which are the first section, save inflating the much larger sensor sections.
+     * Sections before the last requested one are still inflated but not decoded.
+     *
+     * @param sink the receiver of the decoded data
+     * @param sections the sections to decode
+     * @return the header of the binary
+     * @throws CyfaceCompressedDataProcessorException if the binary could not be uncompressed or was already
+     *             processed
+     * @throws IOException if reading the input fails or the input ends before all requested points were read
+     */
+    public CyfaceBinaryHeader process(final CyfaceDataSink sink, final Set<CyfaceBinarySection> sections)
+            throws CyfaceCompressedDataProcessorException, IOException {
+        Objects.requireNonNull(sink, "Sink must not be null.");
+        Objects.requireNonNull(sections, "Sections must not be null.");
+        if (processed) {
+            throw new CyfaceCompressedDataProcessorException(ALREADY_PROCESSED_EXCEPTION);
+        }
+        processed = true;
+
+        BufferedInputStream input = new BufferedInputStream(binaryInputStream,
+                AbstractCyfaceDataProcessor.DEFAULT_BYTE_BUF_SIZE);
+        CompressionFormat format = compressed ? CompressionFormat.probe(input) : CompressionFormat.UNCOMPRESSED;
+        uncompressedBinaryInputStream = format.open(input, AbstractCyfaceDataProcessor.DEFAULT_BYTE_BUF_SIZE);
+        if (pipelined) {
+            uncompressedBinaryInputStream = new PipelinedInputStream(uncompressedBinaryInputStream, PIPELINE_BUFFERS,
+                    PIPELINE_BUFFER_SIZE);
+        }
+
+        byte[] headerBytes = new byte[ByteSizes.BYTES_IN_HEADER];
+        IOUtils.readFully(uncompressedBinaryInputStream, headerBytes);
+        CyfaceBinaryHeader header = CyfaceBinaryHeader.deserialize(headerBytes);
+        sink.onHeader(header);
+
+        // one chunk is reused for all sections
+        ByteBuffer chunk = ByteBuffer.allocate(ENTRIES_PER_READ * ByteSizes.BYTES_IN_ONE_GEO_LOCATION_ENTRY);
+        int remainingSections = sections.size();
+        for (CyfaceBinarySection section : CyfaceBinarySection.values()) {
+            if (remainingSections == 0) {
+                break;
+            }
+            if (sections.contains(section)) {
+                decodeSection(section, header.getNumberOfEntries(section), chunk, sink);
+                remainingSections--;
+            } else {
+                IOUtils.skipFully(uncompressedBinaryInputStream,
+                        (long)header.getNumberOfEntries(section) * section.getEntrySize());
+            }
+        }
+        return header;
+    }
+
+    private void decodeSection(final CyfaceBinarySection section, final int numberOfEntries, final ByteBuffer chunk,
+            final CyfaceDataSink sink) throws IOException {
+        final int entrySize = section.getEntrySize();
+        final TypePoint3D type = section.getPointType();
+        int remaining = numberOfEntries;
+        while (remaining > 0) {
+            int entries = Math.min(remaining, ENTRIES_PER_READ);
+            IOUtils.readFully(uncompressedBinaryInputStream, chunk.array(), 0, entries * entrySize);
+            for (int offset = 0; offset < entries * entrySize; offset += entrySize) {
+                if (type == null) {
+                    sink.onLocationPoint(CyfaceBinaryDecoder.decodeGeoLocation(chunk, offset));
+                } else {
+                    sink.onPoint3D(CyfaceBinaryDecoder.decodePoint3D(chunk, offset, type));
+                }
+            }
+            remaining -= entries;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (uncompressedBinaryInputStream != null) {
+            uncompressedBinaryInputStream.close();
+        }
+        binaryInputStream.close();
+    }
+}
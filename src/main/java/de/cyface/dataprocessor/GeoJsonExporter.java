@@ -0,0 +1,148 @@
+package de.cyface.dataprocessor;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Exports the geo locations of a binary as GeoJSON. The geo locations are formatted from a cursor straight into a
+ * reusable byte buffer, without creating objects or strings per geo location. Each exporter writes a single GeoJSON
+ * object. Geo locations with coordinates which are not finite are skipped, so the output stays valid JSON.
+ *
+ * <pre>
+ * try (GeoJsonExporter exporter = new GeoJsonExporter(new FileOutputStream("track.geojson"), false)) {
+ *     exporter.writeLineString(proc.locationCursor());
+ * }
+ * </pre>
+ *
+ * @author Philipp Grubitzsch
+ * @since 0.3.0
+ *
+ */
+public final class GeoJsonExporter implements Closeable {
+
+    /**
+     * The default number of fraction digits of the coordinates, which is about 0.1 mm.
+     */
+    public static final int DEFAULT_FRACTION_DIGITS = 9;
+
+    private final AsciiWriter writer;
+
+    /**
+     *
+     * @param output the stream to write to, which is closed with this exporter
+     * @param gzip <code>true</code> to compress the output with gzip
+     * @throws IOException if the gzip header could not be written
+     */
+    public GeoJsonExporter(final OutputStream output, final boolean gzip) throws IOException {
+        this(output, gzip, DEFAULT_FRACTION_DIGITS);
+    }
+
+    /**
+     *
+     * @param output the stream to write to, which is closed with this exporter
+     * @param gzip <code>true</code> to compress the output with gzip
+     * @param fractionDigits the number of fraction digits decimal numbers are rounded to, at most 15. Numbers of
+     *            2^53 / 10^fractionDigits and above are written unrounded.
+     * @throws IOException if the gzip header could not be written
+     */
+    public GeoJsonExporter(final OutputStream output, final boolean gzip, final int fractionDigits)
+            throws IOException {
+        this.writer = new AsciiWriter(output, gzip, fractionDigits);
+    }
+
+    /**
+     *
+     * @param channel the channel to write to, which is closed with this exporter
+     * @param gzip <code>true</code> to compress the output with gzip
+     * @throws IOException if the gzip header could not be written
+     */
+    public GeoJsonExporter(final WritableByteChannel channel, final boolean gzip) throws IOException {
+        this(Channels.newOutputStream(channel), gzip);
+    }
+
+    private static boolean hasFix(final LocationCursor cursor) {
+        return Double.isFinite(cursor.latitude()) && Double.isFinite(cursor.longitude());
+    }
+
+    /**
+     * Writes the remaining geo locations of a cursor as a single feature with a <code>LineString</code> geometry. The
+     * properties <code>from</code> and <code>to</code> contain the first and last timestamp, or <code>null</code> if
+     * there is no geo location.
+     *
+     * @param cursor the geo locations to write
+     * @return the number of coordinates written
+     * @throws IOException if reading or writing fails
+     */
+    public long writeLineString(final LocationCursor cursor) throws IOException {
+        writer.write("{\"type\":\"Feature\",\"geometry\":{\"type\":\"LineString\",\"coordinates\":[");
+        long coordinates = 0;
+        long from = 0;
+        long to = 0;
+        while (cursor.next()) {
+            if (!hasFix(cursor)) {
+                continue;
+            }
+            if (coordinates == 0) {
+                from = cursor.timestamp();
+            } else {
+                writer.write(',');
+            }
+            to = cursor.timestamp();
+            writer.write('[').write(cursor.longitude()).write(',').write(cursor.latitude()).write(']');
+            coordinates++;
+        }
+        writer.write("]},\"properties\":{\"from\":");
+        if (coordinates == 0) {
+            writer.write("null,\"to\":null}}\n");
+        } else {
+            writer.write(from).write(",\"to\":").write(to).write("}}\n");
+        }
+        return coordinates;
+    }
+
+    /**
+     * Writes the remaining geo locations of a cursor as a feature collection with one <code>Point</code> feature per
+     * geo location, which contains the properties <code>timestamp</code>, <code>speed</code> and
+     * <code>accuracy</code>.
+     *
+     * @param cursor the geo locations to write
+     * @return the number of features written
+     * @throws IOException if reading or writing fails
+     */
+    public long writeFeatures(final LocationCursor cursor) throws IOException {
+        writer.write("{\"type\":\"FeatureCollection\",\"features\":[");
+        long features = 0;
+        while (cursor.next()) {
+            if (!hasFix(cursor)) {
+                continue;
+            }
+            if (features > 0) {
+                writer.write(',');
+            }
+            writer.write("{\"type\":\"Feature\",\"geometry\":{\"type\":\"Point\",\"coordinates\":[")
+                    .write(cursor.longitude()).write(',').write(cursor.latitude())
+                    .write("]},\"properties\":{\"timestamp\":").write(cursor.timestamp()).write(",\"speed\":");
+            final double speed = cursor.speed();
+            if (Double.isFinite(speed)) {
+                writer.write(speed);
+            } else {
+                writer.write("null");
+            }
+            writer.write(",\"accuracy\":").write(cursor.accuracy()).write("}}");
+            features++;
+        }
+        writer.write("]}\n");
+        return features;
+    }
+
+    /**
+     * Writes the remaining output and finishes the gzip compression, if enabled.
+     */
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
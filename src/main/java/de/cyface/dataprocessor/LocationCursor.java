@@ -0,0 +1,54 @@
+package de.cyface.dataprocessor;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import de.cyface.data.ByteSizes;
+import de.cyface.data.LocationPoint;
+
+/**
+ * A flyweight cursor over the geo locations of a Cyface binary. In contrast to
+ * {@link CyfaceDataProcessor#pollNextLocationPoint()}, no object is created per geo location.
+ *
+ * @author Philipp Grubitzsch
+ * @since 0.3.0
+ *
+ */
+public final class LocationCursor extends SectionCursor {
+
+    LocationCursor(final ByteBuffer section) {
+        super(section, ByteSizes.BYTES_IN_ONE_GEO_LOCATION_ENTRY);
+    }
+
+    LocationCursor(final ByteBuffer section, final AbstractCyfaceDataProcessor owner) {
+        super(section, ByteSizes.BYTES_IN_ONE_GEO_LOCATION_ENTRY, owner);
+    }
+
+    LocationCursor(final InputStream section) {
+        super(section, ByteSizes.BYTES_IN_ONE_GEO_LOCATION_ENTRY);
+    }
+
+    public double latitude() {
+        return CyfaceBinaryDecoder.latitude(buffer(), offset);
+    }
+
+    public double longitude() {
+        return CyfaceBinaryDecoder.longitude(buffer(), offset);
+    }
+
+    public double speed() {
+        return CyfaceBinaryDecoder.speed(buffer(), offset);
+    }
+
+    public int accuracy() {
+        return CyfaceBinaryDecoder.accuracy(buffer(), offset);
+    }
+
+    /**
+     *
+     * @return a new {@link LocationPoint} with the values of the current geo location
+     */
+    public LocationPoint toLocationPoint() {
+        return CyfaceBinaryDecoder.decodeGeoLocation(buffer(), offset);
+    }
+}
@@ -0,0 +1,261 @@
+package de.cyface.dataprocessor;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import de.cyface.data.LocationSeries;
+import de.cyface.dataprocessor.AbstractCyfaceDataProcessor.CyfaceCompressedDataProcessorException;
+
+/**
+ * A spatial index over the geo locations of a binary. The bounding box of the geo locations is divided into a uniform
+ * grid of cells, which contain {@link #POINTS_PER_CELL} geo locations on average. The indices of the geo locations are
+ * stored ordered by their cell in a single array, so a query only visits the cells overlapping its area instead of all
+ * geo locations.
+ * <p>
+ * The results are indices of the geo locations, in ascending order. As the geo locations are ordered by their
+ * timestamp, {@link #toTimeRanges(int[])} converts the indices to time ranges, which select the matching sensor data of
+ * the other sensors, e.g. by {@link CyfaceDataProcessor#sliceByTime(long, long)}. Geo locations with coordinates which
+ * are not finite are not indexed. Areas crossing the antimeridian are not supported.
+ *
+ * @author Philipp Grubitzsch
+ * @since 0.3.0
+ *
+ */
+public final class LocationIndex {
+
+    /**
+     * The average number of geo locations per cell.
+     */
+    static final int POINTS_PER_CELL = 8;
+    /**
+     * The mean radius of the earth in metres.
+     */
+    static final double EARTH_RADIUS_METRES = 6_371_008.8;
+
+    private final LocationSeries locations;
+    private final double minLatitude;
+    private final double minLongitude;
+    private final double cellSize;
+    private final int rows;
+    private final int columns;
+    /**
+     * The offset of the first entry of each cell in {@link #entries}, followed by the number of entries.
+     */
+    private final int[] cellStart;
+    /**
+     * The indices of the geo locations ordered by their cell.
+     */
+    private final int[] entries;
+
+    /**
+     * Creates an index over all geo locations of an uncompressed binary.
+     *
+     * @param processor the processor of the binary, which is uncompressed
+     * @return the index
+     * @throws CyfaceCompressedDataProcessorException
+     * @throws IOException
+     */
+    public static LocationIndex of(final CyfaceDataProcessor processor)
+            throws CyfaceCompressedDataProcessorException, IOException {
+        return new LocationIndex(processor.readLocations(0, processor.getHeader().getNumberOfGeoLocations()));
+    }
+
+    /**
+     *
+     * @param locations the geo locations to index, ordered by their timestamp
+     */
+    public LocationIndex(final LocationSeries locations) {
+        this.locations = locations;
+        final int size = locations.size();
+
+        double minLat = Double.POSITIVE_INFINITY;
+        double minLon = Double.POSITIVE_INFINITY;
+        double maxLat = Double.NEGATIVE_INFINITY;
+        double maxLon = Double.NEGATIVE_INFINITY;
+        int indexed = 0;
+        for (int i = 0; i < size; i++) {
+            if (isIndexed(i)) {
+                minLat = Math.min(minLat, locations.getLatitude(i));
+                maxLat = Math.max(maxLat, locations.getLatitude(i));
+                minLon = Math.min(minLon, locations.getLongitude(i));
+                maxLon = Math.max(maxLon, locations.getLongitude(i));
+                indexed++;
+            }
+        }
+        if (indexed == 0) {
+            minLat = maxLat = minLon = maxLon = 0.0;
+        }
+
+        final double latitudeSpan = maxLat - minLat;
+        final double longitudeSpan = maxLon - minLon;
+        final int cells = Math.max(1, indexed / POINTS_PER_CELL);
+        double edge = Math.sqrt(latitudeSpan * longitudeSpan / cells);
+        if (!(edge > 0.0)) {
+            // all geo locations on a line or at the same place
+            edge = Math.max(latitudeSpan, longitudeSpan) / cells;
+        }
+        this.cellSize = edge > 0.0 ? edge : 1.0;
+        this.minLatitude = minLat;
+        this.minLongitude = minLon;
+        this.rows = (int)Math.min(cells, latitudeSpan / cellSize) + 1;
+        this.columns = (int)Math.min(cells, longitudeSpan / cellSize) + 1;
+
+        // count the entries of each cell and store them ordered by their cell
+        this.cellStart = new int[rows * columns + 1];
+        final int[] cellOfEntry = new int[size];
+        for (int i = 0; i < size; i++) {
+            if (isIndexed(i)) {
+                cellOfEntry[i] = cell(row(locations.getLatitude(i)), column(locations.getLongitude(i)));
+                cellStart[cellOfEntry[i] + 1]++;
+            }
+        }
+        for (int cell = 0; cell < rows * columns; cell++) {
+            cellStart[cell + 1] += cellStart[cell];
+        }
+        this.entries = new int[indexed];
+        final int[] next = Arrays.copyOf(cellStart, rows * columns);
+        for (int i = 0; i < size; i++) {
+            if (isIndexed(i)) {
+                entries[next[cellOfEntry[i]]++] = i;
+            }
+        }
+    }
+
+    private boolean isIndexed(final int index) {
+        return Double.isFinite(locations.getLatitude(index)) && Double.isFinite(locations.getLongitude(index));
+    }
+
+    private int row(final double latitude) {
+        return clamp((latitude - minLatitude) / cellSize, rows);
+    }
+
+    private int column(final double longitude) {
+        return clamp((longitude - minLongitude) / cellSize, columns);
+    }
+
+    private static int clamp(final double position, final int cells) {
+        if (!(position > 0.0)) {
+            return 0;
+        }
+        return (int)Math.min(cells - 1, position);
+    }
+
+    private int cell(final int row, final int column) {
+        return row * columns + column;
+    }
+
+    /**
+     *
+     * @param minLatitude the southern boundary of the box in degrees, inclusive
+     * @param minLongitude the western boundary of the box in degrees, inclusive
+     * @param maxLatitude the northern boundary of the box in degrees, inclusive
+     * @param maxLongitude the eastern boundary of the box in degrees, inclusive
+     * @return the indices of the geo locations within the box, in ascending order
+     */
+    public int[] withinBoundingBox(final double minLatitude, final double minLongitude, final double maxLatitude,
+            final double maxLongitude) {
+        return query(minLatitude, minLongitude, maxLatitude, maxLongitude, Double.NaN, Double.NaN, 0.0);
+    }
+
+    /**
+     *
+     * @param latitude the latitude of the centre in degrees
+     * @param longitude the longitude of the centre in degrees
+     * @param radiusMetres the maximum great-circle distance from the centre in metres, inclusive
+     * @return the indices of the geo locations within the radius, in ascending order
+     */
+    public int[] withinRadius(final double latitude, final double longitude, final double radiusMetres) {
+        if (radiusMetres < 0.0) {
+            throw new IllegalArgumentException("Radius must not be negative: " + radiusMetres);
+        }
+        final double latitudeDelta = Math.toDegrees(radiusMetres / EARTH_RADIUS_METRES);
+        final double cos = Math.cos(Math.toRadians(latitude));
+        // near the poles, the radius spans all longitudes
+        final double longitudeDelta = cos * 180.0 > latitudeDelta ? latitudeDelta / cos : 360.0;
+        return query(latitude - latitudeDelta, longitude - longitudeDelta, latitude + latitudeDelta,
+                longitude + longitudeDelta, latitude, longitude, radiusMetres);
+    }
+
+    private int[] query(final double minLat, final double minLon, final double maxLat, final double maxLon,
+            final double centreLatitude, final double centreLongitude, final double radiusMetres) {
+        if (entries.length == 0 || !(minLat <= maxLat) || !(minLon <= maxLon)) {
+            return new int[0];
+        }
+        final boolean radius = !Double.isNaN(centreLatitude);
+        int[] result = new int[16];
+        int found = 0;
+        for (int row = row(minLat); row <= row(maxLat); row++) {
+            for (int column = column(minLon); column <= column(maxLon); column++) {
+                final int cell = cell(row, column);
+                for (int entry = cellStart[cell]; entry < cellStart[cell + 1]; entry++) {
+                    final int index = entries[entry];
+                    final double latitude = locations.getLatitude(index);
+                    final double longitude = locations.getLongitude(index);
+                    if (latitude < minLat || latitude > maxLat || longitude < minLon || longitude > maxLon) {
+                        continue;
+                    }
+                    if (radius && distance(centreLatitude, centreLongitude, latitude, longitude) > radiusMetres) {
+                        continue;
+                    }
+                    if (found == result.length) {
+                        result = Arrays.copyOf(result, 2 * found);
+                    }
+                    result[found++] = index;
+                }
+            }
+        }
+        result = Arrays.copyOf(result, found);
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     *
+     * @return the great-circle distance between two geo locations in metres, calculated by the haversine formula
+     */
+    static double distance(final double latitude1, final double longitude1, final double latitude2,
+            final double longitude2) {
+        final double sinLatitude = Math.sin(Math.toRadians(latitude2 - latitude1) / 2.0);
+        final double sinLongitude = Math.sin(Math.toRadians(longitude2 - longitude1) / 2.0);
+        final double a = sinLatitude * sinLatitude + Math.cos(Math.toRadians(latitude1))
+                * Math.cos(Math.toRadians(latitude2)) * sinLongitude * sinLongitude;
+        return 2.0 * EARTH_RADIUS_METRES * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    /**
+     * Converts the indices of geo locations to the time ranges they were recorded in. Each run of consecutive indices
+     * becomes one range, from the timestamp of its first geo location, inclusive, to the timestamp of its last geo
+     * location, exclusive, plus one millisecond.
+     *
+     * @param indices indices of geo locations in ascending order, as returned by the queries
+     * @return the time ranges as pairs <code>{from, to}</code> in milliseconds, in ascending order
+     */
+    public long[][] toTimeRanges(final int[] indices) {
+        int runs = 0;
+        for (int i = 0; i < indices.length; i++) {
+            if (i == 0 || indices[i] != indices[i - 1] + 1) {
+                runs++;
+            }
+        }
+        final long[][] ranges = new long[runs][];
+        int run = 0;
+        for (int begin = 0; begin < indices.length;) {
+            int end = begin;
+            while (end + 1 < indices.length && indices[end + 1] == indices[end] + 1) {
+                end++;
+            }
+            ranges[run++] = new long[] {locations.getTimestamp(indices[begin]),
+                    locations.getTimestamp(indices[end]) + 1};
+            begin = end + 1;
+        }
+        return ranges;
+    }
+
+    /**
+     *
+     * @return the indexed geo locations
+     */
+    public LocationSeries getLocations() {
+        return locations;
+    }
+}
@@ -0,0 +1,177 @@
+package de.cyface.dataprocessor;
+
+import java.io.IOException;
+
+/**
+ * A flyweight cursor over the entries of all sensor data sections of a Cyface binary in timestamp order. As the
+ * entries of each section are already ordered by their timestamp, the sections are merged by a heap of the current
+ * entry of each section. Entries with the same timestamp are visited in the order of the sections in the binary.
+ * <p>
+ * The values of the current entry are read from the cursor of its section, so no object is created per entry:
+ *
+ * <pre>
+ * MergedCursor cursor = proc.mergedCursor();
+ * while (cursor.next()) {
+ *     if (cursor.section() == CyfaceBinarySection.LOCATIONS) {
+ *         process(cursor.location().latitude(), cursor.location().longitude());
+ *     } else {
+ *         process(cursor.point3D().type(), cursor.point3D().x());
+ *     }
+ * }
+ * </pre>
+ *
+ * @author Philipp Grubitzsch
+ * @since 0.3.0
+ *
+ */
+public final class MergedCursor {
+
+    private static final CyfaceBinarySection[] SECTIONS = CyfaceBinarySection.values();
+
+    private final SectionCursor[] cursors;
+    /**
+     * The indices of the sections with unvisited entries, as binary min-heap ordered by the timestamp of their current
+     * entry.
+     */
+    private final int[] heap;
+    private final long[] timestamps;
+    private int size;
+    /**
+     * The index of the section of the current entry or -1, if the cursor does not point to an entry.
+     */
+    private int current = -1;
+    private boolean started = false;
+
+    /**
+     *
+     * @param locations the cursor over the geo locations
+     * @param accelerations the cursor over the acceleration points
+     * @param rotations the cursor over the rotation points
+     * @param directions the cursor over the direction points
+     */
+    MergedCursor(final LocationCursor locations, final Point3DCursor accelerations, final Point3DCursor rotations,
+            final Point3DCursor directions) {
+        // in the order of CyfaceBinarySection
+        this.cursors = new SectionCursor[] {locations, accelerations, rotations, directions};
+        this.heap = new int[cursors.length];
+        this.timestamps = new long[cursors.length];
+    }
+
+    /**
+     * Moves the cursor to the next entry of all sections. This must be called once before the values of the first
+     * entry are accessible.
+     *
+     * @return <code>true</code> if the cursor points to an entry, <code>false</code> if all entries were visited
+     * @throws IOException if reading a section fails
+     */
+    public boolean next() throws IOException {
+        if (!started) {
+            started = true;
+            for (int section = 0; section < cursors.length; section++) {
+                if (cursors[section].next()) {
+                    timestamps[section] = cursors[section].timestamp();
+                    heap[size++] = section;
+                    siftUp(size - 1);
+                }
+            }
+        } else if (current != -1) {
+            // replace the section visited before by its next entry
+            if (cursors[current].next()) {
+                timestamps[current] = cursors[current].timestamp();
+            } else {
+                heap[0] = heap[--size];
+            }
+            siftDown(0);
+        }
+
+        current = size == 0 ? -1 : heap[0];
+        return current != -1;
+    }
+
+    private boolean less(final int a, final int b) {
+        return timestamps[a] < timestamps[b] || (timestamps[a] == timestamps[b] && a < b);
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            final int parent = (index - 1) / 2;
+            if (!less(heap[index], heap[parent])) {
+                return;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            final int left = 2 * index + 1;
+            if (left >= size) {
+                return;
+            }
+            final int right = left + 1;
+            final int child = right < size && less(heap[right], heap[left]) ? right : left;
+            if (!less(heap[child], heap[index])) {
+                return;
+            }
+            swap(index, child);
+            index = child;
+        }
+    }
+
+    private void swap(final int a, final int b) {
+        final int section = heap[a];
+        heap[a] = heap[b];
+        heap[b] = section;
+    }
+
+    /**
+     *
+     * @return the section of the current entry
+     */
+    public CyfaceBinarySection section() {
+        checkCurrent();
+        return SECTIONS[current];
+    }
+
+    /**
+     *
+     * @return the timestamp of the current entry
+     */
+    public long timestamp() {
+        checkCurrent();
+        return timestamps[current];
+    }
+
+    /**
+     *
+     * @return the cursor of the geo locations, which points to the current entry
+     * @throws IllegalStateException if the current entry is no geo location
+     */
+    public LocationCursor location() {
+        checkCurrent();
+        if (current != CyfaceBinarySection.LOCATIONS.ordinal()) {
+            throw new IllegalStateException("Current entry is of " + SECTIONS[current] + ".");
+        }
+        return (LocationCursor)cursors[current];
+    }
+
+    /**
+     *
+     * @return the cursor of the acceleration, rotation or direction points, which points to the current entry
+     * @throws IllegalStateException if the current entry is a geo location
+     */
+    public Point3DCursor point3D() {
+        checkCurrent();
+        if (current == CyfaceBinarySection.LOCATIONS.ordinal()) {
+            throw new IllegalStateException("Current entry is of " + SECTIONS[current] + ".");
+        }
+        return (Point3DCursor)cursors[current];
+    }
+
+    private void checkCurrent() {
+        if (current == -1) {
+            throw new IllegalStateException("Cursor does not point to an entry.");
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package de.cyface.dataprocessor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * An InputStream which reads its source ahead on a producer thread. The producer fills a ring of reusable buffers of a
+ * fixed size, while the consumer reads from the buffers filled before. If all buffers are filled, the producer waits
+ * until the consumer returns one. Thus, an expensive source like an inflater runs concurrently to the processing of the
+ * data already read and the memory used is bounded by the ring.
+ * <p>
+ * Failures of the source are reported to the consumer after all data read before the failure was consumed, and again on
+ * every later read.
+ *
+ * @author Philipp Grubitzsch
+ * @since 0.3.0
+ *
+ */
+final class PipelinedInputStream extends InputStream {
+
+    private static final class Chunk {
+        final byte[] bytes;
+        int length;
+
+        Chunk(final int size) {
+            this.bytes = new byte[size];
+        }
+    }
+
+    /**
+     * Marks the end of the source.
+     */
+    private static final Chunk END = new Chunk(0);
+
+    private final InputStream source;
+    private final BlockingQueue<Chunk> free;
+    private final BlockingQueue<Chunk> filled;
+    private final Thread producer;
+    private volatile IOException failure;
+
+    private Chunk current;
+    private int position;
+    private boolean ended = false;
+
+    /**
+     * Starts reading the source on a new producer thread.
+     *
+     * @param source the stream to read ahead, which is closed with this stream
+     * @param numberOfBuffers the number of buffers in the ring
+     * @param bufferSize the size of each buffer in bytes
+     */
+    PipelinedInputStream(final InputStream source, final int numberOfBuffers, final int bufferSize) {
+        if (numberOfBuffers < 1 || bufferSize < 1) {
+            throw new IllegalArgumentException("Number and size of buffers must be positive.");
+        }
+        this.source = source;
+        this.free = new ArrayBlockingQueue<>(numberOfBuffers);
+        // one more slot, so the end can always be marked without waiting
+        this.filled = new ArrayBlockingQueue<>(numberOfBuffers + 1);
+        for (int i = 0; i < numberOfBuffers; i++) {
+            free.add(new Chunk(bufferSize));
+        }
+        this.producer = new Thread(this::produce, "cyface-pipelined-read");
+        producer.setDaemon(true);
+        producer.start();
+    }
+
+    private void produce() {
+        try {
+            while (true) {
+                final Chunk chunk = free.take();
+                chunk.length = IOUtils.read(source, chunk.bytes);
+                if (chunk.length > 0) {
+                    filled.put(chunk);
+                }
+                if (chunk.length < chunk.bytes.length) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            // closed by the consumer
+            return;
+        } catch (IOException e) {
+            failure = e;
+        } catch (RuntimeException e) {
+            failure = new IOException("Could not read ahead.", e);
+        }
+        filled.add(END);
+    }
+
+    /**
+     *
+     * @return <code>true</code> if the current chunk contains unread data, <code>false</code> at the end of the source
+     * @throws IOException if the source failed
+     */
+    private boolean nextChunk() throws IOException {
+        if (current != null && position < current.length) {
+            return true;
+        }
+        if (ended) {
+            return endOfSource();
+        }
+        if (current != null) {
+            free.add(current);
+            current = null;
+        }
+
+        final Chunk chunk;
+        try {
+            chunk = filled.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for data.");
+        }
+        if (chunk == END) {
+            ended = true;
+            return endOfSource();
+        }
+        current = chunk;
+        position = 0;
+        return true;
+    }
+
+    /**
+     * Reports the end of the source on every read after it, so a failed source is never mistaken for a complete one.
+     *
+     * @return <code>false</code> if the source was read completely
+     * @throws IOException if the source failed
+     */
+    private boolean endOfSource() throws IOException {
+        if (failure != null) {
+            throw failure;
+        }
+        return false;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!nextChunk()) {
+            return -1;
+        }
+        return current.bytes[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!nextChunk()) {
+            return -1;
+        }
+        final int read = Math.min(len, current.length - position);
+        System.arraycopy(current.bytes, position, b, off, read);
+        position += read;
+        return read;
+    }
+
+    @Override
+    public int available() {
+        return current == null ? 0 : current.length - position;
+    }
+
+    /**
+     * Stops the producer thread and closes the source. If the producer is blocked reading the source, this waits until
+     * the read returns.
+     */
+    @Override
+    public void close() throws IOException {
+        producer.interrupt();
+        try {
+            producer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            source.close();
+        }
+    }
+}
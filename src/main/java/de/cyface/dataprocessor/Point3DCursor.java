@@ -0,0 +1,68 @@
+package de.cyface.dataprocessor;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import de.cyface.data.ByteSizes;
+import de.cyface.data.Point3D;
+import de.cyface.data.Point3D.TypePoint3D;
+
+/**
+ * A flyweight cursor over the acceleration, rotation or direction points of a Cyface binary. In contrast to the
+ * poll methods of the {@link CyfaceDataProcessor}, no object is created per point, which keeps loops over huge
+ * sections free of allocations:
+ *
+ * <pre>
+ * Point3DCursor cursor = proc.accelerationCursor();
+ * while (cursor.next()) {
+ *     process(cursor.timestamp(), cursor.x(), cursor.y(), cursor.z());
+ * }
+ * </pre>
+ *
+ * @author Philipp Grubitzsch
+ * @since 0.3.0
+ *
+ */
+public final class Point3DCursor extends SectionCursor {
+
+    private final TypePoint3D type;
+
+    Point3DCursor(final ByteBuffer section, final TypePoint3D type) {
+        super(section, ByteSizes.BYTES_IN_ONE_POINT_ENTRY);
+        this.type = type;
+    }
+
+    Point3DCursor(final ByteBuffer section, final TypePoint3D type, final AbstractCyfaceDataProcessor owner) {
+        super(section, ByteSizes.BYTES_IN_ONE_POINT_ENTRY, owner);
+        this.type = type;
+    }
+
+    Point3DCursor(final InputStream section, final TypePoint3D type) {
+        super(section, ByteSizes.BYTES_IN_ONE_POINT_ENTRY);
+        this.type = type;
+    }
+
+    public TypePoint3D type() {
+        return type;
+    }
+
+    public double x() {
+        return CyfaceBinaryDecoder.x(buffer(), offset);
+    }
+
+    public double y() {
+        return CyfaceBinaryDecoder.y(buffer(), offset);
+    }
+
+    public double z() {
+        return CyfaceBinaryDecoder.z(buffer(), offset);
+    }
+
+    /**
+     *
+     * @return a new {@link Point3D} with the values of the current point
+     */
+    public Point3D toPoint3D() {
+        return CyfaceBinaryDecoder.decodePoint3D(buffer(), offset, type);
+    }
+}
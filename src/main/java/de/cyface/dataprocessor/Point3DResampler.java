@@ -0,0 +1,140 @@
+package de.cyface.dataprocessor;
+
+import java.io.IOException;
+
+/**
+ * Resamples acceleration, rotation or direction points to a fixed rate. The points of a {@link Point3DCursor} are
+ * read in a single pass and interpolated linearly at the timestamps of a fixed grid, which begins at the timestamp of
+ * the first point and ends at the last point. Only the two points around the current grid timestamp are kept, so the
+ * state does not depend on the number of points, and the samples are written into primitive arrays like by
+ * {@link CyfaceDataProcessor#pollNextAccelerations(long[], double[], double[], double[], int)}:
+ *
+ * <pre>
+ * Point3DResampler resampler = new Point3DResampler(proc.accelerationCursor(), 50.0);
+ * int resampled;
+ * while ((resampled = resampler.resample(timestamps, x, y, z, timestamps.length)) > 0) {
+ *     process(timestamps, x, y, z, resampled);
+ * }
+ * </pre>
+ *
+ * The timestamps of the samples are rounded to full milliseconds, while the values are interpolated at the exact grid
+ * timestamp.
+ *
+ * @author Philipp Grubitzsch
+ * @since 0.3.0
+ *
+ */
+public final class Point3DResampler {
+
+    private final Point3DCursor cursor;
+    private final double periodMillis;
+
+    private boolean started = false;
+    private boolean ended = false;
+    private long origin;
+    /**
+     * The index of the next grid timestamp to sample.
+     */
+    private long sample = 0;
+
+    private long previousTimestamp;
+    private double previousX;
+    private double previousY;
+    private double previousZ;
+
+    private long nextTimestamp;
+    private double nextX;
+    private double nextY;
+    private double nextZ;
+
+    /**
+     *
+     * @param cursor the points to resample, which must be ordered by their timestamp
+     * @param rateHz the number of samples per second
+     */
+    public Point3DResampler(final Point3DCursor cursor, final double rateHz) {
+        if (!(rateHz > 0.0) || Double.isInfinite(rateHz)) {
+            throw new IllegalArgumentException("Sample rate must be positive: " + rateHz);
+        }
+        this.cursor = cursor;
+        this.periodMillis = 1000.0 / rateHz;
+    }
+
+    /**
+     * Resamples the next points into the provided arrays.
+     *
+     * @param timestamps the array for the timestamps of the samples
+     * @param x the array for the interpolated x values
+     * @param y the array for the interpolated y values
+     * @param z the array for the interpolated z values
+     * @param max the maximum number of samples to write
+     * @return the number of samples written, which is 0 only if all points were resampled
+     * @throws IOException if reading the points fails
+     */
+    public int resample(final long[] timestamps, final double[] x, final double[] y, final double[] z, final int max)
+            throws IOException {
+        AbstractCyfaceDataProcessor.checkBatchArguments(max, timestamps.length, x.length, y.length, z.length);
+        if (!started) {
+            started = true;
+            if (!advance()) {
+                ended = true;
+            } else {
+                origin = nextTimestamp;
+                shift();
+            }
+        }
+
+        int written = 0;
+        while (written < max && !ended) {
+            final double time = origin + sample * periodMillis;
+            // find the two points around the grid timestamp
+            while (nextTimestamp < time) {
+                shift();
+                if (!advance()) {
+                    ended = true;
+                    break;
+                }
+            }
+            if (ended && previousTimestamp < time) {
+                break;
+            }
+
+            final double weight = nextTimestamp == previousTimestamp ? 1.0
+                    : (time - previousTimestamp) / (nextTimestamp - previousTimestamp);
+            timestamps[written] = Math.round(time);
+            x[written] = previousX + (nextX - previousX) * weight;
+            y[written] = previousY + (nextY - previousY) * weight;
+            z[written] = previousZ + (nextZ - previousZ) * weight;
+            written++;
+            sample++;
+        }
+        return written;
+    }
+
+    /**
+     * Reads the next point of the cursor as next point of the interpolation.
+     *
+     * @return <code>false</code> if all points were read
+     * @throws IOException if reading the points fails
+     */
+    private boolean advance() throws IOException {
+        if (!cursor.next()) {
+            return false;
+        }
+        nextTimestamp = cursor.timestamp();
+        nextX = cursor.x();
+        nextY = cursor.y();
+        nextZ = cursor.z();
+        return true;
+    }
+
+    /**
+     * Makes the next point the previous point of the interpolation.
+     */
+    private void shift() {
+        previousTimestamp = nextTimestamp;
+        previousX = nextX;
+        previousY = nextY;
+        previousZ = nextZ;
+    }
+}
@@ -0,0 +1,82 @@
+package de.cyface.dataprocessor;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Inflater;
+
+/**
+ * Shares inflaters and I/O buffers between all processors of this library. An {@link Inflater} holds native zlib
+ * state, which is only freed by {@link Inflater#end()} or by finalization. Instead of creating a new inflater for each
+ * binary, inflaters are reset and reused. Each pool is bounded, so resources released while a pool is full are
+ * dropped, and inflaters are ended right away in this case.
+ * <p>
+ * A resource must not be used anymore after it was released.
+ *
+ * @author Philipp Grubitzsch
+ * @since 0.3.0
+ *
+ */
+final class ResourcePool {
+
+    /**
+     * The maximum number of idle resources of each kind kept in the pool.
+     */
+    static final int POOL_CAPACITY = 16;
+    /**
+     * The size of the pooled I/O buffers, which is a multiple of the size of geo location and point entries.
+     */
+    static final int BUFFER_SIZE = 288 * 256;
+
+    private static final BlockingQueue<Inflater> NOWRAP_INFLATERS = new ArrayBlockingQueue<>(POOL_CAPACITY);
+    private static final BlockingQueue<Inflater> ZLIB_INFLATERS = new ArrayBlockingQueue<>(POOL_CAPACITY);
+    private static final BlockingQueue<byte[]> BUFFERS = new ArrayBlockingQueue<>(POOL_CAPACITY);
+
+    private ResourcePool() {
+        // static helpers only
+    }
+
+    /**
+     *
+     * @param nowrap <code>true</code> for raw deflate data, <code>false</code> for zlib data
+     * @return an inflater in its initial state, which must be released by the caller
+     */
+    static Inflater acquireInflater(final boolean nowrap) {
+        final Inflater inflater = (nowrap ? NOWRAP_INFLATERS : ZLIB_INFLATERS).poll();
+        return inflater == null ? new Inflater(nowrap) : inflater;
+    }
+
+    /**
+     * Resets an inflater and returns it to the pool or ends it, if the pool is full.
+     *
+     * @param inflater the inflater to release, may be <code>null</code>
+     * @param nowrap the mode the inflater was acquired for
+     */
+    static void releaseInflater(final Inflater inflater, final boolean nowrap) {
+        if (inflater == null) {
+            return;
+        }
+        inflater.reset();
+        if (!(nowrap ? NOWRAP_INFLATERS : ZLIB_INFLATERS).offer(inflater)) {
+            inflater.end();
+        }
+    }
+
+    /**
+     *
+     * @return a buffer of {@link #BUFFER_SIZE} bytes with arbitrary content, which must be released by the caller
+     */
+    static byte[] acquireBuffer() {
+        final byte[] buffer = BUFFERS.poll();
+        return buffer == null ? new byte[BUFFER_SIZE] : buffer;
+    }
+
+    /**
+     *
+     * @param buffer the buffer to return to the pool, may be <code>null</code>
+     */
+    static void releaseBuffer(final byte[] buffer) {
+        if (buffer != null && buffer.length == BUFFER_SIZE) {
+            BUFFERS.offer(buffer);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package de.cyface.dataprocessor;
+
+import java.io.IOException;
+
+import de.cyface.data.LocationPoint;
+import de.cyface.data.RoadSurfaceWindow;
+
+/**
+ * Aggregates the vertical acceleration to road surface metrics per time window. The windows have a fixed length and
+ * begin every <code>step</code> milliseconds, starting at the first acceleration point. Thus, windows are tumbling if
+ * the step equals the length and sliding if the step is shorter. Windows without any acceleration point are skipped.
+ * <p>
+ * The acceleration points and the geo locations are read in a single pass from their cursors. Only the points of the
+ * current window are kept in a ring buffer, which is reused for all windows, so no object is created per point. Each
+ * window is joined to the geo location recorded closest to its middle. The z axis of the device is used as vertical
+ * axis, which requires the device to be mounted accordingly. The metrics are calculated in the unit of the
+ * acceleration points, i.e. m/s^2, and except for the peak-to-peak value from the signal without its mean within the
+ * window, so gravity does not contribute to them.
+ *
+ * <pre>
+ * RoadSurfaceAggregator aggregator = new RoadSurfaceAggregator(proc.accelerationCursor(), proc.locationCursor(),
+ *         1000, 500);
+ * RoadSurfaceWindow window;
+ * while ((window = aggregator.pollNextWindow()) != null) {
+ *     process(window);
+ * }
+ * </pre>
+ *
+ * @author Philipp Grubitzsch
+ * @since 0.3.0
+ *
+ */
+public final class RoadSurfaceAggregator {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final Point3DCursor accelerations;
+    private final LocationCursor locations;
+    private final long length;
+    private final long step;
+
+    private boolean started = false;
+    private long origin;
+    /**
+     * The index of the next window.
+     */
+    private long window = 0;
+
+    // ring buffer of the points of the current window
+    private long[] timestamps = new long[INITIAL_CAPACITY];
+    private double[] values = new double[INITIAL_CAPACITY];
+    private int head = 0;
+    private int size = 0;
+
+    // the first point after the points in the ring buffer
+    private boolean pending = false;
+    private long pendingTimestamp;
+    private double pendingValue;
+
+    // the geo locations around the middle of the last window
+    private LocationPoint before;
+    private LocationPoint after;
+
+    /**
+     *
+     * @param accelerations the acceleration points, which must be ordered by their timestamp
+     * @param locations the geo locations, which must be ordered by their timestamp, or <code>null</code> if the
+     *            windows are not joined to geo locations
+     * @param lengthMillis the length of each window in milliseconds
+     * @param stepMillis the time between the beginning of two windows in milliseconds, which must not exceed the
+     *            length
+     */
+    public RoadSurfaceAggregator(final Point3DCursor accelerations, final LocationCursor locations,
+            final long lengthMillis, final long stepMillis) {
+        if (lengthMillis < 1 || stepMillis < 1 || stepMillis > lengthMillis) {
+            throw new IllegalArgumentException(
+                    "Invalid window length " + lengthMillis + " and step " + stepMillis + ".");
+        }
+        this.accelerations = accelerations;
+        this.locations = locations;
+        this.length = lengthMillis;
+        this.step = stepMillis;
+    }
+
+    /**
+     *
+     * @return the metrics of the next window with at least one acceleration point or <code>null</code>, if there is
+     *         no further window
+     * @throws IOException if reading a cursor fails
+     */
+    public RoadSurfaceWindow pollNextWindow() throws IOException {
+        if (!started) {
+            started = true;
+            readPending();
+            if (!pending) {
+                return null;
+            }
+            origin = pendingTimestamp;
+            if (locations != null && locations.next()) {
+                after = locations.toLocationPoint();
+            }
+        }
+
+        while (true) {
+            final long from = origin + window * step;
+            final long to = from + length;
+            // drop the points before the window and add the points within
+            while (size > 0 && timestamps[head] < from) {
+                head = (head + 1) % timestamps.length;
+                size--;
+            }
+            while (pending && pendingTimestamp < to) {
+                add(pendingTimestamp, pendingValue);
+                readPending();
+            }
+
+            if (size == 0) {
+                if (!pending) {
+                    return null;
+                }
+                // skip the windows without points, which end before the next point
+                window = Math.max(window + 1, (pendingTimestamp - origin - length) / step + 1);
+                continue;
+            }
+            window++;
+            return aggregate(from, to);
+        }
+    }
+
+    private void readPending() throws IOException {
+        pending = accelerations.next();
+        if (pending) {
+            pendingTimestamp = accelerations.timestamp();
+            pendingValue = accelerations.z();
+        }
+    }
+
+    private void add(final long timestamp, final double value) {
+        if (size == timestamps.length) {
+            // unwrap the ring into a buffer of twice the capacity
+            final int capacity = 2 * size;
+            final long[] grownTimestamps = new long[capacity];
+            final double[] grownValues = new double[capacity];
+            for (int i = 0; i < size; i++) {
+                grownTimestamps[i] = timestamps[(head + i) % size];
+                grownValues[i] = values[(head + i) % size];
+            }
+            timestamps = grownTimestamps;
+            values = grownValues;
+            head = 0;
+        }
+        final int index = (head + size) % timestamps.length;
+        timestamps[index] = timestamp;
+        values[index] = value;
+        size++;
+    }
+
+    private RoadSurfaceWindow aggregate(final long from, final long to) throws IOException {
+        double sum = 0.0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < size; i++) {
+            final double value = values[(head + i) % values.length];
+            sum += value;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        final double mean = sum / size;
+        // second pass over the signal without its mean, i.e. without gravity and the mounting offset, which is
+        // numerically stable in contrast to the difference of the sums
+        double sumOfSquares = 0.0;
+        double energy = 0.0;
+        double previousSquare = 0.0;
+        long previousTimestamp = 0L;
+        for (int i = 0; i < size; i++) {
+            final int index = (head + i) % values.length;
+            final double deviation = values[index] - mean;
+            final double square = deviation * deviation;
+            sumOfSquares += square;
+            if (i > 0) {
+                // trapezoidal rule, timestamps in milliseconds
+                energy += (previousSquare + square) / 2 * (timestamps[index] - previousTimestamp) / 1000.0;
+            }
+            previousSquare = square;
+            previousTimestamp = timestamps[index];
+        }
+        final double variance = sumOfSquares / size;
+        return new RoadSurfaceWindow(from, to, size, Math.sqrt(variance), variance, max - min, energy,
+                nearestLocation(from + (to - from) / 2));
+    }
+
+    /**
+     *
+     * @param timestamp the middle of the current window, which never decreases between calls
+     * @return the geo location closest to the timestamp or <code>null</code>, if there is none
+     * @throws IOException if reading the geo locations fails
+     */
+    private LocationPoint nearestLocation(final long timestamp) throws IOException {
+        while (after != null && after.getTimestamp() <= timestamp) {
+            before = after;
+            after = locations.next() ? locations.toLocationPoint() : null;
+        }
+        if (before == null || after == null) {
+            return before == null ? after : before;
+        }
+        return timestamp - before.getTimestamp() <= after.getTimestamp() - timestamp ? before : after;
+    }
+}
@@ -0,0 +1,130 @@
+package de.cyface.dataprocessor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Base for flyweight cursors over the entries of a sensor data section. A cursor reads the values of the current
+ * entry directly from a buffer and creates no object per entry. The buffer either contains the whole section or is
+ * refilled from a stream of the section whenever all entries in the buffer were visited.
+ *
+ * @author Philipp Grubitzsch
+ * @since 0.3.0
+ *
+ */
+abstract class SectionCursor {
+
+    /**
+     * The number of entries read from a stream at once.
+     */
+    static final int ENTRIES_PER_READ = 1024;
+
+    private final ByteBuffer buffer;
+    /**
+     * The processor whose views are read or <code>null</code>, if the buffer stays readable.
+     */
+    private final AbstractCyfaceDataProcessor owner;
+    private final InputStream source;
+    private final int entrySize;
+    /**
+     * The offset of the current entry in the buffer.
+     */
+    int offset;
+    private int limit;
+
+    /**
+     * Creates a cursor over all complete entries between position and limit of a buffer.
+     *
+     * @param section the entries to visit, the position of the buffer is not changed
+     * @param entrySize the number of bytes of one entry
+     */
+    SectionCursor(final ByteBuffer section, final int entrySize) {
+        this(section, entrySize, null);
+    }
+
+    /**
+     * Creates a cursor over all complete entries between position and limit of a view of a processor.
+     *
+     * @param section the entries to visit, the position of the buffer is not changed
+     * @param entrySize the number of bytes of one entry
+     * @param owner the processor the view belongs to, which may release it, or <code>null</code>
+     */
+    SectionCursor(final ByteBuffer section, final int entrySize, final AbstractCyfaceDataProcessor owner) {
+        this.buffer = section;
+        this.owner = owner;
+        this.source = null;
+        this.entrySize = entrySize;
+        this.offset = section.position() - entrySize;
+        this.limit = section.limit() - (section.remaining() % entrySize);
+    }
+
+    /**
+     * Creates a cursor over all entries of a stream, which is read in chunks.
+     *
+     * @param source the entries to visit or <code>null</code> if there are none
+     * @param entrySize the number of bytes of one entry
+     */
+    SectionCursor(final InputStream source, final int entrySize) {
+        this.buffer = ByteBuffer.allocate(ENTRIES_PER_READ * entrySize);
+        this.owner = null;
+        this.source = source;
+        this.entrySize = entrySize;
+        this.offset = -entrySize;
+        this.limit = 0;
+    }
+
+    /**
+     * Moves the cursor to the next entry. This must be called once before the values of the first entry are
+     * accessible.
+     *
+     * @return <code>true</code> if the cursor points to an entry, <code>false</code> if all entries were visited
+     * @throws IOException if reading the section stream fails
+     */
+    public boolean next() throws IOException {
+        if (owner != null) {
+            owner.checkViewsReadable();
+        }
+        int nextOffset = offset + entrySize;
+        if (nextOffset + entrySize > limit) {
+            if (!refill()) {
+                offset = limit;
+                return false;
+            }
+            nextOffset = 0;
+        }
+        offset = nextOffset;
+        return true;
+    }
+
+    /**
+     *
+     * @return the buffer of the current entry
+     * @throws IllegalStateException if the buffer is a view of a processor, which was closed
+     */
+    final ByteBuffer buffer() {
+        if (owner != null) {
+            owner.checkViewsReadable();
+        }
+        return buffer;
+    }
+
+    private boolean refill() throws IOException {
+        if (source == null) {
+            return false;
+        }
+        int read = IOUtils.read(source, buffer.array(), 0, buffer.capacity());
+        limit = read - (read % entrySize);
+        return limit > 0;
+    }
+
+    /**
+     *
+     * @return the timestamp of the current entry
+     */
+    public long timestamp() {
+        return CyfaceBinaryDecoder.timestamp(buffer(), offset);
+    }
+}
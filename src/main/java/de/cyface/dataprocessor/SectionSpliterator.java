@@ -0,0 +1,134 @@
+package de.cyface.dataprocessor;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+import de.cyface.dataprocessor.AbstractCyfaceDataProcessor.CyfaceCompressedDataProcessorException;
+
+/**
+ * A {@link Spliterator} over a range of entries of a sensor data section. As all entries of a section have the same
+ * size, the range is split by its indices without reading any entry. The entries are read in chunks of
+ * {@link #CHUNK_ENTRIES} through the random access of the processor, so each part of a split range is read
+ * independently.
+ *
+ * @author Philipp Grubitzsch
+ * @since 0.3.0
+ *
+ * @param <T> the type of the decoded entries
+ */
+final class SectionSpliterator<T> implements Spliterator<T> {
+
+    /**
+     * The maximum number of entries read at once.
+     */
+    static final int CHUNK_ENTRIES = 1024;
+
+    /**
+     * Decodes a single entry of the section.
+     *
+     * @param <T> the type of the decoded entries
+     */
+    interface EntryDecoder<T> {
+        T decode(ByteBuffer buffer, int offset);
+    }
+
+    private final AbstractCyfaceDataProcessor processor;
+    private final CyfaceBinarySection section;
+    private final EntryDecoder<T> decoder;
+    private long index;
+    private final long end;
+
+    private ByteBuffer chunk;
+    private long chunkBegin;
+    private long chunkEnd;
+
+    /**
+     *
+     * @param processor the uncompressed processor to read the entries from
+     * @param section the section to read
+     * @param from the index of the first entry to read, inclusive
+     * @param to the index after the last entry to read, exclusive
+     * @param decoder decodes each entry
+     */
+    SectionSpliterator(final AbstractCyfaceDataProcessor processor, final CyfaceBinarySection section,
+            final long from, final long to, final EntryDecoder<T> decoder) {
+        this.processor = processor;
+        this.section = section;
+        this.index = from;
+        this.end = to;
+        this.decoder = decoder;
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super T> action) {
+        if (index >= end) {
+            return false;
+        }
+        if (chunk == null || index >= chunkEnd) {
+            readChunk();
+        }
+        // the chunk may be a view released by closing the processor
+        processor.checkViewsReadable();
+        action.accept(decoder.decode(chunk, (int)(index - chunkBegin) * section.getEntrySize()));
+        index++;
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(final Consumer<? super T> action) {
+        while (index < end) {
+            if (chunk == null || index >= chunkEnd) {
+                readChunk();
+            }
+            final int entrySize = section.getEntrySize();
+            for (int offset = (int)(index - chunkBegin) * entrySize; index < chunkEnd; index++, offset += entrySize) {
+                processor.checkViewsReadable();
+                action.accept(decoder.decode(chunk, offset));
+            }
+        }
+    }
+
+    private void readChunk() {
+        chunkBegin = index;
+        chunkEnd = Math.min(end, index + CHUNK_ENTRIES);
+        try {
+            chunk = processor.readSectionRange(section, chunkBegin, chunkEnd);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read entries " + chunkBegin + " to " + chunkEnd + " of "
+                    + section + ".", e);
+        } catch (CyfaceCompressedDataProcessorException e) {
+            // the stream was created from an uncompressed binary
+            throw new IllegalStateException("Could not read entries " + chunkBegin + " to " + chunkEnd + " of "
+                    + section + ".", e);
+        }
+    }
+
+    /**
+     * Hands the first half of the remaining entries over to a new spliterator.
+     */
+    @Override
+    public Spliterator<T> trySplit() {
+        final long remaining = end - index;
+        if (remaining < 2 * CHUNK_ENTRIES) {
+            return null;
+        }
+        final long middle = index + remaining / 2;
+        final SectionSpliterator<T> prefix = new SectionSpliterator<>(processor, section, index, middle, decoder);
+        index = middle;
+        chunk = null;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return end - index;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+    }
+}
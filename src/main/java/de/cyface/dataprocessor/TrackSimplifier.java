@@ -0,0 +1,217 @@
+package de.cyface.dataprocessor;
+
+import java.io.IOException;
+
+/**
+ * Simplifies a track of geo locations by the Douglas-Peucker algorithm. A geo location is dropped, if it is closer
+ * than a tolerance to the segment between the geo locations kept before and after it. To keep the memory bounded,
+ * the geo locations of a {@link LocationCursor} are simplified in consecutive windows of a fixed size, which share
+ * their boundary geo location. Thus, the first and last geo location of each window are kept, while the tolerance
+ * holds for all dropped geo locations. Geo locations with coordinates which are not finite are dropped as well.
+ * <p>
+ * The kept geo locations are written into primitive arrays like by
+ * {@link CyfaceDataProcessor#pollNextLocations(long[], double[], double[], double[], int[], int)}:
+ *
+ * <pre>
+ * TrackSimplifier simplifier = new TrackSimplifier(proc.locationCursor(), 5.0);
+ * int simplified;
+ * while ((simplified = simplifier.simplify(timestamps, latitudes, longitudes, timestamps.length)) > 0) {
+ *     process(timestamps, latitudes, longitudes, simplified);
+ * }
+ * </pre>
+ *
+ * @author Philipp Grubitzsch
+ * @since 0.3.0
+ *
+ */
+public final class TrackSimplifier {
+
+    /**
+     * The default number of geo locations simplified at once.
+     */
+    public static final int DEFAULT_WINDOW_SIZE = 4096;
+
+    private final LocationCursor cursor;
+    private final double tolerance;
+
+    // the geo locations of the current window
+    private final long[] timestamps;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private int size = 0;
+
+    private final boolean[] keep;
+    private final int[] stack;
+    private final int[] kept;
+    private int keptCount = 0;
+    private int keptPosition = 0;
+
+    private boolean started = false;
+    private boolean exhausted = false;
+
+    /**
+     *
+     * @param cursor the geo locations to simplify
+     * @param toleranceMetres the maximum distance of a dropped geo location from the simplified track in metres
+     */
+    public TrackSimplifier(final LocationCursor cursor, final double toleranceMetres) {
+        this(cursor, toleranceMetres, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     *
+     * @param cursor the geo locations to simplify
+     * @param toleranceMetres the maximum distance of a dropped geo location from the simplified track in metres
+     * @param windowSize the number of geo locations simplified at once, at least 2
+     */
+    public TrackSimplifier(final LocationCursor cursor, final double toleranceMetres, final int windowSize) {
+        if (!(toleranceMetres >= 0.0)) {
+            throw new IllegalArgumentException("Tolerance must not be negative: " + toleranceMetres);
+        }
+        if (windowSize < 2) {
+            throw new IllegalArgumentException("Window must contain at least 2 geo locations: " + windowSize);
+        }
+        this.cursor = cursor;
+        this.tolerance = toleranceMetres;
+        this.timestamps = new long[windowSize];
+        this.latitudes = new double[windowSize];
+        this.longitudes = new double[windowSize];
+        this.keep = new boolean[windowSize];
+        this.stack = new int[2 * windowSize];
+        this.kept = new int[windowSize];
+    }
+
+    /**
+     * Writes the next kept geo locations into the provided arrays.
+     *
+     * @param timestamps the array for the timestamps
+     * @param latitudes the array for the latitudes
+     * @param longitudes the array for the longitudes
+     * @param max the maximum number of geo locations to write
+     * @return the number of geo locations written, which is 0 only if the whole track was simplified
+     * @throws IOException if reading the geo locations fails
+     */
+    public int simplify(final long[] timestamps, final double[] latitudes, final double[] longitudes, final int max)
+            throws IOException {
+        AbstractCyfaceDataProcessor.checkBatchArguments(max, timestamps.length, latitudes.length, longitudes.length);
+        int written = 0;
+        while (written < max) {
+            if (keptPosition == keptCount) {
+                if (!simplifyNextWindow()) {
+                    break;
+                }
+                continue;
+            }
+            final int index = kept[keptPosition++];
+            timestamps[written] = this.timestamps[index];
+            latitudes[written] = this.latitudes[index];
+            longitudes[written] = this.longitudes[index];
+            written++;
+        }
+        return written;
+    }
+
+    /**
+     * Reads the next window, which begins with the last geo location of the window before, and simplifies it.
+     *
+     * @return <code>false</code> if there is no further geo location
+     * @throws IOException if reading the geo locations fails
+     */
+    private boolean simplifyNextWindow() throws IOException {
+        if (exhausted) {
+            return false;
+        }
+        final boolean first = !started;
+        started = true;
+        if (size > 0) {
+            // the boundary was written as last geo location of the window before
+            timestamps[0] = timestamps[size - 1];
+            latitudes[0] = latitudes[size - 1];
+            longitudes[0] = longitudes[size - 1];
+            size = 1;
+        }
+        while (size < timestamps.length) {
+            if (!cursor.next()) {
+                exhausted = true;
+                break;
+            }
+            final double latitude = cursor.latitude();
+            final double longitude = cursor.longitude();
+            if (Double.isFinite(latitude) && Double.isFinite(longitude)) {
+                timestamps[size] = cursor.timestamp();
+                latitudes[size] = latitude;
+                longitudes[size] = longitude;
+                size++;
+            }
+        }
+        if (size == 0 || (size == 1 && !first)) {
+            exhausted = true;
+            return false;
+        }
+
+        douglasPeucker();
+        keptCount = 0;
+        keptPosition = 0;
+        for (int i = first ? 0 : 1; i < size; i++) {
+            if (keep[i]) {
+                kept[keptCount++] = i;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Marks the geo locations of the current window to keep, without recursion.
+     */
+    private void douglasPeucker() {
+        for (int i = 0; i < size; i++) {
+            keep[i] = false;
+        }
+        keep[0] = true;
+        keep[size - 1] = true;
+
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = size - 1;
+        while (top > 0) {
+            final int end = stack[--top];
+            final int begin = stack[--top];
+            double maxDistance = -1.0;
+            int farthest = -1;
+            for (int i = begin + 1; i < end; i++) {
+                final double distance = distanceToSegment(i, begin, end);
+                if (distance > maxDistance) {
+                    maxDistance = distance;
+                    farthest = i;
+                }
+            }
+            if (farthest != -1 && maxDistance > tolerance) {
+                keep[farthest] = true;
+                stack[top++] = begin;
+                stack[top++] = farthest;
+                stack[top++] = farthest;
+                stack[top++] = end;
+            }
+        }
+    }
+
+    /**
+     * Calculates the distance of a geo location to a segment on a plane, onto which the geo locations are projected
+     * equirectangular around the beginning of the segment. This is accurate for the short distances within a track.
+     *
+     * @return the distance in metres
+     */
+    private double distanceToSegment(final int point, final int begin, final int end) {
+        final double metresPerDegree = Math.toRadians(LocationIndex.EARTH_RADIUS_METRES);
+        final double longitudeScale = Math.cos(Math.toRadians(latitudes[begin])) * metresPerDegree;
+        final double endX = (longitudes[end] - longitudes[begin]) * longitudeScale;
+        final double endY = (latitudes[end] - latitudes[begin]) * metresPerDegree;
+        final double x = (longitudes[point] - longitudes[begin]) * longitudeScale;
+        final double y = (latitudes[point] - latitudes[begin]) * metresPerDegree;
+
+        final double lengthSquared = endX * endX + endY * endY;
+        double projection = lengthSquared == 0.0 ? 0.0 : (x * endX + y * endY) / lengthSquared;
+        projection = Math.max(0.0, Math.min(1.0, projection));
+        return Math.hypot(x - projection * endX, y - projection * endY);
+    }
+}
@@ -0,0 +1,122 @@
+package de.cyface.dataprocessor.impl;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+
+import org.apache.commons.io.input.CloseShieldInputStream;
+
+/**
+ * The compressed input of a file based processor. The input is either read from a file, which may be a spooled copy
+ * of the caller's stream, or directly from the caller's stream. A direct stream can be opened again only as long as
+ * not more than its leading bytes were read, which is enough to detect its compression format. If the input has to be
+ * read more than once, it is spooled to a temp file by {@link #spool()}.
+ *
+ * @author Philipp Grubitzsch
+ * @since 0.3.0
+ *
+ */
+final class CompressedSource implements Closeable {
+
+    /**
+     * The number of leading bytes of a direct stream which can be read more than once.
+     */
+    static final int DIRECT_READ_LIMIT = 8192;
+
+    private final File spoolFile;
+    private File file;
+    private boolean temporary;
+    private BufferedInputStream direct;
+
+    private CompressedSource(final File file, final boolean temporary, final BufferedInputStream direct,
+            final File spoolFile) {
+        this.file = file;
+        this.temporary = temporary;
+        this.direct = direct;
+        this.spoolFile = spoolFile;
+    }
+
+    /**
+     *
+     * @param file the compressed input, which is neither modified nor deleted
+     * @return a source reading the file
+     */
+    static CompressedSource of(final File file) {
+        return new CompressedSource(file, false, null, null);
+    }
+
+    /**
+     * Copies a stream to a temp file, which is deleted on close.
+     *
+     * @param input the compressed input, which is closed afterwards
+     * @param spoolFile the temp file to copy the input to
+     * @return a source reading the temp file
+     * @throws IOException if the input could not be copied
+     */
+    static CompressedSource spooled(final InputStream input, final File spoolFile) throws IOException {
+        CompressedSource source = direct(input, spoolFile);
+        source.spool();
+        return source;
+    }
+
+    /**
+     *
+     * @param input the compressed input, which is closed with this source
+     * @param spoolFile the temp file to copy the input to, if it has to be read more than once
+     * @return a source reading the stream directly
+     */
+    static CompressedSource direct(final InputStream input, final File spoolFile) {
+        BufferedInputStream direct = new BufferedInputStream(input, DIRECT_READ_LIMIT);
+        direct.mark(DIRECT_READ_LIMIT);
+        return new CompressedSource(null, false, direct, spoolFile);
+    }
+
+    /**
+     *
+     * @return a new stream of the compressed input from its beginning
+     * @throws IOException if a direct stream was already read beyond its leading bytes
+     */
+    InputStream open() throws IOException {
+        if (direct == null) {
+            return new FileInputStream(file);
+        }
+        direct.reset();
+        // the caller's stream is closed with this source
+        return new CloseShieldInputStream(direct);
+    }
+
+    /**
+     * Copies a direct stream to the spool file, so it can be read any number of times afterwards. Sources reading a
+     * file are not changed.
+     *
+     * @throws IOException if a direct stream was already read beyond its leading bytes or could not be copied
+     */
+    void spool() throws IOException {
+        if (direct == null) {
+            return;
+        }
+        direct.reset();
+        Files.copy(direct, spoolFile.toPath());
+        direct.close();
+        direct = null;
+        file = spoolFile;
+        temporary = true;
+    }
+
+    /**
+     * Closes a direct stream and deletes a spooled copy.
+     */
+    @Override
+    public void close() throws IOException {
+        if (direct != null) {
+            direct.close();
+        }
+        if (temporary) {
+            Files.deleteIfExists(file.toPath());
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package de.cyface.dataprocessor.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import de.cyface.dataprocessor.AbstractByteBufferCyfaceDataProcessor;
+import de.cyface.dataprocessor.CyfaceArchiveReader;
+import de.cyface.dataprocessor.CyfaceArchiveWriter;
+import de.cyface.dataprocessor.CyfaceDataProcessor;
+
+/**
+ * This implementation of the CyfaceDataProcessor reads an archive written by {@link CyfaceArchiveWriter} instead of a
+ * Cyface binary. Uncompressing decodes the archive into a single byte array, from which the sensor data is served like
+ * by the {@link CyfaceDataProcessorInMemoryImpl}.
+ *
+ * @author Philipp Grubitzsch
+ * @since 0.3.0
+ *
+ */
+public class CyfaceDataProcessorArchiveImpl extends AbstractByteBufferCyfaceDataProcessor {
+
+    private final InputStream archiveInputStream;
+    ByteBuffer uncompressedBinary;
+
+    /**
+     * Constructor for the Processor
+     *
+     * @param archiveInputStream the archive written by {@link CyfaceArchiveWriter}
+     */
+    public CyfaceDataProcessorArchiveImpl(InputStream archiveInputStream) {
+        super(archiveInputStream, true);
+        this.archiveInputStream = archiveInputStream;
+    }
+
+    @Override
+    public CyfaceDataProcessor uncompress() throws CyfaceCompressedDataProcessorException, IOException {
+        if (uncompressedBinary != null) {
+            return this;
+        }
+        uncompressedBinary = CyfaceArchiveReader.read(archiveInputStream);
+        uncompressed = true;
+        uncompressedBinaryInputStream = getUncompressedInputStream();
+        return this;
+    }
+
+    @Override
+    protected ByteBuffer getUncompressedBuffer() {
+        return uncompressedBinary;
+    }
+
+    @Override
+    protected InputStream getCompressedInputStream() {
+        return archiveInputStream;
+    }
+
+    @Override
+    public void close() throws IOException {
+        super.close();
+        uncompressedBinary = null;
+    }
+}
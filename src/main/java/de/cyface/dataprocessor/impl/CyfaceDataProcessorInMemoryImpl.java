@@ -1,154 +1,114 @@
 package de.cyface.dataprocessor.impl;
 
+import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CloseShieldInputStream;
 
-import de.cyface.dataprocessor.AbstractCyfaceDataProcessor;
+import de.cyface.dataprocessor.AbstractByteBufferCyfaceDataProcessor;
+import de.cyface.dataprocessor.CyfaceDataProcessor;
 
 /**
  * This implementation of the CyfaceDataProcessor is optimized for maximum performance. Therefore memory (RAM) is
- * utilized to create binary temp arrays for each sensor.
- * 
+ * utilized to hold the uncompressed binary in a single byte array, which is sized by the header. The binary input is
+ * read by {@link #uncompress()} straight into this array, or inflated into it, without copying the input first. Each
+ * sensor is served from a read-only view of this array, so the sensor data is never copied.
+ * <p>
+ * Only if the compression format can not be detected from the leading bytes and has to be found out by trial and
+ * error, the compressed input is copied to memory to read it more than once.
+ *
  * @author Philipp Grubitzsch
  * @since 0.2.0
  *
  */
-public class CyfaceDataProcessorInMemoryImpl extends AbstractCyfaceDataProcessor {
-
-    // separate temporary byte array parts for each sensor type
+public class CyfaceDataProcessorInMemoryImpl extends AbstractByteBufferCyfaceDataProcessor {
+
+    /**
+     * The maximum compression ratio of deflate, used to limit the memory reserved for a corrupt header.
+     */
+    static final int MAX_DEFLATE_RATIO = 1032;
+    /**
+     * The size the uncompressed binary is presized to at most, if the size of the input is unknown.
+     */
+    static final long DEFAULT_PRESIZE_LIMIT = 64L * 1024 * 1024;
+
+    private final BufferedInputStream binaryInput;
+    /**
+     * A copy of the compressed input, which is only created if the input has to be read more than once.
+     */
     byte[] compressedTempBin;
-    ByteArrayOutputStream tempLocBin;
-    ByteArrayOutputStream tempAccBin;
-    ByteArrayOutputStream tempRotBin;
-    ByteArrayOutputStream tempDirBin;
 
-    ByteArrayOutputStream uncompressedTempBin;
+    PresizingByteArrayOutputStream uncompressedTempBin;
+    ByteBuffer uncompressedBinary;
 
     public CyfaceDataProcessorInMemoryImpl(InputStream binaryInputStream, boolean compressed) {
         super(binaryInputStream, compressed);
-        try {
-            this.compressedTempBin = IOUtils.toByteArray(binaryInputStream);
-            this.uncompressedTempBin = new ByteArrayOutputStream();
-            this.uncompressedBinaryOutputStream = uncompressedTempBin;
-        } catch (IOException e) {
-            // TODO Auto-generated catch block
-            e.printStackTrace();
-        }
-        // TODO Auto-generated constructor stub
-    }
-
-    @Override
-    public byte[] getUncompressedBinaryAsArray() throws CyfaceCompressedDataProcessorException, IOException {
-        // TODO Auto-generated method stub
-        return uncompressedTempBin.toByteArray();
-    }
-
-    @Override
-    public void close() throws IOException {
-        super.close();
-    }
-
-    @Override
-    protected InputStream getCompressedInputStream() {
-        return new ByteArrayInputStream(compressedTempBin);
+        // only the leading bytes are read more than once, to detect the compression format
+        this.binaryInput = new BufferedInputStream(binaryInputStream, CompressedSource.DIRECT_READ_LIMIT);
+        binaryInput.mark(CompressedSource.DIRECT_READ_LIMIT);
     }
 
     @Override
-    protected InputStream getUncompressedInputStream() {
-        return new ByteArrayInputStream(uncompressedTempBin.toByteArray());
-    }
-
-    ByteArrayInputStream locByteArrayStream;
-
-    @Override
-    protected InputStream getSpecificLocInputStream() {
-        if (locByteArrayStream != null) {
-            return locByteArrayStream;
-        } else {
-            if (tempLocBin != null) {
-                locByteArrayStream = new ByteArrayInputStream(tempLocBin.toByteArray());
-                return locByteArrayStream;
-            } else {
-                return new ByteArrayInputStream(new byte[0]);
-            }
+    public CyfaceDataProcessor uncompress() throws CyfaceCompressedDataProcessorException, IOException {
+        if (uncompressedBinary != null) {
+            return this;
         }
-    }
-
-    ByteArrayInputStream accByteArrayStream;
-
-    @Override
-    protected InputStream getSpecificAccInputStream() {
-        if (accByteArrayStream != null) {
-            return accByteArrayStream;
+        // the header of a corrupt binary might announce much more data than the input can contain
+        final long available = binaryInput.available();
+        final long presizeLimit = Math.max(DEFAULT_PRESIZE_LIMIT,
+                isUncompressed() ? available : available * MAX_DEFLATE_RATIO);
+        uncompressedTempBin = new PresizingByteArrayOutputStream(presizeLimit);
+        if (isUncompressed()) {
+            // plain input is already the uncompressed binary
+            copyStream(binaryInput, uncompressedTempBin);
+            uncompressedBinaryInputStream = getUncompressedInputStream();
         } else {
-            if (tempAccBin != null) {
-                accByteArrayStream = new ByteArrayInputStream(tempAccBin.toByteArray());
-                return accByteArrayStream;
-            } else {
-                return new ByteArrayInputStream(new byte[0]);
-            }
+            uncompressedBinaryOutputStream = uncompressedTempBin;
+            super.uncompress();
         }
+        // the input is not required for retries anymore
+        compressedTempBin = null;
+        return this;
     }
 
-    ByteArrayInputStream rotByteArrayStream;
-
+    /**
+     * Copies the compressed input to memory, since the attempts to uncompress it read it more than once.
+     */
     @Override
-    protected InputStream getSpecificRotInputStream() {
-        if (rotByteArrayStream != null) {
-            return rotByteArrayStream;
-        } else {
-            if (tempRotBin != null) {
-                rotByteArrayStream = new ByteArrayInputStream(tempRotBin.toByteArray());
-                return rotByteArrayStream;
-            } else {
-                return new ByteArrayInputStream(new byte[0]);
-            }
+    protected void prepareRetry() throws IOException {
+        if (compressedTempBin == null) {
+            binaryInput.reset();
+            compressedTempBin = IOUtils.toByteArray(binaryInput);
         }
     }
 
-    ByteArrayInputStream dirByteArrayStream;
-
     @Override
-    protected InputStream getSpecificDirInputStream() {
-        if (dirByteArrayStream != null) {
-            return dirByteArrayStream;
-        } else {
-            if (tempDirBin != null) {
-                dirByteArrayStream = new ByteArrayInputStream(tempDirBin.toByteArray());
-                return dirByteArrayStream;
-            } else {
-                return new ByteArrayInputStream(new byte[0]);
-            }
+    protected synchronized ByteBuffer getUncompressedBuffer() {
+        if (uncompressedBinary == null) {
+            uncompressedBinary = uncompressedTempBin.toByteBuffer();
         }
+        return uncompressedBinary;
     }
 
     @Override
-    protected OutputStream getTempLocOutputStream() {
-        this.tempLocBin = new ByteArrayOutputStream();
-        return tempLocBin;
-    }
-
-    @Override
-    protected OutputStream getTempAccOutputStream() {
-        this.tempAccBin = new ByteArrayOutputStream();
-        return tempAccBin;
-    }
-
-    @Override
-    protected OutputStream getTempRotOutputStream() {
-        this.tempRotBin = new ByteArrayOutputStream();
-        return tempRotBin;
+    public void close() throws IOException {
+        super.close();
+        uncompressedBinary = null;
     }
 
     @Override
-    protected OutputStream getTempDirOutputStream() {
-        this.tempDirBin = new ByteArrayOutputStream();
-        return tempDirBin;
+    protected InputStream getCompressedInputStream() throws IOException {
+        if (compressedTempBin != null) {
+            return new ByteArrayInputStream(compressedTempBin);
+        }
+        // only the leading bytes were read before
+        binaryInput.reset();
+        // the input is closed with this processor
+        return new CloseShieldInputStream(binaryInput);
     }
 
 }
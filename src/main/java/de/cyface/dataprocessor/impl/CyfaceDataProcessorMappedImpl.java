@@ -0,0 +1,130 @@
+package de.cyface.dataprocessor.impl;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+
+import de.cyface.dataprocessor.AbstractByteBufferCyfaceDataProcessor;
+
+/**
+ * This implementation of the CyfaceDataProcessor combines the read performance of the in-memory processing with the
+ * memory profile of the on-disk processing. The binary is uncompressed once into a single temp file, which is memory
+ * mapped afterwards. Each sensor is served from a view of the mapped file, so no further temp files are created and
+ * reading a point does not require a system call.
+ *
+ * @author Philipp Grubitzsch
+ * @since 0.3.0
+ *
+ */
+public class CyfaceDataProcessorMappedImpl extends AbstractByteBufferCyfaceDataProcessor {
+
+    CompressedSource compressedSource;
+    File uncompressedTempfile;
+
+    ByteBuffer uncompressedBinary;
+
+    /**
+     * Constructor for the Processor
+     *
+     * @param binaryInputStream the binary input either compressed or uncompressed
+     * @param compressed flag to tell the processor if the binary input is compressed
+     * @throws IOException
+     */
+    public CyfaceDataProcessorMappedImpl(InputStream binaryInputStream, boolean compressed) throws IOException {
+        this(binaryInputStream, compressed, true);
+    }
+
+    /**
+     * Constructor for a Processor which may read the binary input directly, instead of copying it to a temp file
+     * first. The input is only copied, if its compression format has to be found out by trial and error.
+     *
+     * @param binaryInputStream the binary input either compressed or uncompressed
+     * @param compressed flag to tell the processor if the binary input is compressed
+     * @param spool <code>true</code> to copy the binary input to a temp file in any case
+     * @throws IOException
+     */
+    public CyfaceDataProcessorMappedImpl(InputStream binaryInputStream, boolean compressed, boolean spool)
+            throws IOException {
+        super(binaryInputStream, compressed);
+        createTempFile();
+        File spoolFile = new File(
+                CyfaceDataProcessorOnDiskImpl.TEMP_FOLDER + UUID.randomUUID().toString() + "_compressed");
+        this.compressedSource = spool ? CompressedSource.spooled(binaryInputStream, spoolFile)
+                : CompressedSource.direct(binaryInputStream, spoolFile);
+    }
+
+    private CyfaceDataProcessorMappedImpl(CompressedSource compressedSource, boolean compressed) throws IOException {
+        super(compressed);
+        createTempFile();
+        this.compressedSource = compressedSource;
+    }
+
+    /**
+     * Creates a Processor which reads the binary directly from a file. The file is neither copied nor deleted.
+     *
+     * @param binary the binary file either compressed or uncompressed
+     * @param compressed flag to tell the processor if the binary file is compressed
+     * @return the processor reading the file
+     * @throws IOException
+     */
+    public static CyfaceDataProcessorMappedImpl fromFile(File binary, boolean compressed) throws IOException {
+        if (!binary.isFile()) {
+            throw new FileNotFoundException(binary.getPath());
+        }
+        return new CyfaceDataProcessorMappedImpl(CompressedSource.of(binary), compressed);
+    }
+
+    private void createTempFile() throws IOException {
+        File tempFolder = new File(CyfaceDataProcessorOnDiskImpl.TEMP_FOLDER);
+        if (!tempFolder.exists()) {
+            tempFolder.mkdirs();
+        }
+        this.uncompressedTempfile = new File(CyfaceDataProcessorOnDiskImpl.TEMP_FOLDER + UUID.randomUUID().toString());
+        this.uncompressedBinaryOutputStream = new FileOutputStream(uncompressedTempfile);
+    }
+
+    @Override
+    protected void prepareRetry() throws IOException {
+        compressedSource.spool();
+    }
+
+    @Override
+    protected synchronized ByteBuffer getUncompressedBuffer() throws IOException {
+        if (uncompressedBinary == null) {
+            // the mapping stays valid after the channel is closed
+            try (FileChannel channel = FileChannel.open(uncompressedTempfile.toPath(), StandardOpenOption.READ)) {
+                uncompressedBinary = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+        }
+        return uncompressedBinary;
+    }
+
+    @Override
+    protected InputStream getCompressedInputStream() throws IOException {
+        return compressedSource.open();
+    }
+
+    @Override
+    public void close() {
+        try {
+            super.close();
+        } catch (IOException e) {
+            throw new RuntimeException("Could not close Stream, while trying to close DataProcessor.", e);
+        }
+        uncompressedBinary = null;
+
+        try {
+            compressedSource.close();
+            Files.deleteIfExists(uncompressedTempfile.toPath());
+        } catch (IOException e) {
+            throw new RuntimeException("Could not delete all tempfiles: " + e.getMessage());
+        }
+    }
+}
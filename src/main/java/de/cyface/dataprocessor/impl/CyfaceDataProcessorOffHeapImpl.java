@@ -0,0 +1,99 @@
+package de.cyface.dataprocessor.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import de.cyface.dataprocessor.AbstractByteBufferCyfaceDataProcessor;
+import de.cyface.dataprocessor.ByteBufferInputStream;
+import de.cyface.dataprocessor.CyfaceDataProcessor;
+
+/**
+ * This implementation of the CyfaceDataProcessor works like the {@link CyfaceDataProcessorInMemoryImpl}, but holds
+ * the compressed input and the uncompressed binary in direct memory outside of the Java heap. Thus, large binaries
+ * neither fill the old generation of the heap nor prolong its garbage collection. The memory is released explicitly
+ * by {@link #close()}, without waiting for a garbage collection. Afterwards, the cursors and streams of the processor
+ * fail fast with an {@link IllegalStateException} instead of reading the released memory. Thus, the processor must
+ * not be closed while another thread still reads from it.
+ *
+ * @author Philipp Grubitzsch
+ * @since 0.3.0
+ *
+ */
+public class CyfaceDataProcessorOffHeapImpl extends AbstractByteBufferCyfaceDataProcessor {
+
+    DirectByteBufferOutputStream compressedTempBin;
+
+    DirectByteBufferOutputStream uncompressedTempBin;
+    ByteBuffer uncompressedBinary;
+
+    /**
+     * Constructor for the Processor
+     *
+     * @param binaryInputStream the binary input either compressed or uncompressed
+     * @param compressed flag to tell the processor if the binary input is compressed
+     * @throws IOException if the binary input could not be read
+     */
+    public CyfaceDataProcessorOffHeapImpl(InputStream binaryInputStream, boolean compressed) throws IOException {
+        super(binaryInputStream, compressed);
+        // the header of a corrupt binary might announce much more data than the input contains
+        this.compressedTempBin = new DirectByteBufferOutputStream(compressed ? 0
+                : Math.max(CyfaceDataProcessorInMemoryImpl.DEFAULT_PRESIZE_LIMIT, binaryInputStream.available()));
+        copyStream(binaryInputStream, compressedTempBin);
+        if (compressed) {
+            this.uncompressedTempBin = new DirectByteBufferOutputStream(
+                    (long)compressedTempBin.toByteBuffer().remaining()
+                            * CyfaceDataProcessorInMemoryImpl.MAX_DEFLATE_RATIO);
+            this.uncompressedBinaryOutputStream = uncompressedTempBin;
+        }
+    }
+
+    @Override
+    public CyfaceDataProcessor uncompress() throws CyfaceCompressedDataProcessorException, IOException {
+        if (uncompressedBinary != null) {
+            return this;
+        }
+        if (isUncompressed()) {
+            // plain input is already the uncompressed binary
+            uncompressedTempBin = compressedTempBin;
+            uncompressedBinary = uncompressedTempBin.toByteBuffer();
+            uncompressedBinaryInputStream = getUncompressedInputStream();
+        } else {
+            super.uncompress();
+            // the input is not required for retries anymore
+            compressedTempBin.release();
+        }
+        compressedTempBin = null;
+        return this;
+    }
+
+    @Override
+    protected synchronized ByteBuffer getUncompressedBuffer() {
+        if (uncompressedBinary == null) {
+            uncompressedBinary = uncompressedTempBin.toByteBuffer();
+        }
+        return uncompressedBinary;
+    }
+
+    @Override
+    protected InputStream getCompressedInputStream() {
+        return new ByteBufferInputStream(compressedTempBin.toByteBuffer());
+    }
+
+    /**
+     * Releases the direct memory of the processor. Its cursors and streams fail fast afterwards.
+     */
+    @Override
+    public void close() throws IOException {
+        super.close();
+        uncompressedBinary = null;
+        if (compressedTempBin != null) {
+            compressedTempBin.release();
+            compressedTempBin = null;
+        }
+        if (uncompressedTempBin != null) {
+            uncompressedTempBin.release();
+            uncompressedTempBin = null;
+        }
+    }
+}
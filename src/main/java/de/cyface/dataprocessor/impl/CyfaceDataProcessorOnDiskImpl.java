@@ -9,12 +9,13 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.util.UUID;
 
-import org.apache.commons.io.IOUtils;
-
-import de.cyface.dataprocessor.AbstractCyfaceDataProcessor;
+import de.cyface.dataprocessor.AbstractTempBinCyfaceDataProcessor;
 
 /**
  * This implementation of the CyfaceDataProcessor is optimized to use as less memory as possible. Therefore the
@@ -24,18 +25,22 @@ import de.cyface.dataprocessor.AbstractCyfaceDataProcessor;
  * @since 0.2.0
  *
  */
-public class CyfaceDataProcessorOnDiskImpl extends AbstractCyfaceDataProcessor {
+public class CyfaceDataProcessorOnDiskImpl extends AbstractTempBinCyfaceDataProcessor {
 
     static final String TEMP_FOLDER = "uncompressed-temp/";
 
     // separate temporary file parts for each sensor type
-    File compressedTempfile;
+    CompressedSource compressedSource;
     File tempLocFile;
     File tempAccFile;
     File tempRotFile;
     File tempDirFile;
 
     File uncompressedTempfile;
+    /**
+     * The uncompressed temp file opened for random access, which is kept open until the processor is closed.
+     */
+    private FileChannel uncompressedChannel;
 
     /**
      * Constructor for the Processor
@@ -45,22 +50,63 @@ public class CyfaceDataProcessorOnDiskImpl extends AbstractCyfaceDataProcessor {
      * @throws IOException
      */
     public CyfaceDataProcessorOnDiskImpl(InputStream binaryInputStream, boolean compressed) throws IOException {
+        this(binaryInputStream, compressed, true);
+    }
+
+    /**
+     * Constructor for a Processor which may read the binary input directly, instead of copying it to a temp file
+     * first. The input is only copied, if its compression format can not be detected from the leading bytes and has to
+     * be found out by trial and error.
+     * 
+     * @param binaryInputStream the binary input either compressed or uncompressed
+     * @param compressed flag to tell the processor if the binary input is compressed
+     * @param spool <code>true</code> to copy the binary input to a temp file in any case
+     * @throws IOException
+     */
+    public CyfaceDataProcessorOnDiskImpl(InputStream binaryInputStream, boolean compressed, boolean spool)
+            throws IOException {
         super(binaryInputStream, compressed);
+        createTempFiles();
+        File spoolFile = new File(TEMP_FOLDER + UUID.randomUUID().toString() + "_compressed");
+        this.compressedSource = spool ? CompressedSource.spooled(binaryInputStream, spoolFile)
+                : CompressedSource.direct(binaryInputStream, spoolFile);
+    }
+
+    private CyfaceDataProcessorOnDiskImpl(CompressedSource compressedSource, boolean compressed) throws IOException {
+        super(compressed);
+        createTempFiles();
+        this.compressedSource = compressedSource;
+    }
+
+    /**
+     * Creates a Processor which reads the binary directly from a file. The file is neither copied nor deleted.
+     *
+     * @param binary the binary file either compressed or uncompressed
+     * @param compressed flag to tell the processor if the binary file is compressed
+     * @return the processor reading the file
+     * @throws IOException
+     */
+    public static CyfaceDataProcessorOnDiskImpl fromFile(File binary, boolean compressed) throws IOException {
+        if (!binary.isFile()) {
+            throw new FileNotFoundException(binary.getPath());
+        }
+        return new CyfaceDataProcessorOnDiskImpl(CompressedSource.of(binary), compressed);
+    }
 
+    private void createTempFiles() throws IOException {
         File tempFolder = new File(TEMP_FOLDER);
         if (!tempFolder.exists()) {
             tempFolder.mkdirs();
         }
         this.uncompressedTempfile = new File(TEMP_FOLDER + UUID.randomUUID().toString());
-        this.compressedTempfile = new File(TEMP_FOLDER + UUID.randomUUID().toString() + "_compressed");
-        OutputStream compressedTempFileOutputStream = new FileOutputStream(compressedTempfile);
-        IOUtils.copy(binaryInputStream, compressedTempFileOutputStream);
-        binaryInputStream.close();
-        compressedTempFileOutputStream.flush();
-        compressedTempFileOutputStream.close();
         this.uncompressedBinaryOutputStream = new FileOutputStream(uncompressedTempfile);
     }
 
+    @Override
+    protected void prepareRetry() throws IOException {
+        compressedSource.spool();
+    }
+
     @Override
     public byte[] getUncompressedBinaryAsArray() throws CyfaceCompressedDataProcessorException, IOException {
         checkUncompressedOrThrowException();
@@ -79,8 +125,9 @@ public class CyfaceDataProcessorOnDiskImpl extends AbstractCyfaceDataProcessor {
         }
 
         try {
+            closeUncompressedChannel();
+            compressedSource.close();
             deleteFileIfNotNull(uncompressedTempfile);
-            deleteFileIfNotNull(compressedTempfile);
             deleteFileIfNotNull(tempLocFile);
             deleteFileIfNotNull(tempAccFile);
             deleteFileIfNotNull(tempRotFile);
@@ -91,6 +138,38 @@ public class CyfaceDataProcessorOnDiskImpl extends AbstractCyfaceDataProcessor {
 
     }
 
+    private synchronized void closeUncompressedChannel() throws IOException {
+        if (uncompressedChannel != null) {
+            uncompressedChannel.close();
+            uncompressedChannel = null;
+        }
+    }
+
+    private synchronized FileChannel getUncompressedChannel() throws IOException {
+        if (uncompressedChannel == null) {
+            // fails if the temp file was deleted by close()
+            uncompressedChannel = FileChannel.open(uncompressedTempfile.toPath(), StandardOpenOption.READ);
+        }
+        return uncompressedChannel;
+    }
+
+    /**
+     * Reads the range from the uncompressed temp file by a positional read, so neither a file is opened nor a stream is
+     * skipped per call. Positional reads do not change the position of the channel, so they may run concurrently.
+     */
+    @Override
+    protected ByteBuffer readUncompressedRange(final long offset, final int length) throws IOException {
+        final FileChannel channel = getUncompressedChannel();
+        final ByteBuffer range = ByteBuffer.allocate(length);
+        while (range.hasRemaining()) {
+            if (channel.read(range, offset + range.position()) < 0) {
+                break;
+            }
+        }
+        range.flip();
+        return range;
+    }
+
     private void deleteFileIfNotNull(File file) throws IOException {
         if (file != null) {
             Files.delete(file.toPath());
@@ -98,14 +177,8 @@ public class CyfaceDataProcessorOnDiskImpl extends AbstractCyfaceDataProcessor {
     }
 
     @Override
-    protected InputStream getCompressedInputStream() {
-        try {
-            return new FileInputStream(compressedTempfile);
-        } catch (FileNotFoundException e) {
-            // TODO Auto-generated catch block
-            e.printStackTrace();
-            return null;
-        }
+    protected InputStream getCompressedInputStream() throws IOException {
+        return compressedSource.open();
     }
 
     @Override
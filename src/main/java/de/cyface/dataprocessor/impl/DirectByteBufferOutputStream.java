@@ -0,0 +1,164 @@
+package de.cyface.dataprocessor.impl;
+
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+
+import de.cyface.data.ByteSizes;
+import de.cyface.dataprocessor.CyfaceBinaryHeader;
+
+/**
+ * An {@link OutputStream} writing to a direct {@link ByteBuffer}, which is allocated outside of the Java heap. Like
+ * the {@link PresizingByteArrayOutputStream}, the buffer grows to the size announced by the header of an uncompressed
+ * Cyface binary at once. Buffers which are replaced while growing are released right away, the last buffer is
+ * released by {@link #release()}. Thus, the memory is freed without waiting for a garbage collection, but views
+ * returned by {@link #toByteBuffer()} must not be read after the next write or the release. The processor guards its
+ * views accordingly.
+ *
+ * @author Philipp Grubitzsch
+ * @since 0.3.0
+ *
+ */
+class DirectByteBufferOutputStream extends OutputStream {
+
+    private static final int MAX_BUFFER_SIZE = Integer.MAX_VALUE - 8;
+    private static final int MIN_BUFFER_SIZE = 4096;
+
+    /**
+     * <code>Unsafe.invokeCleaner(ByteBuffer)</code>, which is only available since Java 9.
+     */
+    private static final Method INVOKE_CLEANER;
+    private static final Object UNSAFE;
+
+    static {
+        Method invokeCleaner = null;
+        Object unsafe = null;
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            unsafe = theUnsafe.get(null);
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Java 8, where the cleaner of the buffer is called instead
+        }
+        INVOKE_CLEANER = invokeCleaner;
+        UNSAFE = unsafe;
+    }
+
+    private final long presizeLimit;
+    private boolean presized;
+    private ByteBuffer buffer;
+
+    /**
+     *
+     * @param presizeLimit the maximum size the buffer grows to at once, which protects against corrupt headers, or 0
+     *            if the written bytes are no uncompressed Cyface binary
+     */
+    DirectByteBufferOutputStream(final long presizeLimit) {
+        this.presizeLimit = Math.min(presizeLimit, MAX_BUFFER_SIZE);
+        this.presized = presizeLimit <= 0;
+        this.buffer = ByteBuffer.allocateDirect(presized ? MIN_BUFFER_SIZE : ByteSizes.BYTES_IN_HEADER);
+    }
+
+    @Override
+    public synchronized void write(final int b) {
+        ensureCapacity(1);
+        buffer.put((byte)b);
+        presize();
+    }
+
+    @Override
+    public synchronized void write(final byte[] b, final int off, final int len) {
+        if (!presized && buffer.position() + len > ByteSizes.BYTES_IN_HEADER) {
+            // complete the header first
+            int headerBytes = ByteSizes.BYTES_IN_HEADER - buffer.position();
+            buffer.put(b, off, headerBytes);
+            presize();
+            ensureCapacity(len - headerBytes);
+            buffer.put(b, off + headerBytes, len - headerBytes);
+        } else {
+            ensureCapacity(len);
+            buffer.put(b, off, len);
+            presize();
+        }
+    }
+
+    private void presize() {
+        if (presized || buffer.position() < ByteSizes.BYTES_IN_HEADER) {
+            return;
+        }
+        presized = true;
+        byte[] header = new byte[ByteSizes.BYTES_IN_HEADER];
+        ByteBuffer written = buffer.duplicate();
+        written.flip();
+        written.get(header);
+        long binarySize = CyfaceBinaryHeader.deserialize(header).getBinarySize();
+        if (binarySize > buffer.capacity() && binarySize <= presizeLimit) {
+            grow((int)binarySize);
+        }
+    }
+
+    private void ensureCapacity(final int length) {
+        if (buffer.remaining() >= length) {
+            return;
+        }
+        long required = (long)buffer.position() + length;
+        if (required > MAX_BUFFER_SIZE) {
+            throw new OutOfMemoryError("Binary exceeds the maximum buffer size.");
+        }
+        grow((int)Math.min(MAX_BUFFER_SIZE, Math.max(required, 2L * buffer.capacity())));
+    }
+
+    private void grow(final int capacity) {
+        ByteBuffer grown = ByteBuffer.allocateDirect(capacity);
+        buffer.flip();
+        grown.put(buffer);
+        release(buffer);
+        buffer = grown;
+    }
+
+    /**
+     *
+     * @return a buffer backed by the written bytes, which is only valid until the next write or the release
+     */
+    synchronized ByteBuffer toByteBuffer() {
+        ByteBuffer written = buffer.duplicate();
+        written.flip();
+        return written.slice();
+    }
+
+    /**
+     * Frees the memory of the buffer. Buffers returned by {@link #toByteBuffer()} must not be accessed afterwards.
+     */
+    synchronized void release() {
+        if (buffer != null) {
+            release(buffer);
+            buffer = null;
+        }
+    }
+
+    /**
+     * Frees the memory of a direct buffer immediately instead of waiting for its garbage collection. If the JVM does
+     * not allow this, the memory is freed by the garbage collection as usual.
+     *
+     * @param buffer a direct buffer, which was neither sliced nor duplicated
+     */
+    static void release(final ByteBuffer buffer) {
+        try {
+            if (INVOKE_CLEANER != null) {
+                INVOKE_CLEANER.invoke(UNSAFE, buffer);
+            } else {
+                Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(buffer);
+                if (cleaner != null) {
+                    cleaner.getClass().getMethod("clean").invoke(cleaner);
+                }
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // left to the garbage collection
+        }
+    }
+}
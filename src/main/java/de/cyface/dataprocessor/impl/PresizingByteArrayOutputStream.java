@@ -0,0 +1,78 @@
+package de.cyface.dataprocessor.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import de.cyface.data.ByteSizes;
+import de.cyface.dataprocessor.CyfaceBinaryHeader;
+
+/**
+ * A {@link ByteArrayOutputStream} for an uncompressed Cyface binary. As soon as the header was written, the buffer
+ * grows to the size announced by the header at once, instead of doubling its size again and again. The written
+ * binary is accessible as {@link ByteBuffer} without copying it.
+ *
+ * @author Philipp Grubitzsch
+ * @since 0.3.0
+ *
+ */
+class PresizingByteArrayOutputStream extends ByteArrayOutputStream {
+
+    /**
+     * Since the array size is an <code>int</code>, some JVMs reserve a few header words in an array.
+     */
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    private final long presizeLimit;
+    private boolean presized = false;
+
+    /**
+     *
+     * @param presizeLimit the maximum size the buffer grows to at once, which protects against corrupt headers
+     *            announcing much more data than the input can contain
+     */
+    PresizingByteArrayOutputStream(final long presizeLimit) {
+        super(ByteSizes.BYTES_IN_HEADER);
+        this.presizeLimit = Math.min(presizeLimit, MAX_ARRAY_SIZE);
+    }
+
+    @Override
+    public synchronized void write(final int b) {
+        super.write(b);
+        presize();
+    }
+
+    @Override
+    public synchronized void write(final byte[] b, final int off, final int len) {
+        if (!presized && count < ByteSizes.BYTES_IN_HEADER && count + len > ByteSizes.BYTES_IN_HEADER) {
+            // complete the header first
+            int headerBytes = ByteSizes.BYTES_IN_HEADER - count;
+            super.write(b, off, headerBytes);
+            presize();
+            super.write(b, off + headerBytes, len - headerBytes);
+        } else {
+            super.write(b, off, len);
+            presize();
+        }
+    }
+
+    private void presize() {
+        if (presized || count < ByteSizes.BYTES_IN_HEADER) {
+            return;
+        }
+        presized = true;
+        long binarySize = CyfaceBinaryHeader.deserialize(Arrays.copyOf(buf, ByteSizes.BYTES_IN_HEADER))
+                .getBinarySize();
+        if (binarySize > buf.length && binarySize <= presizeLimit) {
+            buf = Arrays.copyOf(buf, (int)binarySize);
+        }
+    }
+
+    /**
+     *
+     * @return a buffer backed by the written bytes, which is only valid until the next write
+     */
+    synchronized ByteBuffer toByteBuffer() {
+        return ByteBuffer.wrap(buf, 0, count).slice();
+    }
+}
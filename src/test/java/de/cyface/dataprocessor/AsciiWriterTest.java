@@ -0,0 +1,149 @@
+package de.cyface.dataprocessor;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+/**
+ *
+ * @author Philipp Grubitzsch
+ *
+ */
+public class AsciiWriterTest {
+
+    private static String format(final int fractionDigits, final double value) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (AsciiWriter writer = new AsciiWriter(output, false, fractionDigits)) {
+            writer.write(value);
+        }
+        return new String(output.toByteArray(), StandardCharsets.US_ASCII);
+    }
+
+    @Test
+    public void testFormatDouble() throws IOException {
+        assertThat(format(9, 0.0), is(equalTo("0")));
+        assertThat(format(9, -0.0), is(equalTo("0")));
+        assertThat(format(9, 51.0), is(equalTo("51")));
+        assertThat(format(9, 13.7), is(equalTo("13.7")));
+        assertThat(format(9, -0.05), is(equalTo("-0.05")));
+        assertThat(format(9, 9.80665), is(equalTo("9.80665")));
+        assertThat(format(9, 1.0E-12), is(equalTo("0")));
+        assertThat(format(3, 0.0005), is(equalTo("0.001")));
+        assertThat(format(3, 2.9999), is(equalTo("3")));
+        assertThat(format(0, 2.5), is(equalTo("3")));
+        // not finite or too large to be scaled
+        assertThat(format(9, Double.NaN), is(equalTo("NaN")));
+        assertThat(format(9, Double.NEGATIVE_INFINITY), is(equalTo("-Infinity")));
+        assertThat(format(9, 1.0E12), is(equalTo("1.0E12")));
+        // the scaled value must stay below 2^53 to be rounded correctly
+        assertThat(format(9, 9007199.25), is(equalTo("9007199.25")));
+        assertThat(format(9, -1.0E7), is(equalTo("-1.0E7")));
+        assertThat(format(15, 0.123456789012345), is(equalTo("0.123456789012345")));
+        assertThat(format(15, 10.0), is(equalTo("10.0")));
+    }
+
+    @Test
+    public void testFormatWithMaxFractionDigits() throws IOException {
+        Random random = new Random(42);
+        for (int i = 0; i < 10000; i++) {
+            double value = (random.nextDouble() - 0.5) * 18;
+            assertThat(Double.parseDouble(format(AsciiWriter.MAX_FRACTION_DIGITS, value)),
+                    is(closeTo(value, 0.5E-15 + Math.ulp(value))));
+        }
+    }
+
+    @Test
+    public void testFormatMatchesRoundedValue() throws IOException {
+        Random random = new Random(42);
+        for (int i = 0; i < 10000; i++) {
+            double value = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(8));
+            // the rounding to 9 fraction digits plus the precision of the scaled value
+            assertThat(Double.parseDouble(format(9, value)), is(closeTo(value, 0.5E-9 + Math.ulp(value))));
+        }
+    }
+
+    @Test
+    public void testWriteBeyondBuffer() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        int lines = 0;
+        try (AsciiWriter writer = new AsciiWriter(output, false, 9)) {
+            while (lines * 21 < 3 * ResourcePool.BUFFER_SIZE) {
+                writer.write(Long.MIN_VALUE).write(',').write(lines).write('\n');
+                lines++;
+            }
+        }
+        String[] written = new String(output.toByteArray(), StandardCharsets.US_ASCII).split("\n");
+        assertThat(written.length, is(equalTo(lines)));
+        for (int i = 0; i < lines; i++) {
+            assertThat(written[i], is(equalTo(Long.MIN_VALUE + "," + i)));
+        }
+    }
+
+    /**
+     * A buffer released twice would be handed out to two users of the pool at once.
+     */
+    @Test
+    public void testCloseTwiceReleasesBufferOnce() throws IOException {
+        AsciiWriter writer = new AsciiWriter(new ByteArrayOutputStream(), false, 9);
+        writer.write("text");
+        writer.close();
+        writer.close();
+
+        Set<byte[]> acquired = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = 0; i < ResourcePool.POOL_CAPACITY; i++) {
+            assertThat(acquired.add(ResourcePool.acquireBuffer()), is(true));
+        }
+        for (byte[] buffer : acquired) {
+            ResourcePool.releaseBuffer(buffer);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testWriteAfterClose() throws IOException {
+        AsciiWriter writer = new AsciiWriter(new ByteArrayOutputStream(), false, 9);
+        writer.close();
+        writer.write(1L);
+    }
+
+    @Test
+    public void testOutputClosedIfFlushFails() throws IOException {
+        AtomicBoolean closed = new AtomicBoolean(false);
+        OutputStream failing = new OutputStream() {
+            @Override
+            public void write(final int b) throws IOException {
+                throw new IOException("Disk full");
+            }
+
+            @Override
+            public void write(final byte[] b, final int off, final int len) throws IOException {
+                throw new IOException("Disk full");
+            }
+
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        };
+        AsciiWriter writer = new AsciiWriter(failing, false, 9);
+        writer.write("text");
+        try {
+            writer.close();
+        } catch (IOException e) {
+            assertThat(e.getMessage(), is(equalTo("Disk full")));
+        }
+        assertThat(closed.get(), is(true));
+    }
+}
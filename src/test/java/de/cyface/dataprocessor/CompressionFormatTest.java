@@ -0,0 +1,51 @@
+package de.cyface.dataprocessor;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+/**
+ *
+ * @author Philipp Grubitzsch
+ *
+ */
+public class CompressionFormatTest {
+
+    @Test
+    public void testDetectFormatOfSamples() throws IOException {
+        assertThat(detect("/android-format2019-nowrap-arbitrary.ccyf"), is(equalTo(CompressionFormat.RAW_DEFLATE)));
+        assertThat(detect("/iphone-working.ccyf"), is(equalTo(CompressionFormat.RAW_DEFLATE)));
+        assertThat(detect("/android-format2018.ccyf"), is(equalTo(CompressionFormat.ZLIB)));
+        assertThat(detect("/compressedCyfaceData"), is(equalTo(CompressionFormat.ZLIB)));
+        assertThat(detect("/nosensordata.ccyf"), is(equalTo(CompressionFormat.ZLIB)));
+        assertThat(detect("/ios-uncompressed-20190424.ccyf"), is(equalTo(CompressionFormat.UNCOMPRESSED)));
+        assertThat(detect("/uncompressed.cyf"), is(equalTo(CompressionFormat.UNCOMPRESSED)));
+    }
+
+    @Test
+    public void testDetectAmbiguousFormat() {
+        // a stored deflate block with consistent lengths, which is a plausible Cyface header at the same time
+        byte[] leading = new byte[] {0, 1, 0, (byte)0xFE, (byte)0xFF, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0};
+        assertThat(CompressionFormat.detect(leading, leading.length), is(nullValue()));
+        // invalid block type, no zlib header and no Cyface header
+        leading[0] = (byte)0x07;
+        assertThat(CompressionFormat.detect(leading, leading.length), is(nullValue()));
+        // too short for any format
+        assertThat(CompressionFormat.detect(new byte[] {0x78}, 1), is(nullValue()));
+    }
+
+    private CompressionFormat detect(final String resource) throws IOException {
+        try (InputStream input = new FileInputStream(this.getClass().getResource(resource).getFile())) {
+            byte[] leading = new byte[18];
+            return CompressionFormat.detect(leading, IOUtils.read(input, leading));
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package de.cyface.dataprocessor;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.LineNumberReader;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Test;
+
+import de.cyface.data.LocationPoint;
+import de.cyface.data.Point3D;
+import de.cyface.data.Point3DSeries;
+import de.cyface.dataprocessor.AbstractCyfaceDataProcessor.CyfaceCompressedDataProcessorException;
+import de.cyface.dataprocessor.impl.CyfaceDataProcessorInMemoryImpl;
+
+/**
+ *
+ * @author Philipp Grubitzsch
+ *
+ */
+public class CsvExporterTest {
+
+    /**
+     *
+     * @return the rounding to the default fraction digits plus the precision of the scaled value
+     */
+    private static double tolerance(final double value) {
+        return 0.5E-9 + Math.ulp(value);
+    }
+
+    @Test
+    public void testWritePoints3D() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (CsvExporter exporter = new CsvExporter(output, false)) {
+            assertThat(exporter.writePoints3D(Point3DResamplerTest.linearPoints(1000, 1500)), is(equalTo(2L)));
+        }
+        assertThat(new String(output.toByteArray(), StandardCharsets.US_ASCII),
+                is(equalTo("timestamp,x,y,z\n1000,1000,2000,-1000\n1500,1500,3000,-1500\n")));
+    }
+
+    @Test
+    public void testWriteBinaryGzipped() throws CyfaceCompressedDataProcessorException, IOException {
+        try (CyfaceDataProcessor proc = new CyfaceDataProcessorInMemoryImpl(new FileInputStream(
+                this.getClass().getResource(CyfaceDataProcessorBulkAccessTest.FULL_SENSOR_DATA).getFile()), true)) {
+            proc.uncompressAndPrepare();
+
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            try (CsvExporter exporter = new CsvExporter(output, true)) {
+                assertThat(exporter.writePoints3D(proc.accelerationCursor()),
+                        is(equalTo((long)proc.getHeader().getNumberOfAccelerations())));
+            }
+            try (LineNumberReader reader = new LineNumberReader(new InputStreamReader(
+                    new GZIPInputStream(new ByteArrayInputStream(output.toByteArray())), StandardCharsets.US_ASCII))) {
+                assertThat(reader.readLine(), is(equalTo("timestamp,x,y,z")));
+                Point3DSeries accelerations = proc.readAccelerations(0, proc.getHeader().getNumberOfAccelerations());
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    Point3D point = accelerations.get(reader.getLineNumber() - 2);
+                    String[] values = line.split(",");
+                    assertThat(Long.parseLong(values[0]), is(equalTo(point.getTimestamp())));
+                    assertThat(Double.parseDouble(values[1]), is(closeTo(point.getX(), tolerance(point.getX()))));
+                    assertThat(Double.parseDouble(values[2]), is(closeTo(point.getY(), tolerance(point.getY()))));
+                    assertThat(Double.parseDouble(values[3]), is(closeTo(point.getZ(), tolerance(point.getZ()))));
+                }
+                assertThat(reader.getLineNumber() - 1, is(equalTo(accelerations.size())));
+            }
+
+            LocationPoint first = proc.getLocationAt(0);
+            output = new ByteArrayOutputStream();
+            try (CsvExporter exporter = new CsvExporter(output, false)) {
+                exporter.writeLocations(proc.locationCursor());
+            }
+            String[] lines = new String(output.toByteArray(), StandardCharsets.US_ASCII).split("\n");
+            assertThat(lines.length, is(equalTo(proc.getHeader().getNumberOfGeoLocations() + 1)));
+            assertThat(lines[0], is(equalTo("timestamp,latitude,longitude,speed,accuracy")));
+            assertThat(lines[1].startsWith(first.getTimestamp() + ","), is(true));
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package de.cyface.dataprocessor;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import de.cyface.data.ByteSizes;
+import de.cyface.dataprocessor.AbstractCyfaceDataProcessor.CyfaceCompressedDataProcessorException;
+import de.cyface.dataprocessor.impl.CyfaceDataProcessorArchiveImpl;
+import de.cyface.dataprocessor.impl.CyfaceDataProcessorInMemoryImpl;
+
+/**
+ *
+ * @author Philipp Grubitzsch
+ *
+ */
+public class CyfaceArchiveTest {
+
+    private byte[] archive(final String binary) throws CyfaceCompressedDataProcessorException, IOException {
+        try (CyfaceDataProcessor proc = new CyfaceDataProcessorInMemoryImpl(
+                new FileInputStream(this.getClass().getResource(binary).getFile()), !binary.endsWith(".cyf"))) {
+            proc.uncompress();
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            assertThat(CyfaceArchiveWriter.write(proc, output), is(equalTo((long)output.size())));
+            return output.toByteArray();
+        }
+    }
+
+    private byte[] uncompressed(final String binary) throws CyfaceCompressedDataProcessorException, IOException {
+        try (CyfaceDataProcessor proc = new CyfaceDataProcessorInMemoryImpl(
+                new FileInputStream(this.getClass().getResource(binary).getFile()), !binary.endsWith(".cyf"))) {
+            proc.uncompress();
+            return Arrays.copyOf(proc.getUncompressedBinaryAsArray(), (int)proc.getHeader().getBinarySize());
+        }
+    }
+
+    @Test
+    public void testRoundTrip() throws CyfaceCompressedDataProcessorException, IOException {
+        for (String binary : CyfaceDataProcessorDirectInputTest.BINARIES) {
+            try (CyfaceDataProcessor proc = new CyfaceDataProcessorArchiveImpl(
+                    new ByteArrayInputStream(archive(binary)))) {
+                proc.uncompressAndPrepare();
+                assertThat(binary, proc.getUncompressedBinaryAsArray(), is(equalTo(uncompressed(binary))));
+            }
+        }
+    }
+
+    /**
+     * The archive must be smaller than the deflated binary it was written from.
+     */
+    @Test
+    public void testCompressionRatio() throws CyfaceCompressedDataProcessorException, IOException {
+        for (String binary : new String[] {CyfaceDataProcessorBulkAccessTest.FULL_SENSOR_DATA,
+                "/full-sensor-example.ccyf"}) {
+            long deflated = new File(this.getClass().getResource(binary).getFile()).length();
+            int archived = archive(binary).length;
+            assertThat(binary, (double)archived / deflated, is(lessThan(0.9)));
+        }
+    }
+
+    @Test
+    public void testPollFromArchive() throws CyfaceCompressedDataProcessorException, IOException {
+        try (CyfaceDataProcessor proc = new CyfaceDataProcessorArchiveImpl(
+                new ByteArrayInputStream(archive("/compressedCyfaceData")))) {
+            proc.uncompressAndPrepare();
+
+            assertThat(proc.getHeader().getNumberOfGeoLocations(), is(equalTo(1711)));
+            assertThat(proc.pollNextLocationPoint().toString(), is(equalTo(
+                    "timestamp=1521631263237,lon=13.728253648287687,lat=51.03168352640331,speed=0.18293093144893646,accuracy=1200")));
+            assertThat(proc.pollNextAccelerationPoint().toString(), is(equalTo(
+                    "timestamp=1521631261383,x=-0.4956148862838745,y=3.8332340717315674,z=13.800600051879883,sensortype=ACC")));
+            assertThat(proc.pollAccelerationSeries().size(), is(equalTo(677)));
+        }
+    }
+
+    @Test
+    public void testColumnCodec() throws IOException {
+        Random random = new Random(42);
+        long[] longs = new long[1000];
+        double[] doubles = new double[1000];
+        for (int i = 0; i < 1000; i++) {
+            longs[i] = i < 500 ? 1000L * i + random.nextInt(3) : random.nextLong();
+            doubles[i] = i < 500 ? Math.sin(i / 10.0) : Double.longBitsToDouble(random.nextLong());
+        }
+        longs[10] = Long.MIN_VALUE;
+        longs[11] = Long.MAX_VALUE;
+        doubles[10] = Double.NaN;
+        doubles[11] = -0.0;
+        doubles[12] = Double.NEGATIVE_INFINITY;
+
+        BitOutput output = new BitOutput(16);
+        ColumnCodec.encodeLongs(output, longs, longs.length);
+        ColumnCodec.encodeDoubles(output, doubles, doubles.length);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        output.writeTo(bytes);
+
+        BitInput input = new BitInput();
+        input.reset(bytes.toByteArray(), bytes.size());
+        long[] decodedLongs = new long[1000];
+        double[] decodedDoubles = new double[1000];
+        ColumnCodec.decodeLongs(input, decodedLongs, decodedLongs.length);
+        ColumnCodec.decodeDoubles(input, decodedDoubles, decodedDoubles.length);
+        assertThat(decodedLongs, is(equalTo(longs)));
+        for (int i = 0; i < 1000; i++) {
+            assertThat(Double.doubleToRawLongBits(decodedDoubles[i]),
+                    is(equalTo(Double.doubleToRawLongBits(doubles[i]))));
+        }
+    }
+
+    @Test(expected = CyfaceCompressedDataProcessorException.class)
+    public void testNoArchive() throws CyfaceCompressedDataProcessorException, IOException {
+        try (CyfaceDataProcessor proc = new CyfaceDataProcessorArchiveImpl(
+                new FileInputStream(this.getClass().getResource("/compressedCyfaceData").getFile()))) {
+            proc.uncompress();
+        }
+    }
+
+    /**
+     * A binary which the reader could not decode into a single buffer must be rejected before anything is written.
+     */
+    @Test
+    public void testBinaryTooLargeToArchive() throws CyfaceCompressedDataProcessorException, IOException {
+        // a header announcing 100 million geo locations of 36 bytes each
+        ByteBuffer header = ByteBuffer.allocate(ByteSizes.BYTES_IN_HEADER);
+        header.putShort((short)1).putInt(100000000).putInt(0).putInt(0).putInt(0);
+        try (CyfaceDataProcessor proc = new CyfaceDataProcessorInMemoryImpl(
+                new ByteArrayInputStream(header.array()), false)) {
+            proc.uncompress();
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            try {
+                CyfaceArchiveWriter.write(proc, output);
+                fail("Binary of " + proc.getHeader().getBinarySize() + " bytes was archived.");
+            } catch (CyfaceCompressedDataProcessorException e) {
+                assertThat(output.size(), is(equalTo(0)));
+            }
+        }
+    }
+
+    @Test(expected = CyfaceCompressedDataProcessorException.class)
+    public void testTruncatedArchive() throws CyfaceCompressedDataProcessorException, IOException {
+        byte[] archive = archive("/compressedCyfaceData");
+        CyfaceArchiveReader.read(new ByteArrayInputStream(Arrays.copyOf(archive, archive.length / 2)));
+    }
+}
@@ -0,0 +1,132 @@
+package de.cyface.dataprocessor;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import de.cyface.dataprocessor.CyfaceBatchProcessor.Source;
+import de.cyface.dataprocessor.impl.CyfaceDataProcessorInMemoryImpl;
+
+/**
+ *
+ * @author Philipp Grubitzsch
+ *
+ */
+public class CyfaceBatchProcessorTest {
+
+    CyfaceBatchProcessor proc = null;
+
+    /**
+     * With a budget for a single binary only, all binaries must still be processed, but never two at the same time.
+     */
+    @Test
+    public void testProcessWithinBudget() throws InterruptedException {
+        proc = new CyfaceBatchProcessor(CyfaceDataProcessorInMemoryImpl::new, 4, 1);
+        List<Source> sources = new ArrayList<>();
+        for (String resource : new String[] {"/android-format2019-nowrap-arbitrary.ccyf", "/android-format2018.ccyf",
+                "/ios-uncompressed-20190424.ccyf", "/iphone-working.ccyf", "/nosensordata.ccyf"}) {
+            sources.add(Source.of(new File(this.getClass().getResource(resource).getFile()), true));
+        }
+        sources.add(new Source() {
+            @Override
+            public InputStream open() {
+                return new ByteArrayInputStream(new byte[] {0, 1, 0, 0});
+            }
+
+            @Override
+            public boolean isCompressed() {
+                return false;
+            }
+
+            @Override
+            public long getSize() {
+                return 4;
+            }
+        });
+
+        final AtomicInteger inProcess = new AtomicInteger();
+        final AtomicInteger maxInProcess = new AtomicInteger();
+        final Map<Source, Integer> results = new ConcurrentHashMap<>();
+        final List<Source> failures = new ArrayList<>();
+        proc.process(sources, processor -> {
+            maxInProcess.accumulateAndGet(inProcess.incrementAndGet(), Math::max);
+            int accelerations = processor.pollAccelerationSeries().size();
+            inProcess.decrementAndGet();
+            return accelerations;
+        }, new CyfaceBatchProcessor.Callback<Integer>() {
+            @Override
+            public void onResult(final Source source, final Integer result) {
+                results.put(source, result);
+            }
+
+            @Override
+            public synchronized void onFailure(final Source source, final Exception e) {
+                failures.add(source);
+            }
+        });
+
+        assertThat(results.size(), is(equalTo(5)));
+        assertThat(failures.size(), is(equalTo(1)));
+        assertThat(maxInProcess.get(), is(equalTo(1)));
+        assertThat(results.get(sources.get(4)), is(equalTo(0)));
+    }
+
+    /**
+     * Binaries which can not be submitted to the workers anymore must be reported instead of blocking the caller.
+     */
+    @Test(timeout = 10000)
+    public void testProcessAfterClose() throws InterruptedException {
+        proc = new CyfaceBatchProcessor(CyfaceDataProcessorInMemoryImpl::new, 2, 1);
+        proc.close();
+        List<Source> sources = new ArrayList<>();
+        for (String resource : new String[] {"/android-format2018.ccyf", "/iphone-working.ccyf"}) {
+            sources.add(Source.of(new File(this.getClass().getResource(resource).getFile()), true));
+        }
+
+        final List<Exception> failures = new ArrayList<>();
+        proc.process(sources, CyfaceDataProcessor::getHeader, new CyfaceBatchProcessor.Callback<CyfaceBinaryHeader>() {
+            @Override
+            public void onResult(final Source source, final CyfaceBinaryHeader result) {
+                throw new AssertionError("Binary was processed after close.");
+            }
+
+            @Override
+            public synchronized void onFailure(final Source source, final Exception e) {
+                failures.add(e);
+            }
+        });
+
+        assertThat(failures.size(), is(equalTo(2)));
+        assertThat(failures.get(0) instanceof RejectedExecutionException, is(equalTo(true)));
+    }
+
+    @Test
+    public void testEstimateSize() throws Exception {
+        File file = new File(this.getClass().getResource("/compressedCyfaceData").getFile());
+        // 1711 geo locations, 678 accelerations, 1032 rotations, 2 directions
+        long uncompressedSize = 18 + 1711 * 36 + (678 + 1032 + 2) * 32;
+        assertThat(CyfaceBatchProcessor.estimateSize(Source.of(file, true)),
+                is(equalTo(file.length() + uncompressedSize)));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (proc != null) {
+            proc.close();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package de.cyface.dataprocessor;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.junit.Test;
+
+import de.cyface.dataprocessor.AbstractCyfaceDataProcessor.CyfaceCompressedDataProcessorException;
+import de.cyface.dataprocessor.impl.CyfaceDataProcessorInMemoryImpl;
+
+/**
+ *
+ * @author Philipp Grubitzsch
+ *
+ */
+public class CyfaceBinaryHeaderTest {
+
+    /**
+     * The header read without uncompressing the binary must be the same as the one of an uncompressed binary, for
+     * nowrap, zlib and uncompressed binaries which are flagged as compressed.
+     */
+    @Test
+    public void testReadHeaderOnly() throws CyfaceCompressedDataProcessorException, IOException {
+        for (String resource : new String[] {"/android-format2019-nowrap-arbitrary.ccyf", "/android-format2018.ccyf",
+                "/ios-uncompressed-20190424.ccyf", "/nosensordata.ccyf"}) {
+            CyfaceBinaryHeader header;
+            try (InputStream input = open(resource)) {
+                header = CyfaceBinaryHeader.read(input, true);
+            }
+            try (CyfaceDataProcessor proc = new CyfaceDataProcessorInMemoryImpl(open(resource), true)) {
+                assertThat(resource, header.toString(), is(equalTo(proc.uncompress().getHeader().toString())));
+                assertThat(header.getBeginOfDirectionsIndex(),
+                        is(equalTo(proc.getHeader().getBeginOfDirectionsIndex())));
+            }
+        }
+
+        try (InputStream input = open("/uncompressed.cyf")) {
+            assertThat(CyfaceBinaryHeader.read(input, false).getNumberOfGeoLocations(), is(equalTo(1711)));
+        }
+    }
+
+    @Test(expected = CyfaceCompressedDataProcessorException.class)
+    public void testReadHeaderOfTooShortBinary() throws CyfaceCompressedDataProcessorException, IOException {
+        CyfaceBinaryHeader.read(new ByteArrayInputStream(new byte[] {0, 1, 0, 0}), false);
+    }
+
+    private InputStream open(final String resource) throws IOException {
+        return new FileInputStream(this.getClass().getResource(resource).getFile());
+    }
+}
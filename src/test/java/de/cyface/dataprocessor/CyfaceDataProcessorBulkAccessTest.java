@@ -0,0 +1,433 @@
+package de.cyface.dataprocessor;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+import de.cyface.data.LocationPoint;
+import de.cyface.data.LocationSeries;
+import de.cyface.data.Point3D;
+import de.cyface.data.Point3DSeries;
+import de.cyface.data.SensorDataSlice;
+import de.cyface.dataprocessor.AbstractCyfaceDataProcessor.CyfaceCompressedDataProcessorException;
+import de.cyface.dataprocessor.impl.CyfaceDataProcessorInMemoryImpl;
+import de.cyface.dataprocessor.impl.CyfaceDataProcessorMappedImpl;
+import de.cyface.dataprocessor.impl.CyfaceDataProcessorOffHeapImpl;
+import de.cyface.dataprocessor.impl.CyfaceDataProcessorOnDiskImpl;
+
+/**
+ * Checks the access to multiple sensor values at once for each implementation of the {@link CyfaceDataProcessor}.
+ * The results are compared with those of the single point poll methods.
+ *
+ * @author Philipp Grubitzsch
+ *
+ */
+@RunWith(Parameterized.class)
+public class CyfaceDataProcessorBulkAccessTest {
+
+    static final String FULL_SENSOR_DATA = "/android-format2019-nowrap-arbitrary.ccyf";
+
+    interface ProcessorFactory {
+        CyfaceDataProcessor create(InputStream binaryInputStream, boolean compressed) throws IOException;
+    }
+
+    @Parameters(name = "{0}")
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][] {
+                {"InMemory", (ProcessorFactory)CyfaceDataProcessorInMemoryImpl::new},
+                {"OnDisk", (ProcessorFactory)CyfaceDataProcessorOnDiskImpl::new},
+                {"Mapped", (ProcessorFactory)CyfaceDataProcessorMappedImpl::new},
+                {"OffHeap", (ProcessorFactory)CyfaceDataProcessorOffHeapImpl::new}});
+    }
+
+    @Parameter(0)
+    public String name;
+    @Parameter(1)
+    public ProcessorFactory factory;
+
+    CyfaceDataProcessor proc = null;
+    CyfaceDataProcessor reference = null;
+
+    @Test
+    public void testBatchPollingMatchesSinglePolling() throws CyfaceCompressedDataProcessorException, IOException {
+        proc = open(FULL_SENSOR_DATA);
+        reference = open(FULL_SENSOR_DATA);
+
+        long[] timestamps = new long[1000];
+        double[] latitudes = new double[1000];
+        double[] longitudes = new double[1000];
+        double[] speeds = new double[1000];
+        int[] accuracies = new int[1000];
+        int total = 0;
+        int polled;
+        while ((polled = proc.pollNextLocations(timestamps, latitudes, longitudes, speeds, accuracies, 100)) > 0) {
+            for (int i = 0; i < polled; i++) {
+                LocationPoint expected = reference.pollNextLocationPoint();
+                assertThat(new LocationPoint(accuracies[i], longitudes[i], latitudes[i], speeds[i], timestamps[i])
+                        .toString(), is(equalTo(expected.toString())));
+            }
+            total += polled;
+        }
+        assertThat(total, is(equalTo(proc.getHeader().getNumberOfGeoLocations())));
+
+        double[] x = new double[1000];
+        double[] y = new double[1000];
+        double[] z = new double[1000];
+        total = 0;
+        while ((polled = proc.pollNextAccelerations(timestamps, x, y, z, 1000)) > 0) {
+            for (int i = 0; i < polled; i++) {
+                Point3D expected = reference.pollNextAccelerationPoint();
+                assertThat(new Point3D(Point3D.TypePoint3D.ACC, x[i], y[i], z[i], timestamps[i]).toString(),
+                        is(equalTo(expected.toString())));
+            }
+            total += polled;
+        }
+        assertThat(total, is(equalTo(proc.getHeader().getNumberOfAccelerations())));
+        assertThat(proc.pollNextAccelerations(timestamps, x, y, z, 1000), is(equalTo(0)));
+
+        assertThat(countBatches(proc, Point3D.TypePoint3D.ROT), is(equalTo(proc.getHeader().getNumberOfRotations())));
+        assertThat(countBatches(proc, Point3D.TypePoint3D.DIR),
+                is(equalTo(proc.getHeader().getNumberOfDirections())));
+    }
+
+    @Test
+    public void testBatchPollingContinuesSinglePolling() throws CyfaceCompressedDataProcessorException, IOException {
+        proc = open(FULL_SENSOR_DATA);
+        reference = open(FULL_SENSOR_DATA);
+
+        assertThat(proc.pollNextRotationPoint().toString(), is(equalTo(reference.pollNextRotationPoint().toString())));
+        long[] timestamps = new long[3];
+        double[] x = new double[3];
+        double[] y = new double[3];
+        double[] z = new double[3];
+        assertThat(proc.pollNextRotations(timestamps, x, y, z, 3), is(equalTo(3)));
+        for (int i = 0; i < 3; i++) {
+            assertThat(timestamps[i], is(equalTo(reference.pollNextRotationPoint().getTimestamp())));
+        }
+        assertThat(proc.pollNextRotationPoint().toString(), is(equalTo(reference.pollNextRotationPoint().toString())));
+    }
+
+    @Test
+    public void testBatchPollingWithoutSensorData() throws CyfaceCompressedDataProcessorException, IOException {
+        proc = open("/nosensordata.ccyf");
+
+        assertThat(proc.pollNextLocations(new long[1], new double[1], new double[1], new double[1], new int[1], 1),
+                is(equalTo(0)));
+        assertThat(countBatches(proc, Point3D.TypePoint3D.ACC), is(equalTo(0)));
+    }
+
+    @Test
+    public void testPollSeries() throws CyfaceCompressedDataProcessorException, IOException {
+        proc = open(FULL_SENSOR_DATA);
+        reference = open(FULL_SENSOR_DATA);
+
+        // the series contains the remaining points only
+        assertThat(proc.pollNextLocationPoint().toString(), is(equalTo(reference.pollNextLocationPoint().toString())));
+        LocationSeries locations = proc.pollLocationSeries();
+        assertThat(locations.size(), is(equalTo(proc.getHeader().getNumberOfGeoLocations() - 1)));
+        for (LocationPoint location : locations.toList()) {
+            assertThat(location.toString(), is(equalTo(reference.pollNextLocationPoint().toString())));
+        }
+        assertThat(proc.pollLocationSeries().size(), is(equalTo(0)));
+
+        Point3DSeries accelerations = proc.pollAccelerationSeries();
+        assertThat(accelerations.size(), is(equalTo(proc.getHeader().getNumberOfAccelerations())));
+        for (int i = 0; i < accelerations.size(); i++) {
+            assertThat(accelerations.get(i).toString(),
+                    is(equalTo(reference.pollNextAccelerationPoint().toString())));
+        }
+        Point3DSeries slice = accelerations.slice(10, 20);
+        assertThat(slice.size(), is(equalTo(10)));
+        assertThat(slice.getTimestamp(0), is(equalTo(accelerations.getTimestamp(10))));
+        assertThat(slice.getZ(9), is(equalTo(accelerations.getZ(19))));
+
+        assertThat(proc.pollRotationSeries().size(), is(equalTo(proc.getHeader().getNumberOfRotations())));
+        Point3DSeries directions = proc.pollDirectionSeries();
+        assertThat(directions.size(), is(equalTo(proc.getHeader().getNumberOfDirections())));
+        assertThat(directions.getType(), is(equalTo(Point3D.TypePoint3D.DIR)));
+    }
+
+    @Test
+    public void testCursorsMatchSinglePolling() throws CyfaceCompressedDataProcessorException, IOException {
+        proc = open(FULL_SENSOR_DATA);
+        reference = open(FULL_SENSOR_DATA);
+
+        // the cursor starts after the already polled geo location
+        assertThat(proc.pollNextLocationPoint().toString(), is(equalTo(reference.pollNextLocationPoint().toString())));
+        LocationCursor locations = proc.locationCursor();
+        int count = 1;
+        while (locations.next()) {
+            LocationPoint expected = reference.pollNextLocationPoint();
+            assertThat(new LocationPoint(locations.accuracy(), locations.longitude(), locations.latitude(),
+                    locations.speed(), locations.timestamp()).toString(), is(equalTo(expected.toString())));
+            count++;
+        }
+        assertThat(count, is(equalTo(proc.getHeader().getNumberOfGeoLocations())));
+        assertThat(locations.next(), is(equalTo(false)));
+
+        Point3DCursor accelerations = proc.accelerationCursor();
+        count = 0;
+        while (accelerations.next()) {
+            Point3D expected = reference.pollNextAccelerationPoint();
+            assertThat(new Point3D(accelerations.type(), accelerations.x(), accelerations.y(), accelerations.z(),
+                    accelerations.timestamp()).toString(), is(equalTo(expected.toString())));
+            count++;
+        }
+        assertThat(count, is(equalTo(proc.getHeader().getNumberOfAccelerations())));
+
+        Point3DCursor directions = proc.directionCursor();
+        count = 0;
+        while (directions.next()) {
+            assertThat(directions.toPoint3D().getType(), is(equalTo(Point3D.TypePoint3D.DIR)));
+            count++;
+        }
+        assertThat(count, is(equalTo(proc.getHeader().getNumberOfDirections())));
+    }
+
+    @Test
+    public void testCursorWithoutSensorData() throws CyfaceCompressedDataProcessorException, IOException {
+        proc = open("/nosensordata.ccyf");
+
+        assertThat(proc.locationCursor().next(), is(equalTo(false)));
+        assertThat(proc.rotationCursor().next(), is(equalTo(false)));
+    }
+
+    @Test
+    public void testRandomAccessMatchesSeries() throws CyfaceCompressedDataProcessorException, IOException {
+        proc = open(FULL_SENSOR_DATA);
+        reference = open(FULL_SENSOR_DATA);
+        CyfaceBinaryHeader header = proc.getHeader();
+
+        LocationSeries locations = reference.pollLocationSeries();
+        Point3DSeries accelerations = reference.pollAccelerationSeries();
+        Point3DSeries rotations = reference.pollRotationSeries();
+        Point3DSeries directions = reference.pollDirectionSeries();
+
+        int lastLocation = header.getNumberOfGeoLocations() - 1;
+        assertThat(proc.getLocationAt(lastLocation).toString(), is(equalTo(locations.get(lastLocation).toString())));
+        assertThat(proc.getAccelerationAt(0).toString(), is(equalTo(accelerations.get(0).toString())));
+        assertThat(proc.getRotationAt(7).toString(), is(equalTo(rotations.get(7).toString())));
+        int lastDirection = header.getNumberOfDirections() - 1;
+        assertThat(proc.getDirectionAt(lastDirection).toString(),
+                is(equalTo(directions.get(lastDirection).toString())));
+
+        // random access does not affect polling
+        assertThat(proc.pollNextAccelerationPoint().toString(), is(equalTo(accelerations.get(0).toString())));
+
+        Point3DSeries window = proc.readAccelerations(100, 150);
+        assertThat(window.size(), is(equalTo(50)));
+        for (int i = 0; i < window.size(); i++) {
+            assertThat(window.get(i).toString(), is(equalTo(accelerations.get(100 + i).toString())));
+        }
+        LocationSeries locationWindow = proc.readLocations(1, 3);
+        assertThat(locationWindow.get(1).toString(), is(equalTo(locations.get(2).toString())));
+        assertThat(proc.readRotations(5, 5).size(), is(equalTo(0)));
+        assertThat(proc.readDirections(0, header.getNumberOfDirections()).size(),
+                is(equalTo(header.getNumberOfDirections())));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testRandomAccessOutOfRange() throws CyfaceCompressedDataProcessorException, IOException {
+        proc = open(FULL_SENSOR_DATA);
+        proc.getAccelerationAt(proc.getHeader().getNumberOfAccelerations());
+    }
+
+    @Test
+    public void testSliceByTime() throws CyfaceCompressedDataProcessorException, IOException {
+        proc = open(FULL_SENSOR_DATA);
+        reference = open(FULL_SENSOR_DATA);
+        Point3DSeries accelerations = reference.pollAccelerationSeries();
+        LocationSeries locations = reference.pollLocationSeries();
+
+        long from = accelerations.getTimestamp(200);
+        long to = accelerations.getTimestamp(400);
+        SensorDataSlice slice = proc.sliceByTime(from, to);
+        Point3DSeries window = slice.getAccelerations();
+        assertThat(window.getTimestamp(0), is(equalTo(from)));
+        assertThat(window.getTimestamp(window.size() - 1) < to, is(equalTo(true)));
+        int expectedSize = 0;
+        for (int i = 0; i < accelerations.size(); i++) {
+            long timestamp = accelerations.getTimestamp(i);
+            if (timestamp >= from && timestamp < to) {
+                expectedSize++;
+            }
+        }
+        assertThat(window.size(), is(equalTo(expectedSize)));
+        for (int i = 0; i < slice.getLocations().size(); i++) {
+            long timestamp = slice.getLocations().getTimestamp(i);
+            assertThat(timestamp >= from && timestamp < to, is(equalTo(true)));
+        }
+
+        // the whole measurement
+        SensorDataSlice all = proc.sliceByTime(Long.MIN_VALUE, Long.MAX_VALUE);
+        assertThat(all.getLocations().size(), is(equalTo(locations.size())));
+        assertThat(all.getDirections().size(), is(equalTo(proc.getHeader().getNumberOfDirections())));
+        assertThat(proc.sliceByTime(from, from).getAccelerations().size(), is(equalTo(0)));
+    }
+
+    @Test
+    public void testConcurrentSections() throws CyfaceCompressedDataProcessorException, IOException {
+        AbstractCyfaceDataProcessor concurrent = (AbstractCyfaceDataProcessor)factory.create(
+                new FileInputStream(this.getClass().getResource(FULL_SENSOR_DATA).getFile()), true);
+        concurrent.setSectionPool(ForkJoinPool.commonPool());
+        proc = concurrent.uncompressAndPrepare();
+        reference = open(FULL_SENSOR_DATA);
+
+        SensorDataSlice all = proc.sliceByTime(Long.MIN_VALUE, Long.MAX_VALUE);
+        assertThat(all.getRotations().size(), is(equalTo(proc.getHeader().getNumberOfRotations())));
+        assertThat(all.getDirections().get(0).toString(), is(equalTo(reference.getDirectionAt(0).toString())));
+
+        // sections split concurrently must be the same as those split one after another
+        assertThat(proc.pollLocationSeries().toList().toString(),
+                is(equalTo(reference.pollLocationSeries().toList().toString())));
+        assertThat(proc.pollAccelerationSeries().toList().toString(),
+                is(equalTo(reference.pollAccelerationSeries().toList().toString())));
+        assertThat(proc.pollRotationSeries().toList().toString(),
+                is(equalTo(reference.pollRotationSeries().toList().toString())));
+        assertThat(proc.pollDirectionSeries().toList().toString(),
+                is(equalTo(reference.pollDirectionSeries().toList().toString())));
+    }
+
+    @Test
+    public void testStreamsMatchSinglePolling() throws CyfaceCompressedDataProcessorException, IOException {
+        proc = open(FULL_SENSOR_DATA);
+        reference = open(FULL_SENSOR_DATA);
+
+        for (LocationPoint point : proc.locations().collect(Collectors.toList())) {
+            assertThat(point.toString(), is(equalTo(reference.pollNextLocationPoint().toString())));
+        }
+        assertThat(reference.pollNextLocationPoint(), is(equalTo(null)));
+        for (Point3D point : proc.accelerations().collect(Collectors.toList())) {
+            assertThat(point.toString(), is(equalTo(reference.pollNextAccelerationPoint().toString())));
+        }
+        assertThat(reference.pollNextAccelerationPoint(), is(equalTo(null)));
+        assertThat(proc.rotations().count(), is(equalTo((long)proc.getHeader().getNumberOfRotations())));
+        assertThat(proc.directions().count(), is(equalTo((long)proc.getHeader().getNumberOfDirections())));
+    }
+
+    @Test
+    public void testParallelStreamMatchesSequentialStream() throws CyfaceCompressedDataProcessorException, IOException {
+        proc = open(FULL_SENSOR_DATA);
+
+        Spliterator<Point3D> spliterator = proc.accelerations().spliterator();
+        assertThat(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED), is(true));
+        assertThat(spliterator.getExactSizeIfKnown(), is(equalTo((long)proc.getHeader().getNumberOfAccelerations())));
+
+        List<String> sequential = proc.accelerations().map(Point3D::toString).collect(Collectors.toList());
+        List<String> parallel = proc.accelerations().parallel().map(Point3D::toString).collect(Collectors.toList());
+        assertThat(parallel, is(equalTo(sequential)));
+        assertThat(proc.locations().parallel().mapToLong(LocationPoint::getTimestamp).sum(),
+                is(equalTo(proc.locations().mapToLong(LocationPoint::getTimestamp).sum())));
+    }
+
+    @Test
+    public void testMergedCursorVisitsAllEntriesInTimestampOrder()
+            throws CyfaceCompressedDataProcessorException, IOException {
+        proc = open(FULL_SENSOR_DATA);
+        reference = open(FULL_SENSOR_DATA);
+
+        Map<CyfaceBinarySection, Integer> visited = new EnumMap<>(CyfaceBinarySection.class);
+        MergedCursor cursor = proc.mergedCursor();
+        long previous = Long.MIN_VALUE;
+        while (cursor.next()) {
+            assertThat(cursor.timestamp() >= previous, is(true));
+            previous = cursor.timestamp();
+            visited.merge(cursor.section(), 1, Integer::sum);
+            // each section is visited in file order
+            switch (cursor.section()) {
+                case LOCATIONS:
+                    assertThat(cursor.location().toLocationPoint().toString(),
+                            is(equalTo(reference.pollNextLocationPoint().toString())));
+                    break;
+                case ACCELERATIONS:
+                    assertThat(cursor.point3D().toPoint3D().toString(),
+                            is(equalTo(reference.pollNextAccelerationPoint().toString())));
+                    break;
+                case ROTATIONS:
+                    assertThat(cursor.point3D().toPoint3D().toString(),
+                            is(equalTo(reference.pollNextRotationPoint().toString())));
+                    break;
+                default:
+                    assertThat(cursor.point3D().toPoint3D().toString(),
+                            is(equalTo(reference.pollNextDirectionPoint().toString())));
+            }
+        }
+        assertThat(cursor.next(), is(equalTo(false)));
+        CyfaceBinaryHeader header = proc.getHeader();
+        for (CyfaceBinarySection section : CyfaceBinarySection.values()) {
+            assertThat(visited.getOrDefault(section, 0), is(equalTo(header.getNumberOfEntries(section))));
+        }
+    }
+
+    @Test
+    public void testMergedCursorWithoutSensorData() throws CyfaceCompressedDataProcessorException, IOException {
+        proc = open("/nosensordata.ccyf");
+
+        assertThat(proc.mergedCursor().next(), is(equalTo(false)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBatchPollingWithTooSmallArrays() throws CyfaceCompressedDataProcessorException, IOException {
+        proc = open(FULL_SENSOR_DATA);
+        proc.pollNextAccelerations(new long[10], new double[10], new double[9], new double[10], 10);
+    }
+
+    CyfaceDataProcessor open(final String resource) throws CyfaceCompressedDataProcessorException, IOException {
+        CyfaceDataProcessor processor = factory
+                .create(new FileInputStream(this.getClass().getResource(resource).getFile()), true);
+        return processor.uncompressAndPrepare();
+    }
+
+    private int countBatches(final CyfaceDataProcessor processor, final Point3D.TypePoint3D type)
+            throws CyfaceCompressedDataProcessorException, IOException {
+        long[] timestamps = new long[512];
+        double[] x = new double[512];
+        double[] y = new double[512];
+        double[] z = new double[512];
+        int total = 0;
+        int polled;
+        do {
+            switch (type) {
+                case ACC:
+                    polled = processor.pollNextAccelerations(timestamps, x, y, z, 512);
+                    break;
+                case ROT:
+                    polled = processor.pollNextRotations(timestamps, x, y, z, 512);
+                    break;
+                default:
+                    polled = processor.pollNextDirections(timestamps, x, y, z, 512);
+            }
+            total += polled;
+        } while (polled > 0);
+        return total;
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (proc != null) {
+            proc.close();
+        }
+        if (reference != null) {
+            reference.close();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package de.cyface.dataprocessor;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertEquals;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+import de.cyface.data.LocationPoint;
+import de.cyface.data.Point3D;
+import de.cyface.dataprocessor.AbstractCyfaceDataProcessor.CyfaceCompressedDataProcessorException;
+import de.cyface.dataprocessor.CyfaceDataProcessorBulkAccessTest.ProcessorFactory;
+import de.cyface.dataprocessor.impl.CyfaceDataProcessorMappedImpl;
+import de.cyface.dataprocessor.impl.CyfaceDataProcessorOffHeapImpl;
+import de.cyface.dataprocessor.impl.CyfaceDataProcessorOnDiskImpl;
+
+/**
+ * Checks the implementations of the {@link AbstractByteBufferCyfaceDataProcessor}, which read the sensor data from
+ * views of a buffer instead of temp bins.
+ *
+ * @author Philipp Grubitzsch
+ *
+ */
+@RunWith(Parameterized.class)
+public class CyfaceDataProcessorByteBufferTest {
+
+    @Parameters(name = "{0}")
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][] {
+                {"Mapped", (ProcessorFactory)CyfaceDataProcessorMappedImpl::new},
+                {"OffHeap", (ProcessorFactory)CyfaceDataProcessorOffHeapImpl::new}});
+    }
+
+    @Parameter(0)
+    public String name;
+    @Parameter(1)
+    public ProcessorFactory factory;
+
+    FileInputStream fileInputStream;
+    CyfaceDataProcessor proc = null;
+
+    @Test
+    public void testUncompressCyfaceBinary() throws CyfaceCompressedDataProcessorException, IOException {
+        fileInputStream = new FileInputStream(this.getClass().getResource("/compressedCyfaceData").getFile());
+        proc = factory.create(fileInputStream, true);
+        proc.uncompressAndPrepare();
+
+        assertEquals(116398, proc.getUncompressedBinaryAsArray().length);
+        assertThat(proc.getHeader().getFormatVersion(), is(equalTo((short)1)));
+        assertThat(proc.getHeader().getNumberOfGeoLocations(), is(equalTo(1711)));
+        assertThat(proc.getHeader().getNumberOfAccelerations(), is(equalTo(678)));
+        assertThat(proc.getHeader().getNumberOfRotations(), is(equalTo(1032)));
+        assertThat(proc.getHeader().getNumberOfDirections(), is(equalTo(2)));
+
+        assertThat(proc.pollNextLocationPoint().toString(), is(equalTo(
+                "timestamp=1521631263237,lon=13.728253648287687,lat=51.03168352640331,speed=0.18293093144893646,accuracy=1200")));
+        assertThat(proc.pollNextAccelerationPoint().toString(), is(equalTo(
+                "timestamp=1521631261383,x=-0.4956148862838745,y=3.8332340717315674,z=13.800600051879883,sensortype=ACC")));
+        assertThat(proc.pollNextRotationPoint().toString(), is(equalTo(
+                "timestamp=1521631263777,x=0.24593007564544678,y=-0.20202352106571198,z=0.5091384649276733,sensortype=ROT")));
+        assertEquals(proc.pollNextDirectionPoint().toString(),
+                "timestamp=1521632513534,x=-41.099998474121094,y=10.319999694824219,z=-7.619999885559082,sensortype=DIR");
+    }
+
+    @Test
+    public void testDeserializeUncompressedCyfaceData() throws CyfaceCompressedDataProcessorException, IOException {
+        fileInputStream = new FileInputStream(this.getClass().getResource("/uncompressed.cyf").getFile());
+        proc = factory.create(fileInputStream, false);
+        proc.uncompressAndPrepare();
+
+        assertEquals(116398, proc.getUncompressedBinaryAsArray().length);
+        assertThat(proc.pollNextLocationPoint().toString(), is(equalTo(
+                "timestamp=1521631263237,lon=13.728253648287687,lat=51.03168352640331,speed=0.18293093144893646,accuracy=1200")));
+    }
+
+    /**
+     * All points must be read in the same order as by the on-disk implementation, even for sections ending within a
+     * read buffer.
+     *
+     * @throws CyfaceCompressedDataProcessorException
+     * @throws IOException
+     */
+    @Test
+    public void testSameResultAsOnDiskProcessing() throws CyfaceCompressedDataProcessorException, IOException {
+        for (String resource : new String[] {"/android-format2019-nowrap-arbitrary.ccyf",
+                "/ios-uncompressed-20190424.ccyf", "/nosensordata.ccyf"}) {
+            proc = factory.create(new FileInputStream(this.getClass().getResource(resource).getFile()), true);
+            proc.uncompressAndPrepare();
+            try (CyfaceDataProcessor reference = new CyfaceDataProcessorOnDiskImpl(
+                    new FileInputStream(this.getClass().getResource(resource).getFile()), true)) {
+                reference.uncompressAndPrepare();
+
+                LocationPoint locationPoint;
+                while ((locationPoint = reference.pollNextLocationPoint()) != null) {
+                    assertThat(proc.pollNextLocationPoint().toString(), is(equalTo(locationPoint.toString())));
+                }
+                assertThat(proc.pollNextLocationPoint(), is(equalTo(null)));
+                Point3D point;
+                while ((point = reference.pollNextAccelerationPoint()) != null) {
+                    assertThat(proc.pollNextAccelerationPoint().toString(), is(equalTo(point.toString())));
+                }
+                while ((point = reference.pollNextRotationPoint()) != null) {
+                    assertThat(proc.pollNextRotationPoint().toString(), is(equalTo(point.toString())));
+                }
+                while ((point = reference.pollNextDirectionPoint()) != null) {
+                    assertThat(proc.pollNextDirectionPoint().toString(), is(equalTo(point.toString())));
+                }
+                assertThat(proc.pollNextAccelerationPoint(), is(equalTo(null)));
+                assertThat(proc.pollNextRotationPoint(), is(equalTo(null)));
+                assertThat(proc.pollNextDirectionPoint(), is(equalTo(null)));
+            }
+            proc.close();
+            proc = null;
+        }
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (proc != null) {
+            proc.close();
+        }
+    }
+}
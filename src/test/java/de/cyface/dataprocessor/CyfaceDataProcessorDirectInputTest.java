@@ -0,0 +1,114 @@
+package de.cyface.dataprocessor;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+import de.cyface.dataprocessor.AbstractCyfaceDataProcessor.CyfaceCompressedDataProcessorException;
+import de.cyface.dataprocessor.impl.CyfaceDataProcessorInMemoryImpl;
+import de.cyface.dataprocessor.impl.CyfaceDataProcessorMappedImpl;
+import de.cyface.dataprocessor.impl.CyfaceDataProcessorOnDiskImpl;
+
+/**
+ * Checks that the file based processors provide the same binary, if they read their input directly from a file or
+ * stream instead of copying it to a temp file first.
+ *
+ * @author Philipp Grubitzsch
+ *
+ */
+@RunWith(Parameterized.class)
+public class CyfaceDataProcessorDirectInputTest {
+
+    static final String[] BINARIES = {"/android-format2019-nowrap-arbitrary.ccyf", "/android-format2018.ccyf",
+            "/iphone-working.ccyf", "/cyfaceDDLE.ccyf", "/nosensordata.ccyf", "/uncompressed.cyf"};
+
+    interface DirectProcessorFactory {
+        CyfaceDataProcessor create(File binary, boolean compressed) throws IOException;
+    }
+
+    @Parameters(name = "{0}")
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][] {
+                {"OnDisk-File", (DirectProcessorFactory)CyfaceDataProcessorOnDiskImpl::fromFile},
+                {"OnDisk-Stream", (DirectProcessorFactory)(binary,
+                        compressed) -> new CyfaceDataProcessorOnDiskImpl(new FileInputStream(binary), compressed,
+                                false)},
+                {"Mapped-File", (DirectProcessorFactory)CyfaceDataProcessorMappedImpl::fromFile},
+                {"Mapped-Stream", (DirectProcessorFactory)(binary,
+                        compressed) -> new CyfaceDataProcessorMappedImpl(new FileInputStream(binary), compressed,
+                                false)}});
+    }
+
+    @Parameter(0)
+    public String name;
+    @Parameter(1)
+    public DirectProcessorFactory factory;
+
+    @Test
+    public void testDirectInputMatchesSpooledInput()
+            throws CyfaceCompressedDataProcessorException, IOException, URISyntaxException {
+        for (String binary : BINARIES) {
+            File file = new File(getClass().getResource(binary).toURI());
+            try (CyfaceDataProcessor proc = factory.create(file, true);
+                    CyfaceDataProcessor reference = new CyfaceDataProcessorInMemoryImpl(new FileInputStream(file),
+                            true)) {
+                proc.uncompress();
+                reference.uncompress();
+                assertThat(binary, proc.getUncompressedBinaryAsArray(),
+                        is(equalTo(reference.getUncompressedBinaryAsArray())));
+            }
+        }
+    }
+
+    @Test
+    public void testUncompressedInput() throws CyfaceCompressedDataProcessorException, IOException, URISyntaxException {
+        File file = new File(getClass().getResource("/uncompressed.cyf").toURI());
+        try (CyfaceDataProcessor proc = factory.create(file, false)) {
+            proc.uncompressAndPrepare();
+            assertThat(proc.getHeader().getNumberOfGeoLocations() > 0, is(true));
+        }
+    }
+
+    /**
+     * The format of this input can not be detected, so it is copied to retry different formats.
+     */
+    @Test(expected = CyfaceCompressedDataProcessorException.class)
+    public void testUndetectableInputIsRetried() throws CyfaceCompressedDataProcessorException, IOException {
+        File file = File.createTempFile("undetectable", ".ccyf");
+        try {
+            byte[] garbage = new byte[20000];
+            Arrays.fill(garbage, (byte)0xFF);
+            Files.write(file.toPath(), garbage);
+            try (CyfaceDataProcessor proc = factory.create(file, true)) {
+                proc.uncompress();
+            }
+        } finally {
+            Files.delete(file.toPath());
+        }
+    }
+
+    @Test
+    public void testInputFileIsKept() throws CyfaceCompressedDataProcessorException, IOException, URISyntaxException {
+        File file = new File(getClass().getResource(BINARIES[0]).toURI());
+        long length = file.length();
+        try (CyfaceDataProcessor proc = factory.create(file, true)) {
+            proc.uncompressAndPrepare();
+        }
+        assertThat(file.isFile(), is(true));
+        assertThat(file.length(), is(equalTo(length)));
+    }
+}
@@ -9,6 +9,7 @@ import org.junit.Test;
 
 import de.cyface.dataprocessor.AbstractCyfaceDataProcessor.CyfaceCompressedDataProcessorException;
 import de.cyface.dataprocessor.impl.CyfaceDataProcessorInMemoryImpl;
+import de.cyface.dataprocessor.impl.CyfaceDataProcessorMappedImpl;
 import de.cyface.dataprocessor.impl.CyfaceDataProcessorOnDiskImpl;
 
 /**
@@ -54,6 +55,19 @@ public class CyfaceDataProcessorNoDataTest {
         oocut.close();
     }
 
+    @Test
+    public void testNoSensorDataMapped() throws IOException, CyfaceCompressedDataProcessorException {
+        fileInputStream = new FileInputStream(this.getClass().getResource("/nosensordata.ccyf").getFile());
+        oocut = new CyfaceDataProcessorMappedImpl(fileInputStream, true);
+        oocut.uncompressAndPrepare();
+        assertEquals(oocut.pollNextLocationPoint(), null);
+        assertEquals(oocut.pollNextDirectionPoint(), null);
+        assertEquals(oocut.pollNextRotationPoint(), null);
+        assertEquals(oocut.pollNextAccelerationPoint(), null);
+        printOutHeaderInfo(oocut);
+        oocut.close();
+    }
+
     private void printOutHeaderInfo(CyfaceDataProcessor proc)
             throws CyfaceCompressedDataProcessorException, IOException {
         byte[] individualBytes = proc.getUncompressedBinaryAsArray();
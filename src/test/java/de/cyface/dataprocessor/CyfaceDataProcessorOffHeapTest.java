@@ -0,0 +1,185 @@
+package de.cyface.dataprocessor;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Test;
+
+import de.cyface.data.ByteSizes;
+import de.cyface.data.Point3D;
+import de.cyface.data.SensorDataSlice;
+import de.cyface.dataprocessor.AbstractCyfaceDataProcessor.CyfaceCompressedDataProcessorException;
+import de.cyface.dataprocessor.impl.CyfaceDataProcessorInMemoryImpl;
+import de.cyface.dataprocessor.impl.CyfaceDataProcessorOffHeapImpl;
+
+/**
+ * Checks the lifecycle of the direct memory of the {@link CyfaceDataProcessorOffHeapImpl}. Reading the sensor data is
+ * checked by the {@link CyfaceDataProcessorByteBufferTest}.
+ *
+ * @author Philipp Grubitzsch
+ *
+ */
+public class CyfaceDataProcessorOffHeapTest {
+
+    private static final String FULL_SENSOR_DATA = CyfaceDataProcessorBulkAccessTest.FULL_SENSOR_DATA;
+
+    CyfaceDataProcessor proc = null;
+    CyfaceDataProcessor reference = null;
+
+    /**
+     * The direct memory must be released by close() itself, without waiting for a garbage collection.
+     */
+    @Test
+    public void testCloseReleasesDirectMemory() throws CyfaceCompressedDataProcessorException, IOException {
+        proc = new CyfaceDataProcessorOffHeapImpl(open(FULL_SENSOR_DATA), true).uncompressAndPrepare();
+        final long binarySize = proc.getHeader().getBinarySize();
+        final long used = directMemoryUsed();
+
+        proc.close();
+        proc = null;
+        assertThat(used - directMemoryUsed() >= binarySize, is(equalTo(true)));
+    }
+
+    /**
+     * Cursors and streams which were created before the processor was closed must not read the released memory.
+     * Slices contain copies of the sensor data, so they stay readable.
+     */
+    @Test
+    public void testViewsFailFastAfterClose() throws CyfaceCompressedDataProcessorException, IOException {
+        proc = new CyfaceDataProcessorOffHeapImpl(open(FULL_SENSOR_DATA), true).uncompressAndPrepare();
+        reference = new CyfaceDataProcessorInMemoryImpl(open(FULL_SENSOR_DATA), true).uncompressAndPrepare();
+
+        final Point3DCursor cursor = proc.accelerationCursor();
+        assertThat(cursor.next(), is(equalTo(true)));
+        final LocationCursor locations = proc.locationCursor();
+        final Stream<Point3D> rotations = proc.rotations();
+        final SensorDataSlice slice = proc.sliceByTime(Long.MIN_VALUE, Long.MAX_VALUE);
+        final CyfaceDataProcessor closed = proc;
+        proc.close();
+        proc = null;
+
+        assertFailsFast(cursor::x);
+        assertFailsFast(cursor::next);
+        assertFailsFast(locations::next);
+        assertFailsFast(() -> rotations.map(Point3D::getX).reduce(Double::sum));
+        assertFailsFast(closed::pollNextLocationPoint);
+        assertFailsFast(() -> closed.getAccelerationAt(0));
+        assertThat(slice.getDirections().get(0).toString(), is(equalTo(reference.getDirectionAt(0).toString())));
+    }
+
+    @Test
+    public void testCloseTwice() throws CyfaceCompressedDataProcessorException, IOException {
+        proc = new CyfaceDataProcessorOffHeapImpl(open(FULL_SENSOR_DATA), true).uncompressAndPrepare();
+        proc.close();
+        proc.close();
+        proc = null;
+    }
+
+    /**
+     * The compressed input is read in small chunks, so its buffer grows many times. None of the bytes written before
+     * may get lost on growing.
+     */
+    @Test
+    public void testGrowKeepsCompressedInput() throws CyfaceCompressedDataProcessorException, IOException {
+        proc = new CyfaceDataProcessorOffHeapImpl(new FilterInputStream(open(FULL_SENSOR_DATA)) {
+            @Override
+            public int read(final byte[] b, final int off, final int len) throws IOException {
+                return super.read(b, off, Math.min(len, 1000));
+            }
+        }, true).uncompressAndPrepare();
+        reference = new CyfaceDataProcessorInMemoryImpl(open(FULL_SENSOR_DATA), true).uncompressAndPrepare();
+
+        assertThat(Arrays.equals(proc.getUncompressedBinaryAsArray(), reference.getUncompressedBinaryAsArray()),
+                is(equalTo(true)));
+    }
+
+    /**
+     * The uncompressed binary is presized by its header. If the header announces less data than the binary contains,
+     * the buffer grows beyond the presized capacity and keeps the bytes written before.
+     */
+    @Test
+    public void testGrowBeyondHeader() throws CyfaceCompressedDataProcessorException, IOException {
+        final byte[] binary = Files.readAllBytes(Paths.get(this.getClass().getResource("/uncompressed.cyf").getFile()));
+        // announce no directions instead of two
+        final byte[] shortened = binary.clone();
+        Arrays.fill(shortened, 14, 18, (byte)0);
+        proc = new CyfaceDataProcessorOffHeapImpl(new ByteArrayInputStream(shortened), false).uncompressAndPrepare();
+
+        assertThat(proc.getHeader().getNumberOfDirections(), is(equalTo(0)));
+        final byte[] uncompressed = proc.getUncompressedBinaryAsArray();
+        assertThat(uncompressed.length, is(equalTo(binary.length)));
+        assertThat(Arrays.equals(Arrays.copyOfRange(uncompressed, 18, uncompressed.length),
+                Arrays.copyOfRange(binary, 18, binary.length)), is(equalTo(true)));
+        assertThat(proc.pollNextDirectionPoint(), is(equalTo(null)));
+    }
+
+    /**
+     * A forged header must not make the processor reserve the announced size of direct memory up front.
+     */
+    @Test
+    public void testForgedHeaderIsNotPresized() throws CyfaceCompressedDataProcessorException, IOException {
+        // a header announcing 50 million geo locations of 36 bytes each, without any data
+        final ByteBuffer header = ByteBuffer.allocate(ByteSizes.BYTES_IN_HEADER);
+        header.putShort((short)1).putInt(50000000).putInt(0).putInt(0).putInt(0);
+        proc = new CyfaceDataProcessorOffHeapImpl(new ByteArrayInputStream(header.array()), false)
+                .uncompressAndPrepare();
+
+        assertThat(proc.getHeader().getNumberOfGeoLocations(), is(equalTo(50000000)));
+        assertThat(proc.getUncompressedBinaryAsArray().length, is(equalTo(ByteSizes.BYTES_IN_HEADER)));
+        assertThat(proc.pollNextLocationPoint(), is(equalTo(null)));
+    }
+
+    interface Access {
+        Object run() throws Exception;
+    }
+
+    private static void assertFailsFast(final Access access) {
+        try {
+            access.run();
+            fail("Closed processor was read.");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is(equalTo("Processor is closed.")));
+        } catch (Exception e) {
+            throw new AssertionError("Closed processor failed with " + e, e);
+        }
+    }
+
+    private static long directMemoryUsed() {
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (pool.getName().equals("direct")) {
+                return pool.getMemoryUsed();
+            }
+        }
+        throw new AssertionError("No pool of direct buffers.");
+    }
+
+    private InputStream open(final String resource) throws IOException {
+        return new FileInputStream(this.getClass().getResource(resource).getFile());
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (proc != null) {
+            proc.close();
+        }
+        if (reference != null) {
+            reference.close();
+        }
+    }
+}
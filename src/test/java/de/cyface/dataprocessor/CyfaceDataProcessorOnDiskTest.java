@@ -7,8 +7,10 @@ import static org.junit.Assert.assertEquals;
 
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.stream.Stream;
 
 import org.junit.After;
 import org.junit.Before;
@@ -16,7 +18,9 @@ import org.junit.Test;
 
 import de.cyface.data.LocationPoint;
 import de.cyface.data.Point3D;
+import de.cyface.data.SensorDataSlice;
 import de.cyface.dataprocessor.AbstractCyfaceDataProcessor.CyfaceCompressedDataProcessorException;
+import de.cyface.dataprocessor.impl.CyfaceDataProcessorInMemoryImpl;
 import de.cyface.dataprocessor.impl.CyfaceDataProcessorOnDiskImpl;
 
 /**
@@ -270,6 +274,106 @@ public class CyfaceDataProcessorOnDiskTest {
                 processNanoTime / 1000000 + " ms - " + processNanoTime / count + " ns/item - " + count + " items");
     }
 
+    /**
+     * A stream reads the uncompressed temp file lazily, which is deleted when the processor is closed.
+     *
+     * @throws CyfaceCompressedDataProcessorException
+     * @throws IOException
+     */
+    @Test(expected = UncheckedIOException.class)
+    public void testStreamAfterClose() throws CyfaceCompressedDataProcessorException, IOException {
+        fileInputStream = new FileInputStream(this.getClass().getResource("/compressedCyfaceData").getFile());
+        proc = new CyfaceDataProcessorOnDiskImpl(fileInputStream, true);
+        proc.uncompressAndPrepare();
+        Stream<Point3D> accelerations = proc.accelerations();
+        proc.close();
+        proc = null;
+
+        accelerations.forEach(point -> {
+        });
+    }
+
+    /**
+     * Random access reads the uncompressed temp file at arbitrary positions, independent of the entries polled.
+     *
+     * @throws CyfaceCompressedDataProcessorException
+     * @throws IOException
+     */
+    @Test
+    public void testRandomAccessMatchesPolling() throws CyfaceCompressedDataProcessorException, IOException {
+        fileInputStream = new FileInputStream(this.getClass().getResource("/compressedCyfaceData").getFile());
+        proc = new CyfaceDataProcessorOnDiskImpl(fileInputStream, true);
+        proc.uncompressAndPrepare();
+        final int accelerations = proc.getHeader().getNumberOfAccelerations();
+        final String[] polled = new String[accelerations];
+        for (int i = 0; i < accelerations; i++) {
+            polled[i] = proc.pollNextAccelerationPoint().toString();
+        }
+
+        // backwards, so each read goes to an earlier position of the file
+        for (int i = accelerations - 1; i >= 0; i--) {
+            assertThat(proc.getAccelerationAt(i).toString(), is(equalTo(polled[i])));
+        }
+        assertThat(proc.getLocationAt(0).toString(), is(equalTo(
+                "timestamp=1521631263237,lon=13.728253648287687,lat=51.03168352640331,speed=0.18293093144893646,accuracy=1200")));
+    }
+
+    /**
+     * The uncompressed temp file kept open for random access is closed and deleted with the processor.
+     *
+     * @throws CyfaceCompressedDataProcessorException
+     * @throws IOException
+     */
+    @Test(expected = IOException.class)
+    public void testRandomAccessAfterClose() throws CyfaceCompressedDataProcessorException, IOException {
+        fileInputStream = new FileInputStream(this.getClass().getResource("/compressedCyfaceData").getFile());
+        proc = new CyfaceDataProcessorOnDiskImpl(fileInputStream, true);
+        proc.uncompressAndPrepare();
+        CyfaceDataProcessorOnDiskImpl closed = proc;
+        closed.getAccelerationAt(0);
+        proc.close();
+        proc = null;
+
+        closed.getAccelerationAt(0);
+    }
+
+    /**
+     * A slice searches the temp file by its timestamps and has to contain the same sensor data as the one of the
+     * in-memory processor.
+     *
+     * @throws CyfaceCompressedDataProcessorException
+     * @throws IOException
+     */
+    @Test
+    public void testSliceByTime() throws CyfaceCompressedDataProcessorException, IOException {
+        String resource = CyfaceDataProcessorBulkAccessTest.FULL_SENSOR_DATA;
+        fileInputStream = new FileInputStream(this.getClass().getResource(resource).getFile());
+        proc = new CyfaceDataProcessorOnDiskImpl(fileInputStream, true);
+        proc.uncompressAndPrepare();
+        try (CyfaceDataProcessor reference = new CyfaceDataProcessorInMemoryImpl(
+                new FileInputStream(this.getClass().getResource(resource).getFile()), true).uncompressAndPrepare()) {
+            long from = reference.getAccelerationAt(200).getTimestamp();
+            long to = reference.getAccelerationAt(400).getTimestamp();
+
+            SensorDataSlice slice = proc.sliceByTime(from, to);
+            assertThat(slice.getAccelerations().get(0).toString(),
+                    is(equalTo(reference.getAccelerationAt(200).toString())));
+            assertSameSensorData(slice, reference.sliceByTime(from, to));
+            assertSameSensorData(proc.sliceByTime(Long.MIN_VALUE, Long.MAX_VALUE),
+                    reference.sliceByTime(Long.MIN_VALUE, Long.MAX_VALUE));
+        }
+    }
+
+    private void assertSameSensorData(SensorDataSlice actual, SensorDataSlice expected) {
+        assertThat(actual.getLocations().toList().toString(), is(equalTo(expected.getLocations().toList().toString())));
+        assertThat(actual.getAccelerations().toList().toString(),
+                is(equalTo(expected.getAccelerations().toList().toString())));
+        assertThat(actual.getRotations().toList().toString(),
+                is(equalTo(expected.getRotations().toList().toString())));
+        assertThat(actual.getDirections().toList().toString(),
+                is(equalTo(expected.getDirections().toList().toString())));
+    }
+
     @After
     public void tearDown() throws IOException {
         if (proc != null) {
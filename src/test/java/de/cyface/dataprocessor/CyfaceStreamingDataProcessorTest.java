@@ -0,0 +1,182 @@
+package de.cyface.dataprocessor;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+import de.cyface.data.LocationPoint;
+import de.cyface.data.Point3D;
+import de.cyface.dataprocessor.AbstractCyfaceDataProcessor.CyfaceCompressedDataProcessorException;
+import de.cyface.dataprocessor.impl.CyfaceDataProcessorInMemoryImpl;
+
+/**
+ *
+ * @author Philipp Grubitzsch
+ *
+ */
+public class CyfaceStreamingDataProcessorTest {
+
+    CyfaceStreamingDataProcessor proc = null;
+
+    @Test
+    public void testProcessCompressedCyfaceBinary() throws CyfaceCompressedDataProcessorException, IOException {
+        CollectingSink sink = process("/compressedCyfaceData", true);
+
+        assertThat(sink.header.getFormatVersion(), is(equalTo((short)1)));
+        assertThat(sink.locations.size(), is(equalTo(1711)));
+        assertThat(sink.accelerations.size(), is(equalTo(678)));
+        assertThat(sink.rotations.size(), is(equalTo(1032)));
+        assertThat(sink.directions.size(), is(equalTo(2)));
+
+        assertThat(sink.locations.get(0).toString(), is(equalTo(
+                "timestamp=1521631263237,lon=13.728253648287687,lat=51.03168352640331,speed=0.18293093144893646,accuracy=1200")));
+        assertThat(sink.accelerations.get(0).toString(), is(equalTo(
+                "timestamp=1521631261383,x=-0.4956148862838745,y=3.8332340717315674,z=13.800600051879883,sensortype=ACC")));
+        assertThat(sink.rotations.get(0).toString(), is(equalTo(
+                "timestamp=1521631263777,x=0.24593007564544678,y=-0.20202352106571198,z=0.5091384649276733,sensortype=ROT")));
+        assertThat(sink.directions.get(0).toString(), is(equalTo(
+                "timestamp=1521632513534,x=-41.099998474121094,y=10.319999694824219,z=-7.619999885559082,sensortype=DIR")));
+    }
+
+    @Test
+    public void testProcessUncompressedCyfaceBinary() throws CyfaceCompressedDataProcessorException, IOException {
+        CollectingSink sink = process("/uncompressed.cyf", false);
+
+        assertThat(sink.locations.size(), is(equalTo(1711)));
+        assertThat(sink.directions.get(1).getType(), is(equalTo(Point3D.TypePoint3D.DIR)));
+    }
+
+    /**
+     * Android binaries since SDK 3.3.0 (nowrap), Android binaries before (zlib) and uncompressed iOS binaries, which
+     * are flagged as compressed, must produce the same points as the in memory implementation.
+     *
+     * @throws CyfaceCompressedDataProcessorException
+     * @throws IOException
+     */
+    @Test
+    public void testSameResultAsInMemoryProcessing() throws CyfaceCompressedDataProcessorException, IOException {
+        for (String resource : new String[] {"/android-format2019-nowrap-arbitrary.ccyf", "/android-format2018.ccyf",
+                "/ios-uncompressed-20190424.ccyf", "/iphone-working.ccyf", "/nosensordata.ccyf"}) {
+            CollectingSink sink = process(resource, true);
+            proc.close();
+
+            try (CyfaceDataProcessor reference = new CyfaceDataProcessorInMemoryImpl(
+                    new FileInputStream(this.getClass().getResource(resource).getFile()), true)) {
+                reference.uncompressAndPrepare();
+                for (LocationPoint location : sink.locations) {
+                    assertThat(location.toString(), is(equalTo(reference.pollNextLocationPoint().toString())));
+                }
+                assertSamePoints(sink.accelerations, reference.pollNextAccelerationPoint(), reference);
+                assertThat(reference.pollNextLocationPoint(), is(equalTo(null)));
+                assertThat(sink.rotations.size(), is(equalTo(reference.getHeader().getNumberOfRotations())));
+                assertThat(sink.directions.size(), is(equalTo(reference.getHeader().getNumberOfDirections())));
+            }
+        }
+    }
+
+    @Test
+    public void testProcessRequestedSectionsOnly() throws CyfaceCompressedDataProcessorException, IOException {
+        CollectingSink sink = new CollectingSink();
+        proc = new CyfaceStreamingDataProcessor(
+                new FileInputStream(this.getClass().getResource("/compressedCyfaceData").getFile()), true);
+        proc.process(sink, EnumSet.of(CyfaceBinarySection.LOCATIONS, CyfaceBinarySection.ROTATIONS));
+
+        assertThat(sink.locations.size(), is(equalTo(1711)));
+        assertThat(sink.accelerations.size(), is(equalTo(0)));
+        assertThat(sink.rotations.size(), is(equalTo(1032)));
+        assertThat(sink.rotations.get(0).toString(), is(equalTo(
+                "timestamp=1521631263777,x=0.24593007564544678,y=-0.20202352106571198,z=0.5091384649276733,sensortype=ROT")));
+        assertThat(sink.directions.size(), is(equalTo(0)));
+    }
+
+    @Test
+    public void testPipelinedProcessing() throws CyfaceCompressedDataProcessorException, IOException {
+        String resource = "/android-format2019-nowrap-arbitrary.ccyf";
+        CollectingSink sink = process(resource, true);
+        proc.close();
+
+        CollectingSink pipelinedSink = new CollectingSink();
+        proc = new CyfaceStreamingDataProcessor(new FileInputStream(this.getClass().getResource(resource).getFile()),
+                true, true);
+        proc.process(pipelinedSink);
+
+        assertThat(pipelinedSink.locations.toString(), is(equalTo(sink.locations.toString())));
+        assertThat(pipelinedSink.accelerations.toString(), is(equalTo(sink.accelerations.toString())));
+        assertThat(pipelinedSink.rotations.toString(), is(equalTo(sink.rotations.toString())));
+        assertThat(pipelinedSink.directions.toString(), is(equalTo(sink.directions.toString())));
+    }
+
+    @Test(expected = CyfaceCompressedDataProcessorException.class)
+    public void testProcessOnlyOnce() throws CyfaceCompressedDataProcessorException, IOException {
+        process("/compressedCyfaceData", true);
+        proc.process(new CollectingSink());
+    }
+
+    private void assertSamePoints(final List<Point3D> points, final Point3D firstReferencePoint,
+            final CyfaceDataProcessor reference) throws CyfaceCompressedDataProcessorException, IOException {
+        Point3D referencePoint = firstReferencePoint;
+        for (Point3D point : points) {
+            assertThat(point.toString(), is(equalTo(referencePoint.toString())));
+            referencePoint = reference.pollNextAccelerationPoint();
+        }
+        assertThat(referencePoint, is(equalTo(null)));
+    }
+
+    private CollectingSink process(final String resource, final boolean compressed)
+            throws CyfaceCompressedDataProcessorException, IOException {
+        CollectingSink sink = new CollectingSink();
+        proc = new CyfaceStreamingDataProcessor(new FileInputStream(this.getClass().getResource(resource).getFile()),
+                compressed);
+        CyfaceBinaryHeader header = proc.process(sink);
+        assertThat(header, is(equalTo(sink.header)));
+        return sink;
+    }
+
+    private static class CollectingSink implements CyfaceDataSink {
+        CyfaceBinaryHeader header;
+        final List<LocationPoint> locations = new ArrayList<>();
+        final List<Point3D> accelerations = new ArrayList<>();
+        final List<Point3D> rotations = new ArrayList<>();
+        final List<Point3D> directions = new ArrayList<>();
+
+        @Override
+        public void onHeader(final CyfaceBinaryHeader header) {
+            this.header = header;
+        }
+
+        @Override
+        public void onLocationPoint(final LocationPoint locationPoint) {
+            locations.add(locationPoint);
+        }
+
+        @Override
+        public void onPoint3D(final Point3D point) {
+            switch (point.getType()) {
+                case ACC:
+                    accelerations.add(point);
+                    break;
+                case ROT:
+                    rotations.add(point);
+                    break;
+                default:
+                    directions.add(point);
+            }
+        }
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (proc != null) {
+            proc.close();
+        }
+    }
+}
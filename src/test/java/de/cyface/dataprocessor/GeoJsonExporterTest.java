@@ -0,0 +1,89 @@
+package de.cyface.dataprocessor;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import de.cyface.data.LocationSeries;
+import de.cyface.dataprocessor.AbstractCyfaceDataProcessor.CyfaceCompressedDataProcessorException;
+import de.cyface.dataprocessor.impl.CyfaceDataProcessorInMemoryImpl;
+
+/**
+ *
+ * @author Philipp Grubitzsch
+ *
+ */
+public class GeoJsonExporterTest {
+
+    private static final LocationSeries TRACK = new LocationSeries(new long[] {1000, 2000, 3000},
+            new double[] {51.05, Double.NaN, 51.06}, new double[] {13.7, 13.71, 13.72}, new double[] {2.5, 0.0, 3.0},
+            new int[] {5, 0, 7}, 3);
+
+    @Test
+    public void testWriteLineString() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (GeoJsonExporter exporter = new GeoJsonExporter(output, false)) {
+            assertThat(exporter.writeLineString(TrackSimplifierTest.cursor(TRACK)), is(equalTo(2L)));
+        }
+        assertThat(new String(output.toByteArray(), StandardCharsets.US_ASCII),
+                is(equalTo("{\"type\":\"Feature\",\"geometry\":{\"type\":\"LineString\",\"coordinates\":"
+                        + "[[13.7,51.05],[13.72,51.06]]},\"properties\":{\"from\":1000,\"to\":3000}}\n")));
+    }
+
+    @Test
+    public void testWriteFeatures() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (GeoJsonExporter exporter = new GeoJsonExporter(output, false)) {
+            assertThat(exporter.writeFeatures(TrackSimplifierTest.cursor(TRACK)), is(equalTo(2L)));
+        }
+        // the cursor of the test has no speed and accuracy
+        assertThat(new String(output.toByteArray(), StandardCharsets.US_ASCII),
+                is(equalTo("{\"type\":\"FeatureCollection\",\"features\":["
+                        + "{\"type\":\"Feature\",\"geometry\":{\"type\":\"Point\",\"coordinates\":[13.7,51.05]},"
+                        + "\"properties\":{\"timestamp\":1000,\"speed\":0,\"accuracy\":0}},"
+                        + "{\"type\":\"Feature\",\"geometry\":{\"type\":\"Point\",\"coordinates\":[13.72,51.06]},"
+                        + "\"properties\":{\"timestamp\":3000,\"speed\":0,\"accuracy\":0}}]}\n")));
+    }
+
+    @Test
+    public void testWriteEmpty() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (GeoJsonExporter exporter = new GeoJsonExporter(output, false)) {
+            exporter.writeLineString(TrackSimplifierTest.cursor(new LocationSeries(new long[0], new double[0],
+                    new double[0], new double[0], new int[0], 0)));
+        }
+        assertThat(new String(output.toByteArray(), StandardCharsets.US_ASCII),
+                is(equalTo("{\"type\":\"Feature\",\"geometry\":{\"type\":\"LineString\",\"coordinates\":[]},"
+                        + "\"properties\":{\"from\":null,\"to\":null}}\n")));
+    }
+
+    @Test
+    public void testWriteBinary() throws CyfaceCompressedDataProcessorException, IOException {
+        try (CyfaceDataProcessor proc = new CyfaceDataProcessorInMemoryImpl(new FileInputStream(
+                this.getClass().getResource(CyfaceDataProcessorBulkAccessTest.FULL_SENSOR_DATA).getFile()), true)) {
+            proc.uncompressAndPrepare();
+            LocationSeries locations = proc.readLocations(0, proc.getHeader().getNumberOfGeoLocations());
+            int withFix = 0;
+            for (int i = 0; i < locations.size(); i++) {
+                if (Double.isFinite(locations.getLatitude(i)) && Double.isFinite(locations.getLongitude(i))) {
+                    withFix++;
+                }
+            }
+
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            try (GeoJsonExporter exporter = new GeoJsonExporter(output, false)) {
+                assertThat(exporter.writeFeatures(proc.locationCursor()), is(equalTo((long)withFix)));
+            }
+            String json = new String(output.toByteArray(), StandardCharsets.US_ASCII);
+            assertThat(json.split("\"Point\"").length - 1, is(equalTo(withFix)));
+            assertThat(json.endsWith("]}\n"), is(true));
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package de.cyface.dataprocessor;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+import de.cyface.data.LocationSeries;
+import de.cyface.dataprocessor.AbstractCyfaceDataProcessor.CyfaceCompressedDataProcessorException;
+import de.cyface.dataprocessor.impl.CyfaceDataProcessorInMemoryImpl;
+
+/**
+ *
+ * @author Philipp Grubitzsch
+ *
+ */
+public class LocationIndexTest {
+
+    /**
+     * Creates a track with one geo location per second, which contains a geo location without fix.
+     */
+    static LocationSeries track(final int size) {
+        long[] timestamps = new long[size];
+        double[] latitudes = new double[size];
+        double[] longitudes = new double[size];
+        Random random = new Random(42);
+        for (int i = 0; i < size; i++) {
+            timestamps[i] = 1000L * i;
+            latitudes[i] = 51.0 + 0.01 * Math.sin(i / 50.0) + 0.0001 * random.nextGaussian();
+            longitudes[i] = 13.7 + 0.00002 * i;
+        }
+        latitudes[size / 2] = Double.NaN;
+        return new LocationSeries(timestamps, latitudes, longitudes, new double[size], new int[size], size);
+    }
+
+    static int[] scanBoundingBox(final LocationSeries locations, final double minLatitude, final double minLongitude,
+            final double maxLatitude, final double maxLongitude) {
+        return IntStream.range(0, locations.size())
+                .filter(i -> locations.getLatitude(i) >= minLatitude && locations.getLatitude(i) <= maxLatitude
+                        && locations.getLongitude(i) >= minLongitude && locations.getLongitude(i) <= maxLongitude)
+                .toArray();
+    }
+
+    static int[] scanRadius(final LocationSeries locations, final double latitude, final double longitude,
+            final double radiusMetres) {
+        return IntStream.range(0, locations.size()).filter(i -> LocationIndex.distance(latitude, longitude,
+                locations.getLatitude(i), locations.getLongitude(i)) <= radiusMetres).toArray();
+    }
+
+    @Test
+    public void testQueriesMatchFullScan() {
+        LocationSeries locations = track(2000);
+        LocationIndex index = new LocationIndex(locations);
+        Random random = new Random(7);
+        for (int i = 0; i < 200; i++) {
+            double latitude = 50.985 + 0.03 * random.nextDouble();
+            double longitude = 13.695 + 0.05 * random.nextDouble();
+            double latitudeSpan = 0.005 * random.nextDouble();
+            double longitudeSpan = 0.005 * random.nextDouble();
+            assertThat(index.withinBoundingBox(latitude, longitude, latitude + latitudeSpan, longitude + longitudeSpan),
+                    is(equalTo(scanBoundingBox(locations, latitude, longitude, latitude + latitudeSpan,
+                            longitude + longitudeSpan))));
+
+            double radius = 500.0 * random.nextDouble();
+            assertThat(index.withinRadius(latitude, longitude, radius),
+                    is(equalTo(scanRadius(locations, latitude, longitude, radius))));
+        }
+        assertThat(index.withinBoundingBox(-90.0, -180.0, 90.0, 180.0).length, is(equalTo(1999)));
+        assertThat(index.withinBoundingBox(51.0, 13.8, 50.0, 13.9).length, is(equalTo(0)));
+    }
+
+    @Test
+    public void testDistance() {
+        // one degree of latitude
+        assertThat(LocationIndex.distance(51.0, 13.7, 52.0, 13.7), is(closeTo(111195.0, 1.0)));
+        assertThat(LocationIndex.distance(51.0, 13.7, 51.0, 13.7), is(closeTo(0.0, 1E-9)));
+    }
+
+    @Test
+    public void testSinglePlaceAndNoLocations() {
+        LocationSeries samePlace = new LocationSeries(new long[] {0, 1, 2}, new double[] {51.0, 51.0, 51.0},
+                new double[] {13.7, 13.7, 13.7}, new double[3], new int[3], 3);
+        assertThat(new LocationIndex(samePlace).withinRadius(51.0, 13.7, 1.0), is(equalTo(new int[] {0, 1, 2})));
+
+        LocationSeries none = new LocationSeries(new long[0], new double[0], new double[0], new double[0], new int[0],
+                0);
+        assertThat(new LocationIndex(none).withinRadius(51.0, 13.7, 1000.0).length, is(equalTo(0)));
+    }
+
+    @Test
+    public void testTimeRanges() {
+        LocationIndex index = new LocationIndex(track(10));
+
+        long[][] ranges = index.toTimeRanges(new int[] {1, 2, 3, 7, 9});
+        assertThat(ranges.length, is(equalTo(3)));
+        assertThat(ranges[0], is(equalTo(new long[] {1000, 3001})));
+        assertThat(ranges[1], is(equalTo(new long[] {7000, 7001})));
+        assertThat(ranges[2], is(equalTo(new long[] {9000, 9001})));
+        assertThat(index.toTimeRanges(new int[0]).length, is(equalTo(0)));
+    }
+
+    @Test
+    public void testIndexBinary() throws CyfaceCompressedDataProcessorException, IOException {
+        try (CyfaceDataProcessor proc = new CyfaceDataProcessorInMemoryImpl(new FileInputStream(
+                this.getClass().getResource(CyfaceDataProcessorBulkAccessTest.FULL_SENSOR_DATA).getFile()), true)) {
+            proc.uncompressAndPrepare();
+            LocationIndex index = LocationIndex.of(proc);
+            LocationSeries locations = index.getLocations();
+            assertThat(locations.size(), is(equalTo(proc.getHeader().getNumberOfGeoLocations())));
+
+            int middle = locations.size() / 2;
+            double latitude = locations.getLatitude(middle);
+            double longitude = locations.getLongitude(middle);
+            int[] matches = index.withinRadius(latitude, longitude, 100.0);
+            assertThat(matches, is(equalTo(scanRadius(locations, latitude, longitude, 100.0))));
+            assertThat(Arrays.binarySearch(matches, middle) >= 0, is(true));
+
+            // the sensor data recorded while passing the area
+            int sliced = 0;
+            for (long[] range : index.toTimeRanges(matches)) {
+                sliced += proc.sliceByTime(range[0], range[1]).getLocations().size();
+            }
+            assertThat(sliced, is(equalTo(matches.length)));
+        }
+    }
+}
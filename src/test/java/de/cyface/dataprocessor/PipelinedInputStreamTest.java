@@ -0,0 +1,93 @@
+package de.cyface.dataprocessor;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.Arrays;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+/**
+ *
+ * @author Philipp Grubitzsch
+ *
+ */
+public class PipelinedInputStreamTest {
+
+    @Test
+    public void testReadsSourceCompletely() throws IOException {
+        byte[] data = new byte[10_000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte)i;
+        }
+        // more data than buffers in the ring, so the producer has to wait for the consumer
+        try (InputStream pipelined = new PipelinedInputStream(new ByteArrayInputStream(data), 2, 333)) {
+            assertThat(pipelined.read(), is(equalTo(0)));
+            byte[] rest = IOUtils.toByteArray(pipelined);
+            assertThat(Arrays.equals(rest, Arrays.copyOfRange(data, 1, data.length)), is(equalTo(true)));
+            assertThat(pipelined.read(), is(equalTo(-1)));
+        }
+    }
+
+    @Test
+    public void testReportsFailureAfterData() throws IOException {
+        InputStream failing = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("broken");
+            }
+        };
+        byte[] read = new byte[100];
+        try (InputStream pipelined = new PipelinedInputStream(
+                new SequenceInputStream(new ByteArrayInputStream(new byte[100]), failing), 4, 64)) {
+            IOUtils.readFully(pipelined, read);
+            pipelined.read();
+        } catch (IOException e) {
+            assertThat(e.getMessage(), is(equalTo("broken")));
+            return;
+        }
+        throw new AssertionError("Failure of the source was not reported.");
+    }
+
+    /**
+     * A truncated source must never look like a complete one, even if the consumer reads again after the failure.
+     */
+    @Test
+    public void testReportsFailureOnEveryLaterRead() throws IOException {
+        InputStream failing = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("broken");
+            }
+        };
+        try (InputStream pipelined = new PipelinedInputStream(failing, 2, 64)) {
+            for (int i = 0; i < 3; i++) {
+                try {
+                    pipelined.read(new byte[10]);
+                    throw new AssertionError("Failure of the source was not reported on read " + i + ".");
+                } catch (IOException e) {
+                    assertThat(e.getMessage(), is(equalTo("broken")));
+                }
+            }
+            try {
+                pipelined.read();
+                throw new AssertionError("Failure of the source was not reported on a single byte read.");
+            } catch (IOException e) {
+                assertThat(e.getMessage(), is(equalTo("broken")));
+            }
+        }
+    }
+
+    @Test
+    public void testCloseBeforeEnd() throws IOException {
+        InputStream pipelined = new PipelinedInputStream(new ByteArrayInputStream(new byte[100_000]), 2, 1024);
+        assertThat(pipelined.read(new byte[10]), is(equalTo(10)));
+        pipelined.close();
+    }
+}
@@ -0,0 +1,119 @@
+package de.cyface.dataprocessor;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+import de.cyface.data.ByteSizes;
+import de.cyface.data.Point3D.TypePoint3D;
+import de.cyface.dataprocessor.AbstractCyfaceDataProcessor.CyfaceCompressedDataProcessorException;
+import de.cyface.dataprocessor.impl.CyfaceDataProcessorInMemoryImpl;
+
+/**
+ *
+ * @author Philipp Grubitzsch
+ *
+ */
+public class Point3DResamplerTest {
+
+    /**
+     * Creates a cursor over points with x = timestamp, y = 2 * timestamp and z = -timestamp.
+     */
+    static Point3DCursor linearPoints(final long... timestamps) {
+        ByteBuffer section = ByteBuffer.allocate(timestamps.length * ByteSizes.BYTES_IN_ONE_POINT_ENTRY);
+        for (long timestamp : timestamps) {
+            section.putLong(timestamp).putDouble(timestamp).putDouble(2.0 * timestamp).putDouble(-timestamp);
+        }
+        section.flip();
+        return new Point3DCursor(section, TypePoint3D.ACC);
+    }
+
+    @Test
+    public void testInterpolatesOnFixedGrid() throws IOException {
+        // jittery points between 1000 and 1100 milliseconds
+        Point3DResampler resampler = new Point3DResampler(linearPoints(1000, 1003, 1011, 1024, 1026, 1052, 1100),
+                50.0);
+        long[] timestamps = new long[10];
+        double[] x = new double[10];
+        double[] y = new double[10];
+        double[] z = new double[10];
+
+        assertThat(resampler.resample(timestamps, x, y, z, 10), is(equalTo(6)));
+        for (int i = 0; i < 6; i++) {
+            assertThat(timestamps[i], is(equalTo(1000L + 20 * i)));
+            assertThat(x[i], is(closeTo(timestamps[i], 1E-9)));
+            assertThat(y[i], is(closeTo(2.0 * timestamps[i], 1E-9)));
+            assertThat(z[i], is(closeTo(-timestamps[i], 1E-9)));
+        }
+        assertThat(resampler.resample(timestamps, x, y, z, 10), is(equalTo(0)));
+    }
+
+    @Test
+    public void testResamplesInChunks() throws IOException {
+        Point3DResampler resampler = new Point3DResampler(linearPoints(0, 7, 13, 20, 29, 40, 41, 60, 77, 80), 100.0);
+        long[] timestamps = new long[3];
+        double[] x = new double[3];
+        double[] y = new double[3];
+        double[] z = new double[3];
+
+        long expected = 0;
+        int resampled;
+        while ((resampled = resampler.resample(timestamps, x, y, z, 3)) > 0) {
+            for (int i = 0; i < resampled; i++) {
+                assertThat(timestamps[i], is(equalTo(expected)));
+                assertThat(x[i], is(closeTo(expected, 1E-9)));
+                expected += 10;
+            }
+        }
+        assertThat(expected, is(equalTo(90L)));
+    }
+
+    @Test
+    public void testSinglePointAndNoPoints() throws IOException {
+        long[] timestamps = new long[2];
+        double[] values = new double[2];
+
+        assertThat(new Point3DResampler(linearPoints(), 50.0).resample(timestamps, values, values, values, 2),
+                is(equalTo(0)));
+        assertThat(new Point3DResampler(linearPoints(5), 50.0).resample(timestamps, values, values, values, 2),
+                is(equalTo(1)));
+        assertThat(timestamps[0], is(equalTo(5L)));
+    }
+
+    @Test
+    public void testResampleBinary() throws CyfaceCompressedDataProcessorException, IOException {
+        try (CyfaceDataProcessor proc = new CyfaceDataProcessorInMemoryImpl(new FileInputStream(
+                this.getClass().getResource(CyfaceDataProcessorBulkAccessTest.FULL_SENSOR_DATA).getFile()), true)) {
+            proc.uncompressAndPrepare();
+            CyfaceBinaryHeader header = proc.getHeader();
+            int last = header.getNumberOfAccelerations() - 1;
+            long first = proc.getAccelerationAt(0).getTimestamp();
+            long duration = proc.getAccelerationAt(last).getTimestamp() - first;
+
+            Point3DResampler resampler = new Point3DResampler(proc.accelerationCursor(), 50.0);
+            long[] timestamps = new long[256];
+            double[] x = new double[256];
+            double[] y = new double[256];
+            double[] z = new double[256];
+            long total = 0;
+            int resampled;
+            while ((resampled = resampler.resample(timestamps, x, y, z, 256)) > 0) {
+                assertThat(timestamps[0], is(equalTo(first + 20 * total)));
+                total += resampled;
+            }
+            assertThat(total, is(equalTo(duration / 20 + 1)));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidRate() {
+        new Point3DResampler(linearPoints(), 0.0);
+    }
+}
@@ -0,0 +1,74 @@
+package de.cyface.dataprocessor;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.junit.Test;
+
+/**
+ * The pool is shared by all tests, so resources released by other tests might be returned, too.
+ *
+ * @author Philipp Grubitzsch
+ *
+ */
+public class ResourcePoolTest {
+
+    @Test
+    public void testReuseInflaterInInitialState() throws Exception {
+        byte[] data = "Cyface".getBytes("UTF-8");
+        byte[] compressed = new byte[64];
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        deflater.setInput(data);
+        deflater.finish();
+        int length = deflater.deflate(compressed);
+        deflater.end();
+
+        Inflater inflater = ResourcePool.acquireInflater(true);
+        inflater.setInput(compressed, 0, length);
+        inflater.inflate(new byte[data.length]);
+        assertThat(inflater.finished(), is(equalTo(true)));
+        ResourcePool.releaseInflater(inflater, true);
+
+        List<Inflater> acquired = new ArrayList<>();
+        for (int i = 0; i < ResourcePool.POOL_CAPACITY; i++) {
+            Inflater reused = ResourcePool.acquireInflater(true);
+            assertThat(reused.finished(), is(equalTo(false)));
+            acquired.add(reused);
+        }
+        assertThat(acquired, hasItem(sameInstance(inflater)));
+
+        byte[] inflated = new byte[data.length];
+        inflater.setInput(compressed, 0, length);
+        inflater.inflate(inflated);
+        assertThat(new String(inflated, "UTF-8"), is(equalTo("Cyface")));
+        for (Inflater reused : acquired) {
+            ResourcePool.releaseInflater(reused, true);
+        }
+        // the pool is full, so this one is ended
+        ResourcePool.releaseInflater(new Inflater(true), true);
+    }
+
+    @Test
+    public void testReuseBuffer() {
+        byte[] buffer = ResourcePool.acquireBuffer();
+        assertThat(buffer.length, is(equalTo(ResourcePool.BUFFER_SIZE)));
+        ResourcePool.releaseBuffer(buffer);
+
+        List<byte[]> acquired = new ArrayList<>();
+        for (int i = 0; i < ResourcePool.POOL_CAPACITY; i++) {
+            acquired.add(ResourcePool.acquireBuffer());
+        }
+        assertThat(acquired, hasItem(sameInstance(buffer)));
+        for (byte[] reused : acquired) {
+            ResourcePool.releaseBuffer(reused);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package de.cyface.dataprocessor;
+
+import static de.cyface.dataprocessor.Point3DResamplerTest.linearPoints;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+import de.cyface.data.ByteSizes;
+import de.cyface.data.Point3D.TypePoint3D;
+import de.cyface.data.RoadSurfaceWindow;
+import de.cyface.dataprocessor.AbstractCyfaceDataProcessor.CyfaceCompressedDataProcessorException;
+import de.cyface.dataprocessor.impl.CyfaceDataProcessorInMemoryImpl;
+
+/**
+ *
+ * @author Philipp Grubitzsch
+ *
+ */
+public class RoadSurfaceAggregatorTest {
+
+    /**
+     * Creates a cursor over geo locations with latitude = longitude = timestamp.
+     */
+    static LocationCursor locations(final long... timestamps) {
+        ByteBuffer section = ByteBuffer.allocate(timestamps.length * ByteSizes.BYTES_IN_ONE_GEO_LOCATION_ENTRY);
+        for (long timestamp : timestamps) {
+            section.putLong(timestamp).putDouble(timestamp).putDouble(timestamp).putDouble(0.0).putInt(0);
+        }
+        section.flip();
+        return new LocationCursor(section);
+    }
+
+    /**
+     *
+     * @return the timestamps 0, 100, ..., 1900
+     */
+    static long[] everyHundredMillis() {
+        long[] timestamps = new long[20];
+        for (int i = 0; i < timestamps.length; i++) {
+            timestamps[i] = 100 * i;
+        }
+        return timestamps;
+    }
+
+    @Test
+    public void testTumblingWindows() throws IOException {
+        RoadSurfaceAggregator aggregator = new RoadSurfaceAggregator(linearPoints(everyHundredMillis()),
+                locations(0, 600, 1400), 1000, 1000);
+
+        // z = -timestamp, so the first window contains 0, -100, ..., -900
+        RoadSurfaceWindow window = aggregator.pollNextWindow();
+        assertThat(window.getFrom(), is(equalTo(0L)));
+        assertThat(window.getTo(), is(equalTo(1000L)));
+        assertThat(window.getNumberOfPoints(), is(equalTo(10)));
+        // the deviations from the mean -450 are -450, -350, ..., 450
+        assertThat(window.getRms(), is(closeTo(Math.sqrt(82500.0), 1E-9)));
+        assertThat(window.getVariance(), is(closeTo(82500.0, 1E-9)));
+        assertThat(window.getPeakToPeak(), is(closeTo(900.0, 1E-9)));
+        // 0.1 s * (sum of the squared deviations - half of the first and the last one)
+        assertThat(window.getVerticalEnergy(), is(closeTo(0.1 * (825000.0 - 202500.0), 1E-6)));
+        assertThat(window.getLocation().getTimestamp(), is(equalTo(600L)));
+
+        window = aggregator.pollNextWindow();
+        assertThat(window.getFrom(), is(equalTo(1000L)));
+        assertThat(window.getNumberOfPoints(), is(equalTo(10)));
+        assertThat(window.getVariance(), is(closeTo(82500.0, 1E-9)));
+        assertThat(window.getLocation().getTimestamp(), is(equalTo(1400L)));
+
+        assertThat(aggregator.pollNextWindow(), is(nullValue()));
+    }
+
+    /**
+     * Gravity is an offset of the vertical acceleration, which must neither contribute to the RMS nor to the vertical
+     * energy.
+     */
+    @Test
+    public void testGravityIsRemoved() throws IOException {
+        // alternating 1 m/s^2 above and below gravity every 10 milliseconds
+        ByteBuffer section = ByteBuffer.allocate(100 * ByteSizes.BYTES_IN_ONE_POINT_ENTRY);
+        for (int i = 0; i < 100; i++) {
+            section.putLong(10L * i).putDouble(0.0).putDouble(0.0).putDouble(9.81 + (i % 2 == 0 ? 1.0 : -1.0));
+        }
+        section.flip();
+        RoadSurfaceAggregator aggregator = new RoadSurfaceAggregator(new Point3DCursor(section, TypePoint3D.ACC),
+                null, 1000, 1000);
+
+        RoadSurfaceWindow window = aggregator.pollNextWindow();
+        assertThat(window.getNumberOfPoints(), is(equalTo(100)));
+        assertThat(window.getRms(), is(closeTo(1.0, 1E-9)));
+        assertThat(window.getVariance(), is(closeTo(1.0, 1E-9)));
+        assertThat(window.getPeakToPeak(), is(closeTo(2.0, 1E-9)));
+        // 1 (m/s^2)^2 over the 0.99 s between the first and the last point
+        assertThat(window.getVerticalEnergy(), is(closeTo(0.99, 1E-9)));
+    }
+
+    @Test
+    public void testSlidingWindows() throws IOException {
+        RoadSurfaceAggregator aggregator = new RoadSurfaceAggregator(linearPoints(everyHundredMillis()), null, 1000,
+                500);
+
+        int[] expectedPoints = {10, 10, 10, 5};
+        for (int i = 0; i < expectedPoints.length; i++) {
+            RoadSurfaceWindow window = aggregator.pollNextWindow();
+            assertThat(window.getFrom(), is(equalTo(500L * i)));
+            assertThat(window.getNumberOfPoints(), is(equalTo(expectedPoints[i])));
+            assertThat(window.getPeakToPeak(), is(closeTo(100.0 * (expectedPoints[i] - 1), 1E-9)));
+            assertThat(window.getLocation(), is(nullValue()));
+        }
+        assertThat(aggregator.pollNextWindow(), is(nullValue()));
+    }
+
+    @Test
+    public void testWindowsWithoutPointsAreSkipped() throws IOException {
+        RoadSurfaceAggregator aggregator = new RoadSurfaceAggregator(linearPoints(0, 100, 5000, 5100), locations(),
+                1000, 1000);
+
+        assertThat(aggregator.pollNextWindow().getFrom(), is(equalTo(0L)));
+        RoadSurfaceWindow window = aggregator.pollNextWindow();
+        assertThat(window.getFrom(), is(equalTo(5000L)));
+        assertThat(window.getNumberOfPoints(), is(equalTo(2)));
+        assertThat(window.getLocation(), is(nullValue()));
+        assertThat(aggregator.pollNextWindow(), is(nullValue()));
+    }
+
+    @Test
+    public void testNoPoints() throws IOException {
+        assertThat(new RoadSurfaceAggregator(linearPoints(), locations(0), 1000, 1000).pollNextWindow(),
+                is(nullValue()));
+    }
+
+    @Test
+    public void testTumblingWindowsContainAllPoints() throws CyfaceCompressedDataProcessorException, IOException {
+        // long windows exceed the initial capacity of the ring buffer
+        for (long length : new long[] {1000, 60000}) {
+            assertThat(countPoints(length), is(equalTo(countPoints(0))));
+        }
+    }
+
+    /**
+     *
+     * @param length the length of the tumbling windows or 0 for the number of acceleration points in the header
+     */
+    private int countPoints(final long length) throws CyfaceCompressedDataProcessorException, IOException {
+        try (CyfaceDataProcessor proc = new CyfaceDataProcessorInMemoryImpl(new FileInputStream(
+                this.getClass().getResource(CyfaceDataProcessorBulkAccessTest.FULL_SENSOR_DATA).getFile()), true)) {
+            proc.uncompressAndPrepare();
+            if (length == 0) {
+                return proc.getHeader().getNumberOfAccelerations();
+            }
+
+            RoadSurfaceAggregator aggregator = new RoadSurfaceAggregator(proc.accelerationCursor(),
+                    proc.locationCursor(), length, length);
+            int total = 0;
+            RoadSurfaceWindow window;
+            while ((window = aggregator.pollNextWindow()) != null) {
+                total += window.getNumberOfPoints();
+                assertThat(window.getLocation() != null, is(true));
+            }
+            return total;
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testStepLongerThanWindow() {
+        new RoadSurfaceAggregator(linearPoints(), null, 1000, 2000);
+    }
+}
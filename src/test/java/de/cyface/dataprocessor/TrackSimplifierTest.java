@@ -0,0 +1,160 @@
+package de.cyface.dataprocessor;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import de.cyface.data.ByteSizes;
+import de.cyface.data.LocationSeries;
+import de.cyface.dataprocessor.AbstractCyfaceDataProcessor.CyfaceCompressedDataProcessorException;
+import de.cyface.dataprocessor.impl.CyfaceDataProcessorInMemoryImpl;
+
+/**
+ *
+ * @author Philipp Grubitzsch
+ *
+ */
+public class TrackSimplifierTest {
+
+    static LocationCursor cursor(final LocationSeries locations) {
+        ByteBuffer section = ByteBuffer.allocate(locations.size() * ByteSizes.BYTES_IN_ONE_GEO_LOCATION_ENTRY);
+        for (int i = 0; i < locations.size(); i++) {
+            section.putLong(locations.getTimestamp(i)).putDouble(locations.getLatitude(i))
+                    .putDouble(locations.getLongitude(i)).putDouble(0.0).putInt(0);
+        }
+        section.flip();
+        return new LocationCursor(section);
+    }
+
+    /**
+     *
+     * @return the timestamps of all kept geo locations
+     */
+    static long[] simplify(final TrackSimplifier simplifier, final int chunk) throws IOException {
+        long[] result = new long[0];
+        long[] timestamps = new long[chunk];
+        double[] latitudes = new double[chunk];
+        double[] longitudes = new double[chunk];
+        int simplified;
+        while ((simplified = simplifier.simplify(timestamps, latitudes, longitudes, chunk)) > 0) {
+            result = Arrays.copyOf(result, result.length + simplified);
+            System.arraycopy(timestamps, 0, result, result.length - simplified, simplified);
+        }
+        return result;
+    }
+
+    /**
+     * Checks that each dropped geo location is within the tolerance of the segment between the kept geo locations
+     * around it.
+     */
+    static void assertWithinTolerance(final LocationSeries track, final long[] kept, final double tolerance) {
+        int segment = 0;
+        for (int i = 0; i < track.size(); i++) {
+            if (!Double.isFinite(track.getLatitude(i))) {
+                continue;
+            }
+            while (segment + 1 < kept.length && kept[segment + 1] <= track.getTimestamp(i)) {
+                segment++;
+            }
+            if (track.getTimestamp(i) == kept[segment]) {
+                continue;
+            }
+            int begin = indexOf(track, kept[segment]);
+            int end = indexOf(track, kept[segment + 1]);
+            assertThat(distanceToSegment(track, i, begin, end), is(lessThanOrEqualTo(tolerance + 0.01)));
+        }
+    }
+
+    private static int indexOf(final LocationSeries track, final long timestamp) {
+        for (int i = 0; i < track.size(); i++) {
+            if (track.getTimestamp(i) == timestamp) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("No geo location at " + timestamp);
+    }
+
+    private static double distanceToSegment(final LocationSeries track, final int point, final int begin,
+            final int end) {
+        double scale = Math.cos(Math.toRadians(track.getLatitude(begin)));
+        double endX = (track.getLongitude(end) - track.getLongitude(begin)) * scale;
+        double endY = track.getLatitude(end) - track.getLatitude(begin);
+        double x = (track.getLongitude(point) - track.getLongitude(begin)) * scale;
+        double y = track.getLatitude(point) - track.getLatitude(begin);
+        double lengthSquared = endX * endX + endY * endY;
+        double projection = lengthSquared == 0.0 ? 0.0 : Math.max(0.0, Math.min(1.0, (x * endX + y * endY)
+                / lengthSquared));
+        return Math.toRadians(Math.hypot(x - projection * endX, y - projection * endY))
+                * LocationIndex.EARTH_RADIUS_METRES;
+    }
+
+    @Test
+    public void testStraightTrackKeepsEndPoints() throws IOException {
+        // a straight line with a little noise
+        long[] timestamps = new long[1000];
+        double[] latitudes = new double[1000];
+        double[] longitudes = new double[1000];
+        for (int i = 0; i < 1000; i++) {
+            timestamps[i] = 1000L * i;
+            latitudes[i] = 51.0 + 0.00001 * i + (i % 2) * 0.000001;
+            longitudes[i] = 13.7 + 0.00001 * i;
+        }
+        LocationSeries line = new LocationSeries(timestamps, latitudes, longitudes, new double[1000], new int[1000],
+                1000);
+
+        assertThat(simplify(new TrackSimplifier(cursor(line), 1.0), 100), is(equalTo(new long[] {0, 999000})));
+        // each window keeps its boundaries
+        assertThat(simplify(new TrackSimplifier(cursor(line), 1.0, 500), 100),
+                is(equalTo(new long[] {0, 499000, 998000, 999000})));
+    }
+
+    @Test
+    public void testZeroToleranceKeepsCorners() throws IOException {
+        LocationSeries zigzag = new LocationSeries(new long[] {0, 1, 2, 3, 4},
+                new double[] {51.0, 51.001, 51.0, 51.001, 51.0}, new double[] {13.7, 13.701, 13.702, 13.703, 13.704},
+                new double[5], new int[5], 5);
+
+        assertThat(simplify(new TrackSimplifier(cursor(zigzag), 0.0), 2), is(equalTo(new long[] {0, 1, 2, 3, 4})));
+        assertThat(simplify(new TrackSimplifier(cursor(zigzag), 1000.0), 2), is(equalTo(new long[] {0, 4})));
+    }
+
+    @Test
+    public void testDroppedLocationsWithinTolerance() throws IOException {
+        LocationSeries track = LocationIndexTest.track(5000);
+        for (int windowSize : new int[] {2, 64, TrackSimplifier.DEFAULT_WINDOW_SIZE}) {
+            long[] kept = simplify(new TrackSimplifier(cursor(track), 10.0, windowSize), 256);
+            assertWithinTolerance(track, kept, 10.0);
+            assertThat(kept[0], is(equalTo(0L)));
+            assertThat(kept[kept.length - 1], is(equalTo(4999000L)));
+        }
+    }
+
+    @Test
+    public void testSimplifyBinary() throws CyfaceCompressedDataProcessorException, IOException {
+        try (CyfaceDataProcessor proc = new CyfaceDataProcessorInMemoryImpl(new FileInputStream(
+                this.getClass().getResource(CyfaceDataProcessorBulkAccessTest.FULL_SENSOR_DATA).getFile()), true)) {
+            proc.uncompressAndPrepare();
+            LocationSeries track = proc.readLocations(0, proc.getHeader().getNumberOfGeoLocations());
+
+            long[] kept = simplify(new TrackSimplifier(proc.locationCursor(), 5.0), 1000);
+            assertThat(kept.length, is(lessThan(track.size())));
+            assertWithinTolerance(track, kept, 5.0);
+        }
+    }
+
+    @Test
+    public void testNoLocations() throws IOException {
+        LocationSeries none = new LocationSeries(new long[0], new double[0], new double[0], new double[0], new int[0],
+                0);
+        assertThat(simplify(new TrackSimplifier(cursor(none), 1.0), 10).length, is(equalTo(0)));
+    }
+}